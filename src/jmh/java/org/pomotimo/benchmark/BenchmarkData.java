@@ -0,0 +1,168 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+/**
+ * Creates the synthetic presets, tasks and media files used by the benchmarks.
+ * Everything is written below {@link AppConstants#CONFIG_DIR}, which the Gradle jmh task
+ * points to a directory inside the build folder.
+ */
+final class BenchmarkData {
+    /** Start of the synthetic session history, 2016-01-01 UTC. */
+    static final long HISTORY_START = 1_451_606_400_000L;
+    /** The synthetic session history is spread over ten years. */
+    static final long HISTORY_SPAN = 10 * 365 * 86_400_000L;
+
+    private static final String[] PRESET_IDS = uuids(8, 1);
+    private static final String[] TASK_IDS = uuids(64, 2);
+
+    private BenchmarkData() {}
+
+    /**
+     * Makes sure a small alarm sound exists in the media directory. This has to be called before
+     * {@code PersistenceManager} is initialized, because the audio list is filled by its initialization.
+     *
+     * @return the {@link AudioData} of the benchmark sound.
+     */
+    static AudioData ensureAlarmSound() throws IOException {
+        Path wav = AppConstants.MEDIA_DIR.resolve("benchmark_alarm.wav");
+        if (!Files.exists(wav)) {
+            writeWav(wav, 64 * 1024);
+        }
+        return AudioData.createAudioDataFromFile(wav.toString());
+    }
+
+    /**
+     * Writes a 16 bit stereo PCM wav file with random samples.
+     *
+     * @param target the file to write.
+     * @param dataBytes the size of the sample data in bytes.
+     */
+    static void writeWav(Path target, int dataBytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        ByteBuffer buf = ByteBuffer.allocate(44 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put("RIFF".getBytes()).putInt(36 + dataBytes).put("WAVE".getBytes());
+        buf.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2)
+                .putInt(44100).putInt(44100 * 4).putShort((short) 4).putShort((short) 16);
+        buf.put("data".getBytes()).putInt(dataBytes);
+        byte[] samples = new byte[dataBytes];
+        new Random(42).nextBytes(samples);
+        buf.put(samples);
+        Files.write(target, buf.array());
+    }
+
+    /**
+     * Creates presets with the given amount of tasks each.
+     *
+     * @param count number of presets.
+     * @param tasksPerPreset number of tasks per preset.
+     * @param audio the alarm sound of every preset.
+     * @return a mutable list of new presets.
+     */
+    static List<Preset> presets(int count, int tasksPerPreset, AudioData audio) {
+        List<Preset> presets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            presets.add(preset("preset" + i, tasksPerPreset, audio));
+        }
+        return presets;
+    }
+
+    /**
+     * Creates a preset with default durations and the given amount of tasks.
+     *
+     * @param name name of the preset.
+     * @param taskCount number of tasks.
+     * @param audio the alarm sound of the preset.
+     * @return the new {@link Preset}.
+     */
+    static Preset preset(String name, int taskCount, AudioData audio) {
+        ArrayList<Task> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            tasks.add(new Task("task " + t + " of " + name, t));
+        }
+        return new Preset(name, AppConstants.DEFAULT_FOCUS_TIME, AppConstants.DEFAULT_SHORT_BREAK,
+                AppConstants.DEFAULT_LONG_BREAK, null, AppConstants.DEFAULT_CYCLE_AMOUNT, audio, tasks);
+    }
+
+    /**
+     * Creates a synthetic session. The sessions of a history are spread evenly over {@link BenchmarkData#HISTORY_SPAN},
+     * every fourth focus phase is followed by a long break, every tenth phase is interrupted.
+     *
+     * @param index the position of the session in the history.
+     * @param count the number of sessions in the history.
+     * @return the session.
+     */
+    static SessionRecord session(long index, long count) {
+        long start = HISTORY_START + index * (HISTORY_SPAN / count);
+        int step = (int) (index % 8);
+        PomoState phase = step % 2 == 0 ? PomoState.FOCUS : step == 7 ? PomoState.LONGBR : PomoState.SHORTBR;
+        boolean interrupted = index % 10 == 3;
+        long duration = switch (phase) {
+            case FOCUS -> AppConstants.DEFAULT_FOCUS_TIME;
+            case SHORTBR -> AppConstants.DEFAULT_SHORT_BREAK;
+            case LONGBR -> AppConstants.DEFAULT_LONG_BREAK;
+        } * 1000L / (interrupted ? 3 : 1);
+        return new SessionRecord(start, start + duration, phase, PRESET_IDS[(int) (index / 1000 % PRESET_IDS.length)],
+                TASK_IDS[(int) (index % TASK_IDS.length)], interrupted);
+    }
+
+    /**
+     * Writes a new session history with synthetic sessions, an existing history in the directory is deleted.
+     *
+     * @param dir the directory of the history.
+     * @param count the number of sessions.
+     * @return the opened history.
+     */
+    static SessionHistory history(Path dir, long count) throws IOException {
+        deleteRecursively(dir);
+        SessionHistory history = new SessionHistory(dir);
+        for (long i = 0; i < count; i++) {
+            history.append(session(i, count));
+        }
+        history.flush();
+        return history;
+    }
+
+    /**
+     * Deletes a directory with all files in it, nothing happens if it does not exist.
+     *
+     * @param dir the directory to delete.
+     */
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private static String[] uuids(int count, long seed) {
+        Random random = new Random(seed);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,64 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.utils.DataExporter;
+
+/**
+ * Exports one year of a synthetic history of ten million sessions, about a million rows, to a discarding
+ * stream. The score divided into the exported rows is the throughput of the export pipeline without the disk.
+ * The benchmark runs with a 64 MB heap, an export that kept its rows in memory would fail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class DataExportBenchmark {
+    private static final long YEAR = 365 * 86_400_000L;
+
+    @Param({"10000000"})
+    public long records;
+
+    @Param({"CSV", "NDJSON"})
+    public DataExporter.Format format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private SessionHistory history;
+    private DataExporter exporter;
+    private DataExporter.Options options;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        history = BenchmarkData.history(AppConstants.CONFIG_DIR.resolve("benchmark-history"), records);
+        exporter = new DataExporter(null);
+        long from = BenchmarkData.HISTORY_START + 4 * YEAR;
+        options = DataExporter.Options.all(format).between(from, from + YEAR).withGzip(gzip);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        history.close();
+    }
+
+    @Benchmark
+    public long exportYear() throws IOException {
+        return exporter.exportSessions(history, options, OutputStream.nullOutputStream());
+    }
+}
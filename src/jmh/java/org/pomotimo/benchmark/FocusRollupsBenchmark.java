@@ -0,0 +1,118 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.FocusRollups;
+import org.pomotimo.logic.history.FocusRollups.Period;
+import org.pomotimo.logic.history.SessionHistory;
+
+/**
+ * Answers the dashboard questions "focus time per week of the last twelve weeks" and "focus time per day of the
+ * last year" for a preset, once from the rollups and once by aggregating the sessions of the range in the history.
+ * {@code rebuild} measures rebuilding the rollups from the whole history, which is only needed when the rollups
+ * file is lost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FocusRollupsBenchmark {
+    private static final long DAY = 86_400_000L;
+
+    @Param({"10000000"})
+    public long records;
+
+    private final Path rollupsFile = AppConstants.CONFIG_DIR.resolve("benchmark-rollups.json");
+    private SessionHistory history;
+    private FocusRollups rollups;
+    private String presetId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        history = BenchmarkData.history(AppConstants.CONFIG_DIR.resolve("benchmark-history"), records);
+        Files.deleteIfExists(rollupsFile);
+        rollups = new FocusRollups(rollupsFile, ZoneOffset.UTC);
+        rollups.attach(history);
+        presetId = BenchmarkData.session(0, records).presetId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        history.close();
+    }
+
+    @Benchmark
+    public List<FocusRollups.Bucket> weeksFromRollups() {
+        LocalDate to = randomDate();
+        return rollups.query(Period.WEEK, presetId, to.minusWeeks(12), to);
+    }
+
+    @Benchmark
+    public Map<LocalDate, Long> weeksFromHistory() {
+        LocalDate to = randomDate();
+        return scan(Period.WEEK, to.minusWeeks(12), to);
+    }
+
+    @Benchmark
+    public List<FocusRollups.Bucket> daysOfYearFromRollups() {
+        LocalDate to = randomDate();
+        return rollups.query(Period.DAY, presetId, to.minusYears(1), to);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<LocalDate, Long> daysOfYearFromHistory() {
+        LocalDate to = randomDate();
+        return scan(Period.DAY, to.minusYears(1), to);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<FocusRollups.Bucket> rebuild() throws IOException {
+        Files.deleteIfExists(rollupsFile);
+        FocusRollups rebuilt = new FocusRollups(rollupsFile, ZoneOffset.UTC);
+        rebuilt.attach(history);
+        history.removeListener(rebuilt);
+        return rebuilt.query(Period.MONTH, null, LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(100_000));
+    }
+
+    private Map<LocalDate, Long> scan(Period period, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> focus = new HashMap<>();
+        history.forEach(from.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                to.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(), r -> {
+                    if (r.phase() == PomoState.FOCUS && presetId.equals(r.presetId())) {
+                        LocalDate date = Instant.ofEpochMilli(r.startMillis()).atZone(ZoneOffset.UTC).toLocalDate();
+                        focus.merge(period.bucketOf(date), r.durationMillis(), Long::sum);
+                    }
+                });
+        return focus;
+    }
+
+    private static LocalDate randomDate() {
+        long start = BenchmarkData.HISTORY_START + 366 * DAY;
+        long millis = start + ThreadLocalRandom.current().nextLong(BenchmarkData.HISTORY_SPAN - 366 * DAY);
+        return LocalDate.ofEpochDay(millis / DAY);
+    }
+}
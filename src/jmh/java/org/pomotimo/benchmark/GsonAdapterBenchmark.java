@@ -0,0 +1,111 @@
+package org.pomotimo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.utils.GsonFactory;
+
+/**
+ * Compares Gson's reflective binding with the streaming adapters of {@link GsonFactory},
+ * in memory so that only the JSON binding is measured.
+ * Run with {@code -PjmhProfilers=gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GsonAdapterBenchmark {
+    private static final Type PRESET_LIST_TYPE = new TypeToken<ArrayList<Preset>>() {}.getType();
+
+    @Param({"100"})
+    public int presetCount;
+
+    @Param({"10000"})
+    public int tasksPerPreset;
+
+    @Param({"reflective", "streaming"})
+    public String binding;
+
+    @Param({"true", "false"})
+    public boolean prettyPrinting;
+
+    private Gson gson;
+    private List<Preset> presets;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        presets = BenchmarkData.presets(presetCount, tasksPerPreset, BenchmarkData.ensureAlarmSound());
+        if (binding.equals("reflective")) {
+            GsonBuilder builder = new GsonBuilder();
+            if (prettyPrinting) {
+                builder.setPrettyPrinting();
+            }
+            gson = builder.create();
+        } else {
+            gson = GsonFactory.create(prettyPrinting);
+        }
+        json = gson.toJson(presets, PRESET_LIST_TYPE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        CountingWriter out = new CountingWriter();
+        gson.toJson(presets, PRESET_LIST_TYPE, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public List<Preset> load() throws IOException {
+        try (Reader in = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+            return gson.fromJson(in, PRESET_LIST_TYPE);
+        }
+    }
+
+    /**
+     * Discards the output, so the benchmark does not measure a growing buffer.
+     */
+    private static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,40 @@
+package org.pomotimo.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.HashedWheelClock;
+
+/**
+ * Measures scheduling and cancelling a timer on a {@link HashedWheelClock}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashedWheelClockBenchmark {
+
+    private HashedWheelClock clock;
+
+    @Setup
+    public void setup() {
+        clock = new HashedWheelClock();
+    }
+
+    @TearDown
+    public void tearDown() {
+        clock.shutdown();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return clock.schedule(() -> {}, ThreadLocalRandom.current().nextLong(1, 60_000), TimeUnit.MILLISECONDS).cancel();
+    }
+}
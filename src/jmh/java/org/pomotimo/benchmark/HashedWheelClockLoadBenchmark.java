@@ -0,0 +1,101 @@
+package org.pomotimo.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.HashedWheelClock;
+import org.pomotimo.logic.PomoTimer;
+
+/**
+ * Runs many concurrent {@link PomoTimer}s on one {@link HashedWheelClock}, each ticking once per second with the
+ * starts spread evenly over a second, and measures how late a probe timer fires under that load.
+ * <p>Every invocation schedules a probe one wheel tick ({@value #PROBE_DELAY_MILLIS} ms) ahead and waits for it,
+ * so the sampled time minus the delay is the lateness of the wheel; JMH reports its percentiles. The
+ * {@code cpuNanos} and {@code wallNanos} counters give the CPU share of the JVM while the timers run.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HashedWheelClockLoadBenchmark {
+    private static final long PROBE_DELAY_MILLIS = 10;
+    private static final int START_SLOTS = 100;
+
+    @Param({"10000", "100000"})
+    public int timers;
+
+    private HashedWheelClock clock;
+    private final List<PomoTimer> running = new ArrayList<>();
+
+    /**
+     * CPU time of the JVM and wall time spent in the measured invocations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cpu {
+        private static final OperatingSystemMXBean os =
+                (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        public long cpuNanos;
+        public long wallNanos;
+        private long cpuStart;
+        private long wallStart;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            cpuNanos = 0;
+            wallNanos = 0;
+            cpuStart = os.getProcessCpuTime();
+            wallStart = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop() {
+            cpuNanos = os.getProcessCpuTime() - cpuStart;
+            wallNanos = System.nanoTime() - wallStart;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        clock = new HashedWheelClock();
+        long slotNanos = TimeUnit.SECONDS.toNanos(1) / START_SLOTS;
+        for (int slot = 0; slot < START_SLOTS; slot++) {
+            for (int i = slot; i < timers; i += START_SLOTS) {
+                PomoTimer timer = new PomoTimer(clock);
+                timer.setRemainingSeconds(24 * 3600);
+                timer.start(seconds -> {});
+                running.add(timer);
+            }
+            LockSupport.parkNanos(slotNanos);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        running.forEach(PomoTimer::pause);
+        running.clear();
+        clock.shutdown();
+    }
+
+    @Benchmark
+    public Object probe(Cpu cpu) {
+        CompletableFuture<Object> fired = new CompletableFuture<>();
+        clock.schedule(() -> fired.complete(Boolean.TRUE), PROBE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        return fired.join();
+    }
+}
@@ -0,0 +1,64 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.analytics.HistoryAnalytics;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.SessionHistory;
+
+/**
+ * Scans a synthetic history of ten million sessions with fork/join pools of different parallelism.
+ * The speedup is the score at parallelism 1 divided by the score at higher parallelism; it is bounded by the
+ * number of cores of the machine running the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryAnalyticsBenchmark {
+
+    @Param({"10000000"})
+    public long records;
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    private SessionHistory history;
+    private ForkJoinPool pool;
+    private HistoryAnalytics analytics;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        history = BenchmarkData.history(AppConstants.CONFIG_DIR.resolve("benchmark-history"), records);
+        pool = new ForkJoinPool(parallelism);
+        analytics = new HistoryAnalytics(history, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        history.close();
+    }
+
+    @Benchmark
+    public HistoryAnalytics.SessionLengths sessionLengths() {
+        return analytics.sessionLengths(Long.MIN_VALUE, Long.MAX_VALUE, ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    public HistoryAnalytics.PresetInterruptions presetInterruptions() {
+        return analytics.presetInterruptions(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,81 @@
+package org.pomotimo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.gui.state.AppState;
+import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.utils.PresetImporterExporter;
+
+/**
+ * Measures exporting and importing a .pomo archive whose alarm sound is a wav file of the given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportExportBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int mediaSizeMb;
+
+    @Param({"100"})
+    public int taskCount;
+
+    private PresetManager presetManager;
+    private PresetImporterExporter importerExporter;
+    private Preset preset;
+    private File exportFile;
+    private File importFile;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkData.ensureAlarmSound();
+        Path wav = AppConstants.MEDIA_DIR.resolve("benchmark_media_" + mediaSizeMb + "mb.wav");
+        BenchmarkData.writeWav(wav, mediaSizeMb * 1024 * 1024);
+        preset = BenchmarkData.preset("export" + mediaSizeMb, taskCount, AudioData.createAudioDataFromFile(wav.toString()));
+
+        presetManager = new PresetManager(new AppState());
+        importerExporter = new PresetImporterExporter(presetManager);
+        Path dir = Files.createDirectories(AppConstants.CONFIG_DIR.resolve("benchmark"));
+        exportFile = dir.resolve("export" + AppConstants.FILE_TYPE).toFile();
+        importFile = dir.resolve("import" + AppConstants.FILE_TYPE).toFile();
+        importerExporter.exportPreset(preset, importFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearImported() {
+        presetManager.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        presetManager.shutDownScheduler();
+    }
+
+    @Benchmark
+    public boolean exportPreset() {
+        return importerExporter.exportPreset(preset, exportFile);
+    }
+
+    @Benchmark
+    public Optional<Preset> importPreset() {
+        return importerExporter.importPreset(importFile);
+    }
+}
@@ -0,0 +1,95 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+import org.pomotimo.logic.utils.JournalRecord;
+import org.pomotimo.logic.utils.PersistenceManager;
+
+/**
+ * Compares persisting a single task edit by appending to the journal with rewriting the whole presets file.
+ * The {@code bytesWritten} and {@code mutations} counters give the bytes written per mutation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JournalBenchmark {
+
+    @Param({"100"})
+    public int presetCount;
+
+    @Param({"10", "1000"})
+    public int tasksPerPreset;
+
+    private PersistenceManager persistenceManager;
+    private List<Preset> presets;
+    private Preset target;
+
+    /**
+     * Bytes written to disk by the measured mutations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Written {
+        public long bytesWritten;
+        public long mutations;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        presets = BenchmarkData.presets(presetCount, tasksPerPreset, BenchmarkData.ensureAlarmSound());
+        target = presets.get(presetCount / 2);
+        persistenceManager = new PersistenceManager();
+        persistenceManager.compact(presets);
+    }
+
+    @TearDown(Level.Iteration)
+    public void compact() {
+        persistenceManager.compact(presets);
+    }
+
+    @Benchmark
+    public void journalAddTask(Written written) {
+        Task t = new Task("benchmark task", target.getTaskAmount());
+        target.addTask(t);
+        long before = journalSize();
+        persistenceManager.appendToJournal(JournalRecord.addTask(target, t));
+        written.bytesWritten += journalSize() - before;
+        written.mutations++;
+        target.removeTask(t);
+    }
+
+    @Benchmark
+    public void rewriteAddTask(Written written) throws IOException {
+        Task t = new Task("benchmark task", target.getTaskAmount());
+        target.addTask(t);
+        persistenceManager.savePresets(presets);
+        written.bytesWritten += Files.size(AppConstants.PRESETS_FILE);
+        written.mutations++;
+        target.removeTask(t);
+    }
+
+    private static long journalSize() {
+        try {
+            return Files.exists(AppConstants.PRESETS_JOURNAL_FILE) ? Files.size(AppConstants.PRESETS_JOURNAL_FILE) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.utils.GsonFactory;
+import org.pomotimo.logic.utils.PersistenceManager;
+
+/**
+ * Measures the time until the first preset can be shown: reading all presets with their tasks from
+ * one file, compared with reading the preset headers and the task list of the first preset only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LazyLoadBenchmark {
+    private static final Type PRESET_LIST_TYPE = new TypeToken<ArrayList<Preset>>() {}.getType();
+
+    @Param({"100"})
+    public int presetCount;
+
+    @Param({"1000", "10000"})
+    public int tasksPerPreset;
+
+    private PersistenceManager persistenceManager;
+    private Gson inlineGson;
+    private Path inlineFile;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Preset> presets = BenchmarkData.presets(presetCount, tasksPerPreset, BenchmarkData.ensureAlarmSound());
+        persistenceManager = new PersistenceManager();
+        persistenceManager.compact(presets);
+
+        inlineGson = GsonFactory.create(true);
+        inlineFile = AppConstants.CONFIG_DIR.resolve("presets-inline.json");
+        try (Writer writer = Files.newBufferedWriter(inlineFile, StandardCharsets.UTF_8)) {
+            inlineGson.toJson(presets, PRESET_LIST_TYPE, writer);
+        }
+    }
+
+    @Benchmark
+    public Preset eagerFirstPreset() throws IOException {
+        try (Reader reader = Files.newBufferedReader(inlineFile, StandardCharsets.UTF_8)) {
+            List<Preset> presets = inlineGson.fromJson(reader, PRESET_LIST_TYPE);
+            return presets.getFirst();
+        }
+    }
+
+    @Benchmark
+    public Preset lazyFirstPreset() {
+        List<Preset> presets = persistenceManager.loadPresets();
+        Preset first = presets.getFirst();
+        persistenceManager.loadTasks(first);
+        return first;
+    }
+}
@@ -0,0 +1,51 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.utils.PersistenceManager;
+
+/**
+ * Measures writing and reading the presets file with {@link PersistenceManager}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersistenceBenchmark {
+
+    @Param({"10", "100"})
+    public int presetCount;
+
+    @Param({"10", "1000"})
+    public int tasksPerPreset;
+
+    private PersistenceManager persistenceManager;
+    private List<Preset> presets;
+
+    @Setup
+    public void setup() throws IOException {
+        presets = BenchmarkData.presets(presetCount, tasksPerPreset, BenchmarkData.ensureAlarmSound());
+        persistenceManager = new PersistenceManager();
+        persistenceManager.savePresets(presets);
+    }
+
+    @Benchmark
+    public void savePresets() {
+        persistenceManager.savePresets(presets);
+    }
+
+    @Benchmark
+    public List<Preset> loadPresets() {
+        return persistenceManager.loadPresets();
+    }
+}
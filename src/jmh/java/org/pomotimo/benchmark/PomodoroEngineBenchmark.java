@@ -0,0 +1,40 @@
+package org.pomotimo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.PomodoroEngine;
+import org.pomotimo.logic.VirtualClock;
+
+/**
+ * Simulates a full day of automatically continued pomodoro cycles on a {@link VirtualClock}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PomodoroEngineBenchmark {
+
+    @Param({"true", "false"})
+    public boolean observed;
+
+    @Param({"4"})
+    public int cycleAmount;
+
+    @Benchmark
+    public int simulateDay() {
+        VirtualClock clock = new VirtualClock();
+        PomodoroEngine engine = new PomodoroEngine(clock);
+        engine.configure(1500, 300, 900, cycleAmount);
+        engine.setAutoContinue(true);
+        engine.setObserved(observed);
+        engine.start();
+        clock.advance(1, TimeUnit.DAYS);
+        return engine.getCycle();
+    }
+}
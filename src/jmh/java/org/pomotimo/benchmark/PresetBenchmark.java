@@ -0,0 +1,63 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+/**
+ * Measures task membership checks, lookups and reordering on a single preset with a large task list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresetBenchmark {
+
+    @Param({"100", "10000"})
+    public int taskCount;
+
+    private Preset preset;
+    private String[] uuids;
+    private Task extraTask;
+
+    @Setup
+    public void setup() throws IOException {
+        preset = BenchmarkData.preset("tasks", taskCount, BenchmarkData.ensureAlarmSound());
+        uuids = preset.getTasks().stream().map(Task::getUUId).toArray(String[]::new);
+        extraTask = new Task("extra", taskCount);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveTask() {
+        preset.addTask(extraTask);
+        return preset.removeTask(extraTask);
+    }
+
+    @Benchmark
+    public boolean addExistingTask() {
+        return preset.addTask(preset.getTasks().get(ThreadLocalRandom.current().nextInt(taskCount)));
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskByUUID() {
+        return preset.getTaskByUUID(uuids[ThreadLocalRandom.current().nextInt(uuids.length)]);
+    }
+
+    @Benchmark
+    public boolean moveTask() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Optional<Task> t = preset.getTaskByUUID(uuids[random.nextInt(uuids.length)]);
+        return t.isPresent() && preset.moveTask(t.get(), random.nextInt(taskCount));
+    }
+}
@@ -0,0 +1,58 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.gui.state.AppState;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+
+/**
+ * Measures preset lookups by name and the preset list snapshot used by the menus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresetManagerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int presetCount;
+
+    private PresetManager presetManager;
+    private String[] names;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Preset> presets = BenchmarkData.presets(presetCount, 0, BenchmarkData.ensureAlarmSound());
+        presetManager = new PresetManager(new AppState());
+        presets.forEach(presetManager::addPreset);
+        names = presets.stream().map(p -> p.getName().toUpperCase()).toArray(String[]::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        presetManager.shutDownScheduler();
+    }
+
+    @Benchmark
+    public Optional<Preset> findPresetByName() {
+        return presetManager.findPresetByName(names[ThreadLocalRandom.current().nextInt(names.length)]);
+    }
+
+    @Benchmark
+    public List<Preset> getPresets() {
+        return presetManager.getPresets();
+    }
+}
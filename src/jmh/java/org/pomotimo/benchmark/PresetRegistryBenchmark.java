@@ -0,0 +1,144 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetRegistry;
+
+/**
+ * Concurrent readers and a writer on the presets: two threads look up presets by name, one takes the
+ * list snapshot for the menus and one replaces presets with edited copies.
+ * The {@code lockedList} group does the same on a synchronized list with linear lookups, like
+ * {@code PresetManager} did before it used the {@link PresetRegistry}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresetRegistryBenchmark {
+
+    @Param({"10000"})
+    public int presetCount;
+
+    private PresetRegistry registry;
+    private LockedList locked;
+    private String[] names;
+    private Preset[] current;
+    private Preset[] alternate;
+
+    /**
+     * The synchronized list the presets were kept in before.
+     */
+    static final class LockedList {
+        private final List<Preset> presets = new ArrayList<>();
+
+        synchronized void add(Preset p) {
+            presets.add(p);
+        }
+
+        synchronized Optional<Preset> findByName(String name) {
+            return presets.stream().filter(p -> p.getName().equalsIgnoreCase(name)).findFirst();
+        }
+
+        synchronized List<Preset> getAll() {
+            return List.copyOf(presets);
+        }
+
+        synchronized void replace(Preset old, Preset updated) {
+            for (int i = 0; i < presets.size(); i++) {
+                if (presets.get(i) == old) {
+                    presets.set(i, updated);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        List<Preset> presets = BenchmarkData.presets(presetCount, 0, BenchmarkData.ensureAlarmSound());
+        registry = new PresetRegistry();
+        registry.setAll(presets);
+        locked = new LockedList();
+        presets.forEach(locked::add);
+        names = presets.stream().map(p -> p.getName().toUpperCase()).toArray(String[]::new);
+        current = presets.toArray(Preset[]::new);
+        alternate = presets.stream()
+                .map(p -> p.copyWith(p.getName(), p.getDurationFocus(), p.getDurationShortBreak(),
+                        p.getDurationLongBreak(), p.getCycleAmount(), p.getCurrentAudio()))
+                .toArray(Preset[]::new);
+    }
+
+    private String randomName() {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+
+    /**
+     * Swaps a random preset with its copy, only one thread of a group calls this.
+     */
+    private int nextEdit() {
+        int i = ThreadLocalRandom.current().nextInt(current.length);
+        Preset old = current[i];
+        current[i] = alternate[i];
+        alternate[i] = old;
+        return i;
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(2)
+    public Optional<Preset> registryFindByName() {
+        return registry.findByName(randomName());
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(1)
+    public List<Preset> registrySnapshot() {
+        return registry.getAll();
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(1)
+    public boolean registryReplace() {
+        int i = nextEdit();
+        return registry.replace(alternate[i], current[i]);
+    }
+
+    @Benchmark
+    @Group("lockedList")
+    @GroupThreads(2)
+    public Optional<Preset> lockedFindByName() {
+        return locked.findByName(randomName());
+    }
+
+    @Benchmark
+    @Group("lockedList")
+    @GroupThreads(1)
+    public List<Preset> lockedSnapshot() {
+        return locked.getAll();
+    }
+
+    @Benchmark
+    @Group("lockedList")
+    @GroupThreads(1)
+    public void lockedReplace() {
+        int i = nextEdit();
+        locked.replace(alternate[i], current[i]);
+    }
+}
@@ -0,0 +1,110 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+import org.pomotimo.logic.utils.GsonFactory;
+
+/**
+ * Edits the tasks of a preset on one thread while another one serializes snapshots of it, like the
+ * saver of {@code PresetManager} does. The editor holds a lock like the manager, the saver does not.
+ * A save of a snapshot must neither fail nor see the tasks out of order, otherwise the benchmark throws.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresetSnapshotBenchmark {
+    private static final Type TASK_LIST_TYPE = new TypeToken<List<Task>>() {}.getType();
+
+    @Param({"10000"})
+    public int taskCount;
+
+    private final Object lock = new Object();
+    private Gson gson;
+    private Preset preset;
+    private List<Task> extra;
+
+    /**
+     * Discards the JSON, only the serialization itself is measured.
+     */
+    private static final class NullWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        gson = GsonFactory.create(false);
+        preset = BenchmarkData.preset("snapshot", taskCount, BenchmarkData.ensureAlarmSound());
+        extra = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            extra.add(new Task("extra " + i, 0));
+        }
+    }
+
+    @Benchmark
+    @Group("editAndSave")
+    @GroupThreads(1)
+    public boolean edit() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        synchronized (lock) {
+            List<Task> tasks = preset.getTasks();
+            return switch (random.nextInt(4)) {
+                case 0 -> {
+                    Task t = extra.get(random.nextInt(extra.size()));
+                    yield preset.addTask(t) || preset.removeTask(t);
+                }
+                default -> preset.moveTask(tasks.get(random.nextInt(tasks.size())), random.nextInt(tasks.size()));
+            };
+        }
+    }
+
+    @Benchmark
+    @Group("editAndSave")
+    @GroupThreads(1)
+    public int save() {
+        Preset snapshot = preset.snapshot();
+        List<Task> tasks = snapshot.getTasks();
+        gson.toJson(tasks, TASK_LIST_TYPE, new NullWriter());
+        for (int i = 1; i < tasks.size(); i++) {
+            if (tasks.get(i - 1).getPriority() >= tasks.get(i).getPriority()) {
+                throw new IllegalStateException("Snapshot is not ordered at task " + i);
+            }
+        }
+        return tasks.size();
+    }
+
+    @Benchmark
+    @Group("snapshotOnly")
+    public Preset snapshot() {
+        return preset.snapshot();
+    }
+}
@@ -0,0 +1,142 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.HistorySegment;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+
+/**
+ * Appends to and queries a session history with millions of sessions spread over ten years.
+ * <p>{@code append} writes ten million records into a fresh history per iteration, the score is the time per
+ * record. The queries count the sessions of a random day, week or month. {@code queryDayFullScan} reads
+ * every record like a store without a time index would.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionHistoryBenchmark {
+    private static final long DAY = 86_400_000L;
+    private static final int APPEND_RECORDS = 10_000_000;
+
+    /**
+     * A history that is written once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Stored {
+        @Param({"10000000"})
+        public long records;
+
+        SessionHistory history;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            history = BenchmarkData.history(AppConstants.CONFIG_DIR.resolve("benchmark-history"), records);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            history.close();
+        }
+    }
+
+    /**
+     * An empty history per iteration, deleted afterwards.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        private final Path dir = AppConstants.CONFIG_DIR.resolve("benchmark-append");
+        SessionHistory history;
+
+        @Setup(Level.Iteration)
+        public void setup() throws IOException {
+            BenchmarkData.deleteRecursively(dir);
+            history = new SessionHistory(dir);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            history.close();
+            BenchmarkData.deleteRecursively(dir);
+        }
+    }
+
+    private static final class Counter implements Consumer<SessionRecord> {
+        long count;
+
+        @Override
+        public void accept(SessionRecord record) {
+            count++;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(APPEND_RECORDS)
+    public long append(Fresh fresh) throws IOException {
+        for (int i = 0; i < APPEND_RECORDS; i++) {
+            fresh.history.append(BenchmarkData.session(i, APPEND_RECORDS));
+        }
+        return fresh.history.size();
+    }
+
+    @Benchmark
+    public long queryDay(Stored stored) {
+        return query(stored.history, DAY);
+    }
+
+    @Benchmark
+    public long queryWeek(Stored stored) {
+        return query(stored.history, 7 * DAY);
+    }
+
+    @Benchmark
+    public long queryMonth(Stored stored) {
+        return query(stored.history, 30 * DAY);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long queryDayFullScan(Stored stored) {
+        long from = randomDay(DAY);
+        long to = from + DAY;
+        long count = 0;
+        for (HistorySegment segment : stored.history.segments()) {
+            for (int i = 0; i < segment.size(); i++) {
+                long start = segment.get(i).startMillis();
+                if (start >= from && start < to) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long query(SessionHistory history, long length) {
+        long from = randomDay(length);
+        Counter counter = new Counter();
+        history.forEach(from, from + length, counter);
+        return counter.count;
+    }
+
+    private static long randomDay(long length) {
+        long days = (BenchmarkData.HISTORY_SPAN - length) / DAY;
+        return BenchmarkData.HISTORY_START + ThreadLocalRandom.current().nextLong(days) * DAY;
+    }
+}
@@ -0,0 +1,79 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+/**
+ * Adds focus time to a random task of a large preset and keeps a view of the tasks sorted by focus time,
+ * once by replacing the changed row of a {@link SortedList} like the {@code TaskPane} does and once by
+ * sorting a copy of all tasks. {@code addFocusTime} measures only the lock-free counter update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskFocusTimeBenchmark {
+    private static final Comparator<Task> BY_TIME = Comparator.comparingLong(Task::getFocusMillis).reversed();
+
+    @Param({"50000"})
+    public int taskCount;
+
+    private List<Task> tasks;
+    private ObservableList<Task> rows;
+    private SortedList<Task> byTime;
+
+    @Setup
+    public void setup() throws IOException {
+        Preset preset = BenchmarkData.preset("focus", taskCount, BenchmarkData.ensureAlarmSound());
+        tasks = preset.getTasks();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Task t : tasks) {
+            t.addFocusMillis(random.nextLong(100 * 3_600_000L));
+        }
+        rows = FXCollections.observableArrayList(tasks);
+        byTime = new SortedList<>(rows, BY_TIME);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long addFocusTime() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return tasks.get(random.nextInt(taskCount)).addFocusMillis(25 * 60_000L);
+    }
+
+    @Benchmark
+    public Task sortedRowUpdate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(taskCount);
+        Task t = rows.get(index);
+        t.addFocusMillis(25 * 60_000L);
+        rows.set(index, t);
+        return byTime.getFirst();
+    }
+
+    @Benchmark
+    public Task fullSort() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        tasks.get(random.nextInt(taskCount)).addFocusMillis(25 * 60_000L);
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(BY_TIME);
+        return sorted.getFirst();
+    }
+}
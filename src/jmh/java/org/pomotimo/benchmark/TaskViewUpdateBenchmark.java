@@ -0,0 +1,76 @@
+package org.pomotimo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+/**
+ * Moves a single task and updates the items of the task list view, once by rebuilding them like the
+ * {@code TaskPane} did on every change and once by applying the move as a delta.
+ * The list view itself needs the JavaFX toolkit, so the items are observed by a listener that counts
+ * the rows a view would have to update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskViewUpdateBenchmark {
+
+    @Param({"50000"})
+    public int taskCount;
+
+    private Preset preset;
+    private ObservableList<Task> items;
+    private long changedRows;
+    private final ListChangeListener<Task> rowCounter = c -> {
+        while (c.next()) {
+            changedRows += c.getAddedSize() + c.getRemovedSize();
+        }
+    };
+
+    @Setup
+    public void setup() throws IOException {
+        preset = BenchmarkData.preset("view", taskCount, BenchmarkData.ensureAlarmSound());
+        items = FXCollections.observableArrayList(preset.getTasks());
+        items.addListener(rowCounter);
+    }
+
+    @Benchmark
+    public long rebuild() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Task> tasks = preset.getTasks();
+        preset.moveTask(tasks.get(random.nextInt(taskCount)), random.nextInt(taskCount));
+        items.clear();
+        items.removeListener(rowCounter);
+        items = FXCollections.observableArrayList(preset.getTasks());
+        items.addListener(rowCounter);
+        changedRows += items.size();
+        return changedRows;
+    }
+
+    @Benchmark
+    public long delta() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(taskCount);
+        int to = random.nextInt(taskCount);
+        Task t = preset.getTasks().get(from);
+        preset.moveTask(t, to);
+        items.remove(from);
+        items.add(to, t);
+        return changedRows;
+    }
+}
@@ -0,0 +1,73 @@
+package org.pomotimo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.pomotimo.gui.utils.TimeLabels;
+import org.pomotimo.logic.PomodoroEngine;
+import org.pomotimo.logic.VirtualClock;
+
+/**
+ * The render step the {@code TimerPane} runs on every JavaFX pulse while the timer is running: read the
+ * remaining seconds, look up their label and set it only if the second has changed.
+ * The label itself needs the JavaFX toolkit, so its text is a plain property without listeners.
+ * Run with {@code -PjmhProfilers=gc}, {@code gc.alloc.rate.norm} should be about zero bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimerRenderBenchmark {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final PomodoroEngine engine = new PomodoroEngine(clock);
+    private final StringProperty timerText = new SimpleStringProperty();
+    private int renderedSeconds = -1;
+    /* Seconds of the newSecond benchmark, counted down like a running timer */
+    private int seconds;
+
+    @Setup
+    public void setup() {
+        engine.configure(TimeLabels.MAX_CACHED_SECONDS, 300, 900, 4);
+        engine.setObserved(true);
+        engine.start();
+        clock.advance(90, TimeUnit.SECONDS);
+        renderSeconds(engine.getRemainingSeconds());
+    }
+
+    /**
+     * Most pulses: the second has not changed, only the volatile read and the comparison are done.
+     */
+    @Benchmark
+    public int unchangedSecond() {
+        renderSeconds(engine.getRemainingSeconds());
+        return renderedSeconds;
+    }
+
+    /**
+     * Once per second: the label of the new second is looked up and set.
+     */
+    @Benchmark
+    public int newSecond() {
+        if (--seconds < 0) {
+            seconds = TimeLabels.MAX_CACHED_SECONDS;
+        }
+        renderSeconds(seconds);
+        return renderedSeconds;
+    }
+
+    /* The same as TimerPane.renderSeconds(int) */
+    private void renderSeconds(int seconds) {
+        if (seconds != renderedSeconds) {
+            renderedSeconds = seconds;
+            timerText.set(TimeLabels.format(seconds));
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package org.pomotimo.gui;
 
 
+import java.util.concurrent.CompletableFuture;
+
 import javafx.application.Application;
 import javafx.stage.Stage;
 
 import org.pomotimo.gui.frame.MainFrame;
 import org.pomotimo.gui.state.AppState;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.utils.PersistenceManager;
 import org.pomotimo.logic.utils.PresetImporterExporter;
 import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.utils.StartupOrchestrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,18 +24,49 @@ public class PomotimoGUI extends Application {
     private static MainFrame mainFrame;
     private static final Logger logger = LoggerFactory.getLogger(PomotimoGUI.class);
 
+    /**
+     * Starts the application. With {@code --startup-report} the duration of every startup step
+     * is printed once the window is shown and the background steps are done.
+     *
+     * @param args the command line arguments.
+     */
     public static void main(String[] args) {
         launch(args);
     }
 
     @Override
     public void start(Stage stage) {
-        AppState appState = new AppState();
-        PomotimoGUI.presetManager = new PresetManager(appState);
+        StartupOrchestrator startup = new StartupOrchestrator();
+        /* Media directory and icons are independent of each other and of the preset loading */
+        CompletableFuture<Void> media = startup.runAsync("media directory", PersistenceManager::initialize);
+        startup.runAsync("app icons", AppConstants.Icons::preload);
+        startup.runAsync("audio index", PersistenceManager::refreshAudioIndex, media);
+        /* may rebuild the focus rollups from the whole history, which must not block the window */
+        startup.runAsync("session history", PersistenceManager::openSessionHistory);
+
+        AppState appState = startup.run("app state", AppState::new);
+        PomotimoGUI.presetManager = startup.run("preset manager", () -> new PresetManager(appState));
+        startup.track("presets", presetManager.presetsLoaded());
+        startup.track("alarm sound", media.thenCompose(v -> presetManager.preloadAlarmAsync()));
         PomotimoGUI.importerExporter = new PresetImporterExporter(presetManager);
         PomotimoGUI.mainStage = stage;
         logger.debug("Starting GUI...");
-        PomotimoGUI.mainFrame = new MainFrame(presetManager, importerExporter, mainStage, appState);
-        mainFrame.show();
+        PomotimoGUI.mainFrame = startup.run("main frame",
+                () -> new MainFrame(presetManager, importerExporter, mainStage, appState));
+        startup.run("show window", () -> {
+            mainFrame.show();
+            return null;
+        });
+        startup.mark("window shown");
+
+        boolean printReport = getParameters().getRaw().contains("--startup-report");
+        startup.whenDone().thenRun(() -> {
+            if (printReport) {
+                System.out.println(startup.report());
+            } else {
+                logger.debug(startup.report());
+            }
+        });
+        startup.shutdown();
     }
 }
@@ -1,5 +1,6 @@
 package org.pomotimo.gui;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,7 +14,10 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.UnaryOperator;
 
 import org.pomotimo.gui.state.AppState;
@@ -21,6 +25,7 @@ import org.pomotimo.gui.state.TaskViewState;
 import org.pomotimo.gui.state.TimerViewState;
 import org.pomotimo.gui.utils.AlertFactory;
 import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.audio.AudioLibrary;
 import org.pomotimo.logic.config.AppConstants;
 import org.pomotimo.logic.preset.Preset;
 import org.pomotimo.logic.utils.PersistenceManager;
@@ -43,6 +48,8 @@ public class PresetEditor extends BorderPane {
     private final PresetManager presetManager;
     private Preset currentPreset;
     private final AppState appState;
+    private final ObservableList<AudioData> audioItems = FXCollections.observableArrayList();
+    private final AudioLibrary.Listener libraryListener = change -> Platform.runLater(() -> applyLibraryChange(change));
 
     private enum EditorMode {
         EDIT,
@@ -65,6 +72,20 @@ public class PresetEditor extends BorderPane {
         } catch (NullPointerException e) {
             logger.error("Stylesheet not found", e);
         }
+
+        /* Follow the audio library only while the editor is shown */
+        AudioLibrary library = PersistenceManager.getAudioLibrary();
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                library.addListener(libraryListener);
+                /* catch up with changes between building the sound box and showing the editor */
+                Set<AudioData> current = new HashSet<>(library.getAudioDataList());
+                audioItems.removeIf(a -> !current.contains(a));
+                applyLibraryChange(new AudioLibrary.Change(library.getAudioDataList(), List.of(), List.of()));
+            } else {
+                library.removeListener(libraryListener);
+            }
+        });
     }
 
     @FXML
@@ -148,8 +169,7 @@ public class PresetEditor extends BorderPane {
         );
         presetManager.refreshPlayerAudioPath(selectedAudio.filePath());
 
-        presetManager.removePreset(currentPreset);
-        presetManager.addPreset(updated);
+        presetManager.updatePreset(currentPreset, updated);
         presetManager.setCurrentPreset(updated);
 
         appState.setTimerViewState(TimerViewState.TIMER);
@@ -158,7 +178,6 @@ public class PresetEditor extends BorderPane {
 
 
         currentPreset = updated;
-        presetManager.scheduleSave();
     }
 
     private void configureTextField(TextField field, String initialValue) {
@@ -210,10 +229,10 @@ public class PresetEditor extends BorderPane {
     }
 
     private void setupSoundSelectBox(boolean reset) {
-        ObservableList<AudioData> audioItems = FXCollections.observableList(PersistenceManager.readOnlyAudioDataList);
+        audioItems.setAll(PersistenceManager.getAudioDataList());
         soundSelectBox.setItems(audioItems);
         if (reset) {
-            Optional<AudioData> optDef = PersistenceManager.readOnlyAudioDataList
+            Optional<AudioData> optDef = PersistenceManager.getAudioDataList()
                     .stream()
                     .filter(e -> e.name().equals("winter_vivaldi"))
                     .findFirst();
@@ -223,4 +242,17 @@ public class PresetEditor extends BorderPane {
         }
     }
 
+    /**
+     * Applies the added and removed sounds of the audio library to the sound box, without rebuilding its items.
+     */
+    private void applyLibraryChange(AudioLibrary.Change change) {
+        if (!change.removed().isEmpty()) {
+            Set<AudioData> removed = new HashSet<>(change.removed());
+            audioItems.removeIf(removed::contains);
+        }
+        if (!change.added().isEmpty()) {
+            Set<AudioData> present = new HashSet<>(audioItems);
+            change.added().stream().filter(a -> !present.contains(a)).forEach(audioItems::add);
+        }
+    }
 }
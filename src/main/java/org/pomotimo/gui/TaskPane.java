@@ -2,19 +2,23 @@ package org.pomotimo.gui;
 
 import java.io.IOException;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Optional;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.KeyCode;
@@ -23,7 +27,9 @@ import javafx.scene.layout.BorderPane;
 
 import org.pomotimo.gui.state.AppState;
 import org.pomotimo.gui.state.TaskViewState;
+import org.pomotimo.gui.utils.TimeLabels;
 import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetEvent;
 import org.pomotimo.logic.preset.PresetManager;
 import org.pomotimo.logic.preset.Task;
 import org.slf4j.Logger;
@@ -33,12 +39,21 @@ import org.slf4j.LoggerFactory;
  * A JavaFX view component for managing the list of tasks associated with a preset.
  * It allows users to add new tasks, delete existing ones, and reorder them
  * using drag-and-drop functionality.
+ * <p>The list is rebuilt only when another preset becomes the current one. Task changes are applied
+ * row by row from the {@link PresetEvent}s of the {@link PresetManager}.</p>
+ * <p>Every row shows the focus time spent on its task, the task that focus time is currently counted for
+ * is highlighted. The rows can be sorted by focus time, which reorders only the rows whose time changed.</p>
  */
 public class TaskPane extends BorderPane {
 
     @FXML private ListView<Task> taskListView;
     @FXML private TextField taskInput;
     @FXML private Button addTaskButton;
+    @FXML private ToggleButton sortByTimeToggle;
+    /* The tasks of the current preset in their order, the list view shows them directly or sorted by time */
+    private final ObservableList<Task> rows = FXCollections.observableArrayList();
+    private SortedList<Task> rowsByTime;
+    private Task focusTask;
     private final ContextMenu contextMenu = new ContextMenu();
     private final PresetManager presetManager;
     private final AppState appState;
@@ -75,14 +90,68 @@ public class TaskPane extends BorderPane {
         appState.taskViewStateProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue != null) {
                 if (newValue == TaskViewState.EMPTY) {
-                    taskListView.getItems().clear();
+                    rows.clear();
                 }
             }
         });
+        presetManager.addListener(event -> {
+            if (Platform.isFxApplicationThread()) {
+                applyEvent(event);
+            } else {
+                Platform.runLater(() -> applyEvent(event));
+            }
+        });
+        taskListView.setItems(rows);
         this.setOnMousePressed(event -> this.requestFocus());
         setupTaskPaneFunctionality();
     }
 
+    /**
+     * Applies a task change of the current preset to the rows of the list view.
+     */
+    private void applyEvent(PresetEvent event) {
+        ObservableList<Task> items = rows;
+        switch (event) {
+            case PresetEvent.TaskInserted e when isShown(e.preset()) ->
+                    items.add(Math.min(e.index(), items.size()), e.task());
+            case PresetEvent.TaskRemoved e when isShown(e.preset()) -> removeRow(items, e.task(), e.index());
+            case PresetEvent.TaskMoved e when isShown(e.preset()) -> {
+                removeRow(items, e.task(), e.from());
+                items.add(Math.min(e.to(), items.size()), e.task());
+            }
+            /* replacing the row lets the sorted view move it to its new place */
+            case PresetEvent.FocusTimeAdded e when isShown(e.preset()) -> replaceRow(items, e.task(), e.index());
+            case PresetEvent.FocusTaskChanged e when isShown(e.preset()) -> {
+                focusTask = e.task();
+                taskListView.refresh();
+            }
+            default -> { }
+        }
+    }
+
+    private static void removeRow(ObservableList<Task> items, Task task, int index) {
+        if (index < items.size() && items.get(index).equals(task)) {
+            items.remove(index);
+        } else {
+            items.remove(task);
+        }
+    }
+
+    private static void replaceRow(ObservableList<Task> items, Task task, int index) {
+        if (index < 0 || index >= items.size() || !items.get(index).equals(task)) {
+            index = items.indexOf(task);
+        }
+        if (index >= 0) {
+            items.set(index, task);
+        }
+    }
+
+    private boolean isShown(Preset p) {
+        return presetManager.getCurrentPreset()
+                .map(current -> current == p || current.getId() != null && current.getId().equals(p.getId()))
+                .orElse(false);
+    }
+
     private void addTask() {
         if (taskInput.getText() == null || taskInput.getText().trim().isEmpty() || taskInput.getText().isBlank()) {
             return;
@@ -92,10 +161,8 @@ public class TaskPane extends BorderPane {
             logger.info("Current Preset is present.");
             Preset pr = presetManager.getCurrentPreset().get();
             Task t = new Task(taskInput.getText(), pr.getTaskAmount());
-            pr.addTask(t);
-            taskListView.getItems().add(t);
+            presetManager.addTask(pr, t);
             logger.info("Task added: " + t);
-            presetManager.scheduleSave();
             taskInput.clear();
         }
 
@@ -103,32 +170,55 @@ public class TaskPane extends BorderPane {
 
     private void enableCellFactory() {
         taskListView.setCellFactory(lv -> {
+            Label focusTime = new Label();
+            focusTime.getStyleClass().add("task-focus-time");
             ListCell<Task> cell = new ListCell<>() {
                 @Override
                 protected void updateItem(Task task, boolean empty) {
                     super.updateItem(task, empty);
-                    setText(empty || task == null ? null : task.getName());
+                    getStyleClass().remove("focus-task");
+                    if (empty || task == null) {
+                        setText(null);
+                        setGraphic(null);
+                        return;
+                    }
+                    setText(task.getName());
+                    focusTime.setText(TimeLabels.formatFocusTime(task.getFocusMillis()));
+                    setGraphic(focusTime);
+                    setContentDisplay(ContentDisplay.RIGHT);
+                    if (task.equals(focusTask)) {
+                        getStyleClass().add("focus-task");
+                    }
                 }
             };
 
             /* --- Context menu functionality --- */
 
             ContextMenu menu = new ContextMenu();
+            MenuItem focusItem = new MenuItem("Focus on this Task");
             MenuItem deleteItem = new MenuItem("Delete");
 
+            focusItem.setOnAction(e -> {
+                Task task = cell.getItem();
+                if (task != null) {
+                    presetManager.setFocusTask(task);
+                }
+            });
+
             deleteItem.setOnAction(e -> {
                 Task task = cell.getItem();
                 removeTaskItem(task);
             });
 
-            menu.getItems().add(deleteItem);
+            menu.getItems().addAll(focusItem, deleteItem);
             cell.emptyProperty().addListener((obs, wasEmpty, isNowEmpty) -> {
                 cell.setContextMenu(isNowEmpty ? null : menu);
             });
 
             /* --- Drag and drop functionality --- */
             cell.setOnDragDetected(event -> {
-                if (cell.isEmpty())
+                /* the order of the tasks can only be changed while they are shown in it */
+                if (cell.isEmpty() || sortByTimeToggle.isSelected())
                     return;
 
                 Dragboard db = cell.startDragAndDrop(TransferMode.MOVE);
@@ -153,11 +243,7 @@ public class TaskPane extends BorderPane {
                 event.consume();
             });
 
-            cell.setOnDragExited(event -> {
-                Task task = cell.getItem();
-                cell.setText(task == null ? null : task.getName());
-                cell.setStyle("");
-            });
+            cell.setOnDragExited(event -> cell.setStyle(""));
 
             cell.setOnDragDropped(event -> {
                 int newIndex;
@@ -179,11 +265,8 @@ public class TaskPane extends BorderPane {
                     if (oldIndex < newIndex) newIndex--;
 
                     if (oldIndex != newIndex) {
-                        list.remove(draggedTask);
-                        list.add(newIndex, draggedTask);
-
-                        normalizePriorities(list);
-                        presetManager.scheduleSave();
+                        int index = newIndex;
+                        presetManager.getCurrentPreset().ifPresent(pr -> presetManager.moveTask(pr, draggedTask, index));
                     }
 
                     event.setDropCompleted(true);
@@ -196,18 +279,9 @@ public class TaskPane extends BorderPane {
         });
     }
 
-    private void normalizePriorities(ObservableList<Task> items) {
-        for (int i = 0; i < items.size(); i++) {
-            items.get(i).setPriority(i);
-        }
-        presetManager.scheduleSave();
-    }
-
     private void removeTaskItem(Task task) {
         if (task != null) {
-            taskListView.getItems().remove(task);
-            presetManager.getCurrentPreset().ifPresent(pr -> pr.removeTask(task));
-            presetManager.scheduleSave();
+            presetManager.getCurrentPreset().ifPresent(pr -> presetManager.removeTask(pr, task));
             logger.info("Deleted: {}", task);
         }
     }
@@ -226,18 +300,22 @@ public class TaskPane extends BorderPane {
      */
     public void refreshTaskListView() {
         presetManager.getCurrentPreset().ifPresent(pr -> {
-            taskListView.getItems().setAll(pr.getTasks());
+            focusTask = presetManager.getFocusTask().orElse(null);
+            rows.setAll(pr.getTasks());
         });
     }
 
     private void updateTaskList (Preset p) {
-        taskListView.getItems().clear();
-        enableCellFactory();
-
         logger.info("Adding all tasks of current presets to ListView");
-        List<Task> tasks = p.getTasks();
-        tasks.sort(Comparator.comparingInt(Task::getPriority));
-        taskListView.setItems(FXCollections.observableArrayList(tasks));
+        focusTask = presetManager.getFocusTask().orElse(null);
+        rows.setAll(p.getTasks());
+    }
+
+    private void sortByTime(boolean sorted) {
+        if (sorted && rowsByTime == null) {
+            rowsByTime = new SortedList<>(rows, Comparator.comparingLong(Task::getFocusMillis).reversed());
+        }
+        taskListView.setItems(sorted ? rowsByTime : rows);
     }
 
     /**
@@ -249,6 +327,8 @@ public class TaskPane extends BorderPane {
     private void setupTaskPaneFunctionality() {
         addTaskButton.setOnAction(e -> addTask());
         taskInput.setOnAction(e -> addTaskButton.fire());
+        sortByTimeToggle.selectedProperty().addListener((obs, wasSorted, sorted) -> sortByTime(sorted));
+        enableCellFactory();
         taskListView.setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.DELETE) {
                 removeTaskItem(taskListView.getSelectionModel().getSelectedItem());
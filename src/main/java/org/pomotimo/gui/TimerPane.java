@@ -1,5 +1,6 @@
 package org.pomotimo.gui;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -17,16 +18,21 @@ import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
 import org.kordamp.ikonli.javafx.FontIcon;
 import org.pomotimo.gui.state.AppState;
 import org.pomotimo.gui.state.TimerViewState;
+import org.pomotimo.gui.utils.TimeLabels;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.PomodoroEngine;
+import org.pomotimo.logic.history.SessionRecorder;
+import org.pomotimo.logic.preset.FocusTimeTracker;
 import org.pomotimo.logic.preset.Preset;
-import org.pomotimo.logic.PomoTimer;
 import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.utils.PersistenceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A JavaFX view component that serves as the main timer display and control panel.
  * It manages the visual representation of the countdown timer, provides user controls
- * (start, pause, reset, skip), and handles the Pomodoro state logic (Focus, Short Break, Long Break).
+ * (start, pause, reset, skip), and renders the phases (Focus, Short Break, Long Break) of a {@link PomodoroEngine}.
  */
 public class TimerPane extends BorderPane {
     private static final Logger logger = LoggerFactory.getLogger(TimerPane.class);
@@ -40,27 +46,27 @@ public class TimerPane extends BorderPane {
     @FXML private Label cycleLabel;
     @FXML private VBox timerContainer;
     @FXML private Button resetCycleBtn;
-    private final PomoTimer timer = new PomoTimer();
+    private final PomodoroEngine engine = new PomodoroEngine();
     private final PresetManager presetManager;
     private final AppState appState;
-    private int cycleCounter;
-    private PomoState state;
-    private int focusSec;
-    private int shortBrSec;
-    private int longBrSec;
-    private int cycleAmount;
     private boolean soundOn = true;
+    /* Seconds currently shown by the timer label, used to skip redundant label updates. */
+    private int renderedSeconds = -1;
+    /* Renders the remaining time once per JavaFX pulse while the timer is running. */
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            renderSeconds(engine.getRemainingSeconds());
+            if (!engine.isRunning()) {
+                stop();
+            }
+        }
+    };
     private final List<FontIcon> iconList = List.of(new FontIcon(FontAwesomeSolid.VOLUME_UP),
             new FontIcon(FontAwesomeSolid.VOLUME_MUTE),
             new FontIcon(FontAwesomeSolid.PLAY),
             new FontIcon(FontAwesomeSolid.PAUSE));
 
-    private enum PomoState {
-        FOCUS,
-        SHORTBR,
-        LONGBR
-    }
-
     /**
      * Constructs the TimerPane.
      *
@@ -112,6 +118,40 @@ public class TimerPane extends BorderPane {
             presetManager.getCurrentPreset().ifPresent(this::updateFromPreset);
         });
 
+        engine.addListener(new PomodoroEngine.Listener() {
+            @Override
+            public void onPhaseFinished(PomoState finished) {
+                runOnFxThread(TimerPane.this::onPhaseFinished);
+            }
+
+            @Override
+            public void onPhaseChanged(PomoState state, int cycle, int durationSeconds) {
+                runOnFxThread(() -> showPhase(state, cycle, durationSeconds));
+            }
+        });
+        /* the history is opened by a startup step, phases are recorded from then on */
+        PersistenceManager.whenSessionHistoryOpened().thenAccept(history -> history
+                .ifPresent(h -> engine.addListener(new SessionRecorder(engine, h, presetManager))));
+        FocusTimeTracker focusTimeTracker = new FocusTimeTracker(engine, presetManager);
+        engine.addListener(focusTimeTracker);
+        presetManager.addListener(focusTimeTracker);
+        startBtn.setOnAction(e -> {
+            if (engine.isRunning()) {
+                engine.pause();
+                renderer.stop();
+                renderSeconds(engine.getRemainingSeconds());
+                startBtn.setText("Start");
+            } else {
+                presetManager.stopPlayer();
+                updatePlayIcon();
+                engine.start();
+                if (appState.isWindowVisible()) {
+                    renderer.start();
+                }
+                startBtn.setText("Stop");
+            }
+        });
+
         appState.timerViewStateProperty().addListener((obs, oldValue, newValue) -> {
             switch (newValue) {
                 case EMPTY -> showEmptyState();
@@ -123,6 +163,8 @@ public class TimerPane extends BorderPane {
                 updateFromPreset(newValue);
             }
         });
+        appState.windowVisibleProperty().addListener((observable, oldValue, newValue) ->
+                setTimerObserved(newValue));
         if (appState.getCurrentPreset() != null) {
             showTimerState();
             updateFromPreset(appState.getCurrentPreset());
@@ -201,93 +243,96 @@ public class TimerPane extends BorderPane {
     }
 
     private void updateFromPreset(Preset p) {
-        focusSec = p.getDurationFocus();
-        shortBrSec = p.getDurationShortBreak();
-        longBrSec = p.getDurationLongBreak();
-        cycleAmount = p.getCycleAmount();
-        timerLabel.setText(String.format("%02d:%02d", focusSec / 60, focusSec % 60));
-        cycleLabel.setText("Cycle: " + cycleCounter + " / " + cycleAmount);
+        engine.configure(p.getDurationFocus(), p.getDurationShortBreak(),
+                p.getDurationLongBreak(), p.getCycleAmount());
+        renderSeconds(engine.getRemainingSeconds());
+        cycleLabel.setText("Cycle: " + engine.getCycle() + " / " + engine.getCycleAmount());
+    }
 
-        timer.setRemainingSeconds(focusSec);
-        startBtn.setOnAction(e -> {
-            if (timer.isRunning()) {
-                timer.pause();
-                startBtn.setText("Start");
-            } else {
-                presetManager.stopPlayer();
-                updatePlayIcon();
-                timer.start(seconds -> {
-                    int min = seconds / 60;
-                    int sec = seconds % 60;
-                    String time = String.format("%02d:%02d", min, sec);
-                    Platform.runLater(() -> timerLabel.setText(time));
-                    if (seconds <= 0) {
-                        timer.pause();
-                        Platform.runLater(() -> {
-                            presetManager.startPlayer();
-                            updatePlayIcon();
-                            if (!soundOn) {
-                                presetManager.setMutePlayer(true);
-                            }
+    /**
+     * Switches between per-second rendering and the low-power mode, in which neither the timer
+     * nor the label wake up until the current phase ends.
+     *
+     * @param visible {@code true} if the window is visible and the remaining time should be shown.
+     */
+    private void setTimerObserved(boolean visible) {
+        engine.setObserved(visible);
+        if (!visible) {
+            renderer.stop();
+        } else if (engine.isRunning()) {
+            renderer.start();
+        } else {
+            renderSeconds(engine.getRemainingSeconds());
+        }
+    }
 
-                            setNewPomoState();
-                            startBtn.setText("Start");
-                        });
-                    }
-                });
-                startBtn.setText("Stop");
+    private void onPhaseFinished() {
+        renderer.stop();
+        renderSeconds(0);
+        presetManager.startPlayer();
+        updatePlayIcon();
+        if (!soundOn) {
+            presetManager.setMutePlayer(true);
+        }
+        startBtn.setText("Start");
+    }
+
+    /**
+     * Shows the phase the engine has entered.
+     *
+     * @param state the new phase.
+     * @param cycle the current cycle.
+     * @param durationSeconds the duration of the new phase.
+     */
+    private void showPhase(PomoState state, int cycle, int durationSeconds) {
+        switch (state) {
+            case FOCUS -> {
+                stateLabel.setText("Focus");
+                cycleLabel.setText("Cycle: " + cycle + " / " + engine.getCycleAmount());
             }
-        });
+            case SHORTBR -> stateLabel.setText("Short Break");
+            case LONGBR -> stateLabel.setText("Long Break");
+        }
+        renderSeconds(durationSeconds);
+    }
+
+    private void runOnFxThread(Runnable r) {
+        if (Platform.isFxApplicationThread()) {
+            r.run();
+        } else {
+            Platform.runLater(r);
+        }
+    }
+
+    /**
+     * Shows the given amount of seconds on the timer label. The label is only touched if the
+     * displayed value changes, the text itself comes from the precomputed {@link TimeLabels} table.
+     *
+     * @param seconds the seconds to display.
+     */
+    private void renderSeconds(int seconds) {
+        if (seconds != renderedSeconds) {
+            renderedSeconds = seconds;
+            timerLabel.setText(TimeLabels.format(seconds));
+        }
     }
 
     private void createButtonsAndLabels(){
-        state = PomoState.FOCUS;
-        cycleCounter = 1;
+        engine.resetCycle();
 
         resetBtn.setTooltip(new Tooltip("Restart Current Timer"));
         resetBtn.setOnAction(e -> {
-            if(timer.isRunning()){
+            if(engine.isRunning()){
                 startBtn.setText("Start");
             }
-            int nt = focusSec;
-            switch (state) {
-                case SHORTBR -> nt = shortBrSec;
-                case LONGBR -> nt = longBrSec;
-            }
-            timer.reset(nt);
-            timerLabel.setText(String.format("%02d:%02d", nt / 60, nt % 60));
+            engine.resetPhase();
+            renderer.stop();
+            renderSeconds(engine.getRemainingSeconds());
 
         });
         skipBtn.setTooltip(new Tooltip("Skip to Next State"));
-        skipBtn.setOnAction(e -> setNewPomoState());
-
-    }
+        skipBtn.setOnAction(e -> engine.skip());
 
-    private void setNewPomoState() {
-        switch (state) {
-            case FOCUS:
-                if(cycleCounter >= cycleAmount) {
-                    state = PomoState.LONGBR;
-                    cycleCounter = 1;
-                    timer.setRemainingSeconds(longBrSec);
-                    stateLabel.setText("Long Break");
-                    timerLabel.setText(String.format("%02d:%02d", longBrSec / 60, longBrSec % 60));
-                } else {
-                    state = PomoState.SHORTBR;
-                    cycleCounter += 1;
-                    timer.setRemainingSeconds(shortBrSec);
-                    stateLabel.setText("Short Break");
-                    timerLabel.setText(String.format("%02d:%02d", shortBrSec / 60, shortBrSec % 60));
-                }
-                break;
-            case SHORTBR, LONGBR:
-                state = PomoState.FOCUS;
-                stateLabel.setText("Focus");
-                cycleLabel.setText("Cycle: " + cycleCounter + " / " + cycleAmount);
-                timer.setRemainingSeconds(focusSec);
-                timerLabel.setText(String.format("%02d:%02d", focusSec / 60, focusSec % 60));
-                break;
-        }
     }
 
 }
@@ -1,9 +1,13 @@
 package org.pomotimo.gui.frame;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -28,8 +32,12 @@ import org.pomotimo.gui.state.TimerViewState;
 import org.pomotimo.gui.utils.AlertFactory;
 import org.pomotimo.gui.utils.ElementsFactory;
 import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.SessionHistory;
 import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetEvent;
 import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.utils.DataExporter;
+import org.pomotimo.logic.utils.PersistenceManager;
 import org.pomotimo.logic.utils.PresetImporterExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +49,7 @@ import org.slf4j.LoggerFactory;
  */
 public class MainFrame extends PomoFrame {
     private TimerPane timerPane;
+    private final DataExporter dataExporter;
     private static final Logger logger = LoggerFactory.getLogger(MainFrame.class);
 
     /**
@@ -55,6 +64,7 @@ public class MainFrame extends PomoFrame {
                      Stage mainStage,
                      AppState appState) {
         super(presetManager, importerExporter, mainStage, appState);
+        this.dataExporter = new DataExporter(presetManager);
         initialize();
     }
 
@@ -90,6 +100,13 @@ public class MainFrame extends PomoFrame {
         importItem.setOnAction(e -> handleImportPreset());
         exportItem.setOnAction(e -> handleExportPreset());
 
+        Menu exportDataMenu = new Menu("Export Data");
+        MenuItem exportHistoryItem = new MenuItem("Session History");
+        MenuItem exportTasksItem = new MenuItem("Tasks");
+        exportHistoryItem.setOnAction(e -> handleExportData(DataExport.SESSIONS));
+        exportTasksItem.setOnAction(e -> handleExportData(DataExport.TASKS));
+        exportDataMenu.getItems().addAll(exportHistoryItem, exportTasksItem);
+
         editItem.setOnAction(e -> {
             if (presetManager.getCurrentPreset().isPresent()) {
                 timerPane.showPresetEditor(presetManager.getCurrentPreset().get());
@@ -113,7 +130,7 @@ public class MainFrame extends PomoFrame {
         manageMenu.getItems().addAll(createItem, editItem, deleteItem);
         Menu switchMenu = getMenu(presetButton);
 
-        presetButton.getItems().addAll(importItem, exportItem, switchMenu, manageMenu);
+        presetButton.getItems().addAll(importItem, exportItem, exportDataMenu, switchMenu, manageMenu);
         presetButton.getStyleClass().add("topbar-select-button");
         buttonContainer1.getChildren().add(presetButton);
 
@@ -149,6 +166,66 @@ public class MainFrame extends PomoFrame {
         exportFrame.show();
     }
 
+    /**
+     * The data sets that can be exported from the menu.
+     */
+    private enum DataExport {
+        SESSIONS("Session History", "sessions"),
+        TASKS("Tasks", "tasks");
+
+        private final String title;
+        private final String rows;
+
+        DataExport(String title, String rows) {
+            this.title = title;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Lets the user choose a file and exports the session history or the tasks to it in the background.
+     * The format is chosen by the file extension, see {@link DataExporter.Options#forFile}.
+     */
+    private void handleExportData(DataExport export) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export " + export.title);
+        fileChooser.setInitialFileName(export.rows + ".csv");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("NDJSON Files", "*.ndjson"),
+                new FileChooser.ExtensionFilter("Compressed Files", "*.csv.gz", "*.ndjson.gz")
+        );
+
+        File file = fileChooser.showSaveDialog(mainStage);
+        if (file == null) {
+            return;
+        }
+        DataExporter.Options options = DataExporter.Options.forFile(file.toPath());
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return switch (export) {
+                    case SESSIONS -> {
+                        SessionHistory history = PersistenceManager.getSessionHistory()
+                                .orElseThrow(() -> new IOException("The session history could not be opened"));
+                        yield dataExporter.exportSessions(history, options, file.toPath());
+                    }
+                    case TASKS -> dataExporter.exportTasks(options, file.toPath());
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((count, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                AlertFactory.alert(Alert.AlertType.INFORMATION, "Export Successful", "",
+                        count + " " + export.rows + " were exported.").showAndWait();
+            } else {
+                logger.error("Failed to export {} to {}", export.rows, file.getAbsolutePath(), error);
+                AlertFactory.alert(Alert.AlertType.ERROR, "Export Failed", "",
+                        "Could not export the " + export.rows + " to the selected file.").showAndWait();
+            }
+        }));
+    }
+
     private void handleImportPreset() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Import Preset");
@@ -176,30 +253,71 @@ public class MainFrame extends PomoFrame {
         }
     }
 
+    /**
+     * Creates the menu to switch between presets. Its items are kept up to date with the
+     * {@link PresetEvent}s of the preset manager, opening the menu only selects the current preset.
+     */
     private Menu getMenu(MenuButton presetButton) {
         Menu switchMenu = new Menu("Select");
         ToggleGroup presetsGroup = new ToggleGroup();
+        presetManager.getPresets().forEach(pr -> switchMenu.getItems().add(presetItem(pr, presetsGroup)));
+        presetManager.addListener(event -> {
+            if (Platform.isFxApplicationThread()) {
+                applyEvent(switchMenu, presetsGroup, event);
+            } else {
+                Platform.runLater(() -> applyEvent(switchMenu, presetsGroup, event));
+            }
+        });
         presetButton.setOnShowing(e -> {
-            switchMenu.getItems().clear();
-            presetManager.getPresets().forEach(pr -> {
-                String itemName = pr.getName().replace("_", "__");
-                RadioMenuItem prItem = new RadioMenuItem(itemName);
-                prItem.setToggleGroup(presetsGroup);
-                if (presetManager.getCurrentPreset().map(p -> p.equals(pr)).orElse(false)) {
-                    prItem.setSelected(true);
-                }
-                prItem.setOnAction(e2 -> {
-                    presetManager.setCurrentPreset(pr);
-                    appState.setCurrentPreset(pr);
-                    prItem.setSelected(true);
-                    logger.debug("Switched to preset: {}", pr);
-                });
-                switchMenu.getItems().add(prItem);
-            });
+            Optional<Preset> current = presetManager.getCurrentPreset();
+            for (MenuItem item : switchMenu.getItems()) {
+                Preset pr = (Preset) item.getUserData();
+                ((RadioMenuItem) item).setSelected(current.map(p -> isSamePreset(p, pr)).orElse(false));
+            }
         });
         return switchMenu;
     }
 
+    private RadioMenuItem presetItem(Preset pr, ToggleGroup presetsGroup) {
+        RadioMenuItem prItem = new RadioMenuItem(pr.getName().replace("_", "__"));
+        prItem.setToggleGroup(presetsGroup);
+        prItem.setUserData(pr);
+        prItem.setOnAction(e -> {
+            Preset selected = (Preset) prItem.getUserData();
+            presetManager.setCurrentPreset(selected);
+            appState.setCurrentPreset(selected);
+            prItem.setSelected(true);
+            logger.debug("Switched to preset: {}", selected);
+        });
+        return prItem;
+    }
+
+    private void applyEvent(Menu switchMenu, ToggleGroup presetsGroup, PresetEvent event) {
+        ObservableList<MenuItem> items = switchMenu.getItems();
+        switch (event) {
+            case PresetEvent.PresetsReset e ->
+                    items.setAll(e.presets().stream().<MenuItem>map(pr -> presetItem(pr, presetsGroup)).toList());
+            case PresetEvent.PresetAdded e ->
+                    items.add(Math.min(e.index(), items.size()), presetItem(e.preset(), presetsGroup));
+            case PresetEvent.PresetRemoved e ->
+                    items.removeIf(item -> isSamePreset((Preset) item.getUserData(), e.preset()));
+            case PresetEvent.PresetUpdated e -> items.stream()
+                    .filter(item -> item.getUserData() == e.old())
+                    .findFirst()
+                    .ifPresent(item -> {
+                        item.setUserData(e.updated());
+                        if (e.renamed()) {
+                            item.setText(e.updated().getName().replace("_", "__"));
+                        }
+                    });
+            default -> { }
+        }
+    }
+
+    private static boolean isSamePreset(Preset a, Preset b) {
+        return a == b || a.getId() != null && a.getId().equals(b.getId());
+    }
+
     /**
      * Initializes the main application frame's structure and appearance.
      * This involves setting up the stage style, title, icon, creating the main content panes
@@ -211,7 +329,7 @@ public class MainFrame extends PomoFrame {
         this.mainStage.initStyle(StageStyle.TRANSPARENT);
         this.mainStage.setTitle("Pomotimo");
         try {
-            this.mainStage.getIcons().addAll(AppConstants.ICON_LIST);
+            this.mainStage.getIcons().addAll(AppConstants.Icons.ICON_LIST);
         } catch (NullPointerException e) {
             logger.error("Icon path is null.", e);
         }
@@ -243,12 +361,19 @@ public class MainFrame extends PomoFrame {
             logger.error("Stylesheets not found.", e);
         }
 
+        mainStage.showingProperty().addListener((obs, oldValue, newValue) -> updateWindowVisibility());
+        mainStage.iconifiedProperty().addListener((obs, oldValue, newValue) -> updateWindowVisibility());
+
         mainStage.setOnCloseRequest(event -> {
             shutdownApplication();
             event.consume();
         });
     }
 
+    private void updateWindowVisibility() {
+        appState.setWindowVisible(mainStage.isShowing() && !mainStage.isIconified());
+    }
+
     private void shutdownApplication() {
         presetManager.shutDownScheduler();
         Platform.exit();
@@ -104,7 +104,7 @@ public class MenuFrame extends PomoFrame {
         mainStage.initModality(Modality.WINDOW_MODAL);
         mainStage.initOwner(parentStage);
         try {
-            this.mainStage.getIcons().addAll(AppConstants.ICON_LIST);
+            this.mainStage.getIcons().addAll(AppConstants.Icons.ICON_LIST);
         } catch (NullPointerException e) {
             logger.error("Icon path is null.", e);
         }
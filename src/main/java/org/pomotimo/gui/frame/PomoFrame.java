@@ -42,11 +42,6 @@ public abstract class PomoFrame extends BorderPane {
         this.importerExporter = importerExporter;
         this.mainStage = mainStage;
         this.appState = appState;
-        appState.currentPresetProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                drawTopBar();
-            }
-        });
     }
 
     protected abstract void drawTopBar();
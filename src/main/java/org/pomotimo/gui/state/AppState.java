@@ -1,7 +1,9 @@
 package org.pomotimo.gui.state;
 
 import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import org.pomotimo.logic.preset.Preset;
 
@@ -19,6 +21,9 @@ public class AppState {
     private final ObjectProperty<TaskViewState> taskViewState =
             new SimpleObjectProperty<>(TaskViewState.EMPTY);
 
+    private final BooleanProperty windowVisible =
+            new SimpleBooleanProperty(true);
+
     /**
      * Returning and {@link ObjectProperty<Preset>} object of our current preset.
      * @return the {@link ObjectProperty<Preset>} that is currently in use.
@@ -87,4 +92,32 @@ public class AppState {
         }
     }
 
+    /**
+     *
+     * @return {@link BooleanProperty} that is {@code true} while the main window is shown and not iconified.
+     */
+    public BooleanProperty windowVisibleProperty() {
+        return windowVisible;
+    }
+
+    /**
+     *
+     * @return {@code true} if the main window is currently visible to the user.
+     */
+    public boolean isWindowVisible() {
+        return windowVisible.get();
+    }
+
+    /**
+     *  Set whether the main window is visible, views may stop updating while it is hidden or iconified.
+     * @param visible {@code true} if the window is shown and not iconified.
+     */
+    public void setWindowVisible(boolean visible) {
+        if (Platform.isFxApplicationThread()) {
+            windowVisible.set(visible);
+        } else {
+            Platform.runLater(() -> this.windowVisible.set(visible));
+        }
+    }
+
 }
@@ -36,13 +36,13 @@ public class AlertFactory {
         alert.setHeaderText(header);
         alert.setContentText(content);
 
-        ImageView logoView = new ImageView(AppConstants.ICON_128);
+        ImageView logoView = new ImageView(AppConstants.Icons.ICON_128);
         logoView.setFitWidth(48);
         logoView.setFitHeight(48);
         alert.setGraphic(logoView);
 
         Stage stage = (Stage) alert.getDialogPane().getScene().getWindow();
-        stage.getIcons().addAll(AppConstants.ICON_LIST);
+        stage.getIcons().addAll(AppConstants.Icons.ICON_LIST);
 
         return alert;
     }
@@ -77,7 +77,7 @@ public class ElementsFactory {
      * @return A configured {@link ImageView} containing the application icon.
      */
     public static ImageView appIcon() {
-        ImageView appIcon = new ImageView(AppConstants.ICON_48);
+        ImageView appIcon = new ImageView(AppConstants.Icons.ICON_48);
         appIcon.setFitHeight(24);
         appIcon.setFitWidth(24);
         HBox.setMargin(appIcon, new Insets(0, 5, 0, 9));
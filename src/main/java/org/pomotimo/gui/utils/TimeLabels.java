@@ -0,0 +1,61 @@
+package org.pomotimo.gui.utils;
+
+/**
+ * A utility class that provides the "MM:SS" labels shown by the timer.
+ * All labels from 00:00 to 99:59 are created once, so rendering a new second
+ * only needs an array lookup and does not allocate.
+ */
+public final class TimeLabels {
+
+    /**
+     * The largest amount of seconds that is covered by the precomputed table (99:59).
+     */
+    public static final int MAX_CACHED_SECONDS = 5999;
+
+    private static final String[] LABELS = new String[MAX_CACHED_SECONDS + 1];
+
+    static {
+        for (int i = 0; i <= MAX_CACHED_SECONDS; i++) {
+            LABELS[i] = String.format("%02d:%02d", i / 60, i % 60);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TimeLabels() {}
+
+    /**
+     * Gets the "MM:SS" label of the given amount of seconds.
+     *
+     * @param seconds the seconds to format, negative values are shown as 00:00.
+     * @return the formatted label, taken from the precomputed table if {@code seconds} is at most
+     * {@link TimeLabels#MAX_CACHED_SECONDS}.
+     */
+    public static String format(int seconds) {
+        if (seconds <= 0) {
+            return LABELS[0];
+        }
+        if (seconds <= MAX_CACHED_SECONDS) {
+            return LABELS[seconds];
+        }
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Gets the label of the focus time spent on a task, e.g. "45m" or "3h 05m".
+     *
+     * @param millis the focus time in millis.
+     * @return the formatted label, an empty string for less than a minute.
+     */
+    public static String formatFocusTime(long millis) {
+        long minutes = millis / 60_000;
+        if (minutes <= 0) {
+            return "";
+        }
+        if (minutes < 60) {
+            return minutes + "m";
+        }
+        return String.format("%dh %02dm", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,28 @@
+package org.pomotimo.logic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A source of monotonic time that can also run tasks after a delay.
+ * The application uses the {@link HashedWheelClock}, simulations can use a {@link VirtualClock}
+ * to fast-forward time without waiting.
+ */
+public interface ClockSource {
+
+    /**
+     * Gets the current value of the monotonic clock. Only differences between two values are meaningful.
+     *
+     * @return the current time in nanoseconds.
+     */
+    long nanoTime();
+
+    /**
+     * Schedules a task to be run once after the given delay.
+     *
+     * @param task the task to run.
+     * @param delay the delay after which the task runs.
+     * @param unit the unit of {@code delay}.
+     * @return a {@link Timeout} handle that can be used to cancel the task.
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+}
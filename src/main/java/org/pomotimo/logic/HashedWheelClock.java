@@ -0,0 +1,289 @@
+package org.pomotimo.logic;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A shared clock service based on a hashed timing wheel.
+ * <p>Scheduled tasks are hashed into the bucket of the wheel tick they expire in, so scheduling and
+ * cancelling are O(1) regardless of how many timers are pending. A single worker thread advances the wheel
+ * once per tick and hands expired tasks to a small pool of dispatch threads (or runs them itself),
+ * which lets one JVM drive many thousands of concurrent {@link PomoTimer} sessions.</p>
+ * <p>Tasks run at most one tick duration after their deadline and never before it.</p>
+ */
+public class HashedWheelClock implements ClockSource {
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelClock.class);
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static volatile HashedWheelClock shared;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel;
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final Executor dispatcher;
+    private final ExecutorService dispatchPool;
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean shutdown = false;
+    private long tick;
+
+    /**
+     * Creates a clock with the default resolution of 10ms, 512 buckets and tasks run on the wheel thread.
+     */
+    public HashedWheelClock() {
+        this(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, 0);
+    }
+
+    /**
+     * Creates and starts a new clock.
+     *
+     * @param tickDuration the resolution of the clock.
+     * @param unit the unit of {@code tickDuration}.
+     * @param wheelSize the number of buckets, rounded up to the next power of two.
+     * @param dispatchThreads number of threads that run expired tasks, {@code 0} runs them on the wheel thread.
+     */
+    public HashedWheelClock(long tickDuration, TimeUnit unit, int wheelSize, int dispatchThreads) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+        if (dispatchThreads < 0) {
+            throw new IllegalArgumentException("dispatchThreads must not be negative: " + dispatchThreads);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        size = Math.max(size, 1);
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        if (dispatchThreads == 0) {
+            this.dispatchPool = null;
+            this.dispatcher = Runnable::run;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.dispatchPool = Executors.newFixedThreadPool(dispatchThreads, r -> {
+                Thread t = new Thread(r, "pomo-clock-dispatch-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            this.dispatcher = dispatchPool;
+        }
+
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, "pomo-clock");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Gets the clock instance that is shared by the whole application.
+     *
+     * @return the shared {@link HashedWheelClock}, created on first use.
+     */
+    public static HashedWheelClock shared() {
+        HashedWheelClock c = shared;
+        if (c == null) {
+            synchronized (HashedWheelClock.class) {
+                c = shared;
+                if (c == null) {
+                    c = new HashedWheelClock();
+                    shared = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (shutdown) {
+            throw new IllegalStateException("Clock has been shut down");
+        }
+        long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+        WheelTimeout timeout = new WheelTimeout(task, deadline);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Gets the number of tasks that are scheduled and have neither run nor been cancelled yet.
+     *
+     * @return the number of pending tasks.
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stops the wheel thread and the dispatch threads. Pending tasks are dropped.
+     */
+    public void shutdown() {
+        shutdown = true;
+        worker.interrupt();
+        if (dispatchPool != null) {
+            dispatchPool.shutdown();
+        }
+    }
+
+    private void run() {
+        while (!shutdown) {
+            long tickDeadline = startTime + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = tickDeadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+                if (shutdown) return;
+            }
+            removeCancelled();
+            transferPending();
+            expire(wheel[(int) (tick & mask)], System.nanoTime());
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        WheelTimeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.state.get() != WheelTimeout.INIT) {
+                continue;
+            }
+            long targetTick = Math.max((timeout.deadline - startTime + tickNanos - 1) / tickNanos - 1, tick);
+            timeout.remainingRounds = (targetTick - tick) / wheel.length;
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expire(Bucket bucket, long now) {
+        WheelTimeout timeout = bucket.head;
+        while (timeout != null) {
+            WheelTimeout next = timeout.next;
+            if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                bucket.remove(timeout);
+                if (timeout.state.compareAndSet(WheelTimeout.INIT, WheelTimeout.EXPIRED)) {
+                    pendingCount.decrementAndGet();
+                    dispatch(timeout.task);
+                }
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RuntimeException e) {
+            logger.error("Scheduled task failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed into one slot of the wheel.
+     * Only accessed by the wheel thread.
+     */
+    private static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final class WheelTimeout implements Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        /* The following fields are only accessed by the wheel thread. */
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+
+        private WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.pomotimo.logic;
+
+/**
+ * The phases of the pomodoro cycle.
+ */
+public enum PomoState {
+    FOCUS,
+    SHORTBR,
+    LONGBR
+}
@@ -1,81 +1,108 @@
 package org.pomotimo.logic;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Provides basic countdown timer functionality using a {@link java.util.Timer}.
- * This class allows for starting, pausing, and resetting a timer that ticks every second.
+ * Provides basic countdown timer functionality based on a monotonic deadline.
+ * The remaining time is always derived from a monotonic {@link ClockSource#nanoTime()} deadline instead of
+ * counting callbacks, so late ticks (e.g. caused by GC pauses or a busy machine) never add up to drift.
+ * All timers are driven by a {@link HashedWheelClock} that is shared by default instead of creating a new thread per start.
+ * <p>While nobody observes the timer (see {@link PomoTimer#setObserved(boolean)}) it only wakes up once at the deadline
+ * instead of every second, which avoids needless wakeups when the window is hidden.</p>
  */
 public class PomoTimer {
+    private static final Logger logger = LoggerFactory.getLogger(PomoTimer.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ClockSource clock;
+    private Timeout pendingTick;
+    private IntConsumer tickFunc;
+    /* Remaining time while paused, keeps sub-second remainders between pause and resume. */
+    private long remainingNanos;
+    /* Monotonic point in time at which the countdown reaches zero, only valid while running. */
+    private long deadline;
+    /* Monotonic point in time the pending tick was scheduled for, used to measure tick lateness. */
+    private long nextTickAt;
+    /* Incremented on every start/stop so that ticks of an older run are ignored. */
+    private long generation;
+    private long maxLatenessNanos;
+    private boolean observed = true;
+    /* Wakeups of the timer since the observation mode changed, and the point in time it changed. */
+    private long wakeups;
+    private long modeSince;
+    private volatile int remainingSeconds;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a timer that is driven by the application wide {@link HashedWheelClock#shared()} clock.
+     */
+    public PomoTimer() {
+        this(HashedWheelClock.shared());
+    }
 
-    private Timer timer;
-    private Consumer<Integer> tickFunc;
-    private int remainingSeconds;
-    private boolean running = false;
+    /**
+     * Creates a timer that is driven by the given clock.
+     *
+     * @param clock the {@link ClockSource} that provides the time and dispatches the ticks of this timer.
+     */
+    public PomoTimer(ClockSource clock) {
+        this.clock = clock;
+        this.modeSince = clock.nanoTime();
+    }
 
     /**
-     * Starts a new timer.
+     * Starts a new timer or resumes a paused one.
      * The duration is given by the {@link PomoTimer#remainingSeconds} seconds variable.
      * Be sure to set {@link PomoTimer#setRemainingSeconds(int)} appropriately beforehand.
-     * @param tickFunc Consumer that takes an input of type {@code int} as argument. The timer ticks every second and accepts the tickFunc consumer,
-     *             as long as remaining time is > 0 (Remaining time = duration - running time).
+     * @param tickFunc Consumer that takes an input of type {@code int} as argument. It is called on the
+     *                 timer thread every time the remaining time crosses a full second while the timer is observed,
+     *                 the last call passes {@code 0} and is made in any case.
      */
-    public void start (Consumer<Integer> tickFunc) {
-        if(running){
-            stop();
+    public synchronized void start(IntConsumer tickFunc) {
+        if (running) {
+            pause();
         }
-        running = true;
         this.tickFunc = tickFunc;
-        timer = new Timer(true);
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if(remainingSeconds <= 0) {
-                  stop();
-                } else {
-                    tickFunc.accept(--remainingSeconds);
-                }
-            }
-        }, 0, 1000);
+        if (remainingNanos <= 0) {
+            remainingSeconds = 0;
+            tickFunc.accept(0);
+            return;
+        }
+        running = true;
+        generation++;
+        maxLatenessNanos = 0;
+        deadline = clock.nanoTime() + remainingNanos;
+        scheduleNextTick(remainingNanos);
     }
 
     /**
      * This method will reset any existing timer.
-     * If no timer has been started, it will do nothing. One can start a timer with {@link PomoTimer#start(Consumer)}}.
-     * @param seconds the seconds to reset the timer, must be of {@code type int}. Must not be {@code null}.
+     * If no timer has been started, it will only set the remaining time. One can start a timer with {@link PomoTimer#start(IntConsumer)}.
+     * @param seconds the seconds to reset the timer, must be of {@code type int}.
      */
-
-    public void reset(int seconds) {
+    public synchronized void reset(int seconds) {
         stop();
-        remainingSeconds = seconds;
         running = false;
+        setRemainingSeconds(seconds);
     }
 
     /**
-     * Stops the current timer. If no timer exists does nothing.
+     * Pause the current timer and keep the exact (sub-second) remaining time. If no timer is running does nothing.
      */
-    private void stop() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
-        }
-    }
-
-    /**
-     * Pause the current timer. If no timer exists does nothing.
-     */
-    public void pause() {
-        if (timer == null) return;
-        if(running) {
-            running = false;
-            stop();
-        }
+    public synchronized void pause() {
+        if (!running) return;
+        remainingNanos = Math.max(0, deadline - clock.nanoTime());
+        remainingSeconds = toSeconds(remainingNanos);
+        running = false;
+        stop();
     }
 
     /**
-     * Gets the number of seconds currently remaining on the timer.
+     * Gets the number of seconds currently remaining on the timer, rounded up to full seconds.
      *
      * @return The remaining time in seconds.
      */
@@ -85,12 +112,19 @@ public class PomoTimer {
 
     /**
      * Sets the total duration of the timer. This should be called before starting the timer
-     * to define its countdown period.
+     * to define its countdown period. A running countdown is restarted with the new duration.
      *
      * @param seconds The total time in seconds for the countdown.
      */
-    public void setRemainingSeconds(int seconds) {
-        this.remainingSeconds = seconds;
+    public synchronized void setRemainingSeconds(int seconds) {
+        this.remainingNanos = Math.max(0, seconds) * NANOS_PER_SECOND;
+        this.remainingSeconds = Math.max(0, seconds);
+        if (running) {
+            generation++;
+            stop();
+            deadline = clock.nanoTime() + remainingNanos;
+            scheduleNextTick(remainingNanos);
+        }
     }
 
     /**
@@ -101,4 +135,103 @@ public class PomoTimer {
     public boolean isRunning(){
         return running;
     }
+
+    /**
+     * Sets whether the remaining time is currently observed, e.g. displayed in a visible window.
+     * An unobserved timer skips the per-second ticks and only wakes up when the countdown ends.
+     * Once it is observed again, {@link PomoTimer#getRemainingSeconds()} is brought up to date
+     * immediately and per-second ticks resume.
+     *
+     * @param observed {@code true} if someone displays the remaining time, {@code false} otherwise.
+     */
+    public synchronized void setObserved(boolean observed) {
+        if (this.observed == observed) return;
+        long now = clock.nanoTime();
+        long elapsed = Math.max(1, now - modeSince);
+        logger.debug("Timer wakeups per minute while {}: {}", this.observed ? "observed" : "unobserved",
+                wakeups * TimeUnit.MINUTES.toNanos(1) / elapsed);
+        wakeups = 0;
+        modeSince = now;
+        this.observed = observed;
+        if (running) {
+            generation++;
+            stop();
+            long left = deadline - now;
+            remainingSeconds = toSeconds(left);
+            scheduleNextTick(left);
+        }
+    }
+
+    /**
+     * @return {@code true} if the timer delivers per-second ticks, {@code false} if it is in low-power mode.
+     */
+    public synchronized boolean isObserved() {
+        return observed;
+    }
+
+    /**
+     * Gets the largest delay between the planned and the actual execution of a tick during the current
+     * (or last) run. Because the remaining time is derived from the deadline, this is the maximum error of
+     * the displayed time; it does not accumulate over the run.
+     *
+     * @return the maximum tick lateness in nanoseconds.
+     */
+    public synchronized long getMaxTickLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    /**
+     * Cancels the pending tick. If no tick is pending does nothing.
+     */
+    private void stop() {
+        if (pendingTick != null) {
+            pendingTick.cancel();
+            pendingTick = null;
+        }
+    }
+
+    /**
+     * Schedules the next tick for the moment the remaining time crosses the next full second,
+     * or for the deadline if the timer is not observed.
+     * @param left the nanoseconds left until the deadline.
+     */
+    private void scheduleNextTick(long left) {
+        long untilBoundary = observed ? left - (toSeconds(left) - 1) * NANOS_PER_SECOND : left;
+        long gen = generation;
+        nextTickAt = clock.nanoTime() + untilBoundary;
+        pendingTick = clock.schedule(() -> tick(gen), untilBoundary, TimeUnit.NANOSECONDS);
+    }
+
+    private void tick(long gen) {
+        IntConsumer func;
+        int seconds;
+        boolean deliver;
+        synchronized (this) {
+            if (!running || gen != generation) return;
+            wakeups++;
+            long now = clock.nanoTime();
+            maxLatenessNanos = Math.max(maxLatenessNanos, now - nextTickAt);
+            long left = deadline - now;
+            seconds = toSeconds(left);
+            remainingSeconds = seconds;
+            if (seconds <= 0) {
+                remainingNanos = 0;
+                running = false;
+                pendingTick = null;
+                logger.debug("Timer finished, maximum tick lateness: {} µs", maxLatenessNanos / 1000);
+            } else {
+                scheduleNextTick(left);
+            }
+            func = tickFunc;
+            deliver = observed || seconds <= 0;
+        }
+        if (deliver) {
+            func.accept(seconds);
+        }
+    }
+
+    private static int toSeconds(long nanos) {
+        if (nanos <= 0) return 0;
+        return (int) ((nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
 }
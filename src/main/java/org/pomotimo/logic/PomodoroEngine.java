@@ -0,0 +1,359 @@
+package org.pomotimo.logic;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+import org.pomotimo.logic.config.AppConstants;
+
+/**
+ * Runs the pomodoro state machine: focus phases alternate with short breaks, and every
+ * {@code cycleAmount} focus phases are followed by a long break instead.
+ * <p>The engine owns a {@link PomoTimer} that is driven by a pluggable {@link ClockSource}. Views register a
+ * {@link Listener} and only render the events, which makes it possible to simulate whole days of
+ * cycles with a {@link VirtualClock}.</p>
+ * <p>Listeners are called on the thread that caused the event, this is the clock thread when a phase ends.</p>
+ * <p>Every phase the engine enters gets a new number. The ticks of the timer carry the number of the phase they
+ * were scheduled for, so the end of a phase that has already been skipped or reset is ignored instead of
+ * advancing the engine a second time.</p>
+ */
+public class PomodoroEngine {
+
+    /**
+     * Receives the events of a {@link PomodoroEngine}. All methods have empty default implementations.
+     */
+    public interface Listener {
+
+        /**
+         * Called every second while the timer runs and is observed.
+         *
+         * @param remainingSeconds the seconds left in the current phase.
+         */
+        default void onTick(int remainingSeconds) {}
+
+        /**
+         * Called when the countdown of a phase has run out, before the engine moves on to the next phase.
+         *
+         * @param finished the phase that has ended.
+         */
+        default void onPhaseFinished(PomoState finished) {}
+
+        /**
+         * Called whenever the engine enters a phase, by finishing or skipping the previous one or by a reset.
+         *
+         * @param state the new phase.
+         * @param cycle the current cycle, starting at 1.
+         * @param durationSeconds the duration of the new phase in seconds.
+         */
+        default void onPhaseChanged(PomoState state, int cycle, int durationSeconds) {}
+
+        /**
+         * Called when the countdown starts or resumes, also when the next phase starts automatically.
+         *
+         * @param state the running phase.
+         */
+        default void onStarted(PomoState state) {}
+
+        /**
+         * Called when a running countdown is paused.
+         *
+         * @param state the paused phase.
+         */
+        default void onPaused(PomoState state) {}
+
+        /**
+         * Called when the current phase is restarted with its full duration.
+         *
+         * @param state the restarted phase.
+         */
+        default void onPhaseReset(PomoState state) {}
+    }
+
+    private final PomoTimer timer;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private PomoState state = PomoState.FOCUS;
+    private int cycleCounter = 1;
+    private int focusSec = AppConstants.DEFAULT_FOCUS_TIME;
+    private int shortBrSec = AppConstants.DEFAULT_SHORT_BREAK;
+    private int longBrSec = AppConstants.DEFAULT_LONG_BREAK;
+    private int cycleAmount = AppConstants.DEFAULT_CYCLE_AMOUNT;
+    private boolean autoContinue = false;
+    /* Number of the current phase, incremented whenever the engine enters a phase or restarts it */
+    private long phase;
+
+    /**
+     * Creates an engine that runs on the application wide {@link HashedWheelClock#shared()} clock.
+     */
+    public PomodoroEngine() {
+        this(HashedWheelClock.shared());
+    }
+
+    /**
+     * Creates an engine that runs on the given clock.
+     *
+     * @param clock the {@link ClockSource} that drives the phase timer.
+     */
+    public PomodoroEngine(ClockSource clock) {
+        this.timer = new PomoTimer(clock);
+        this.timer.setRemainingSeconds(focusSec);
+    }
+
+    /**
+     * Registers a listener for the events of this engine.
+     *
+     * @param listener the {@link Listener} to add.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the {@link Listener} to remove.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the durations and the cycle amount, e.g. from the current preset.
+     * The remaining time is reset to the full duration of the current phase.
+     *
+     * @param focusSec duration of a focus phase in seconds.
+     * @param shortBrSec duration of a short break in seconds.
+     * @param longBrSec duration of a long break in seconds.
+     * @param cycleAmount number of focus phases before a long break.
+     */
+    public synchronized void configure(int focusSec, int shortBrSec, int longBrSec, int cycleAmount) {
+        this.focusSec = focusSec;
+        this.shortBrSec = shortBrSec;
+        this.longBrSec = longBrSec;
+        this.cycleAmount = cycleAmount;
+        restartPhase(getDuration(state));
+    }
+
+    /**
+     * Starts or resumes the countdown of the current phase.
+     */
+    public void start() {
+        PomoState started;
+        synchronized (this) {
+            timer.start(ticksOf(phase));
+            /* a phase without time left finishes right away instead of starting */
+            started = timer.isRunning() ? state : null;
+        }
+        if (started != null) {
+            listeners.forEach(l -> l.onStarted(started));
+        }
+    }
+
+    /**
+     * Pauses the countdown of the current phase, the remaining time is kept.
+     */
+    public void pause() {
+        PomoState paused;
+        synchronized (this) {
+            paused = timer.isRunning() ? state : null;
+            timer.pause();
+        }
+        if (paused != null) {
+            listeners.forEach(l -> l.onPaused(paused));
+        }
+    }
+
+    /**
+     * Stops the countdown and restarts the current phase with its full duration.
+     */
+    public void resetPhase() {
+        PomoState reset;
+        synchronized (this) {
+            phase++;
+            timer.reset(getDuration(state));
+            reset = state;
+        }
+        listeners.forEach(l -> l.onPhaseReset(reset));
+    }
+
+    /**
+     * Goes back to the focus phase of the first cycle. A running countdown keeps running.
+     */
+    public void resetCycle() {
+        int duration;
+        synchronized (this) {
+            state = PomoState.FOCUS;
+            cycleCounter = 1;
+            duration = focusSec;
+            restartPhase(duration);
+        }
+        listeners.forEach(l -> l.onPhaseChanged(PomoState.FOCUS, 1, duration));
+    }
+
+    /**
+     * Moves on to the next phase without waiting for the current one to end.
+     * A running countdown keeps running with the duration of the next phase.
+     */
+    public void skip() {
+        Transition next;
+        synchronized (this) {
+            next = advance();
+        }
+        publish(next);
+    }
+
+    /**
+     * Sets whether the next phase starts automatically when a phase ends.
+     *
+     * @param autoContinue {@code true} to start the next phase automatically.
+     */
+    public synchronized void setAutoContinue(boolean autoContinue) {
+        this.autoContinue = autoContinue;
+    }
+
+    /**
+     * Sets whether the remaining time is displayed, see {@link PomoTimer#setObserved(boolean)}.
+     *
+     * @param observed {@code false} to skip the per-second ticks until the phase ends.
+     */
+    public void setObserved(boolean observed) {
+        timer.setObserved(observed);
+    }
+
+    /**
+     * @return {@code true} if the countdown is running.
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /**
+     * @return the seconds left in the current phase.
+     */
+    public int getRemainingSeconds() {
+        return timer.getRemainingSeconds();
+    }
+
+    /**
+     * @return the current phase.
+     */
+    public synchronized PomoState getState() {
+        return state;
+    }
+
+    /**
+     * @return the current cycle, starting at 1.
+     */
+    public synchronized int getCycle() {
+        return cycleCounter;
+    }
+
+    /**
+     * @return the number of focus phases before a long break.
+     */
+    public synchronized int getCycleAmount() {
+        return cycleAmount;
+    }
+
+    /**
+     * Gets the configured duration of a phase.
+     *
+     * @param s the phase.
+     * @return the duration in seconds.
+     */
+    public synchronized int getDuration(PomoState s) {
+        return switch (s) {
+            case FOCUS -> focusSec;
+            case SHORTBR -> shortBrSec;
+            case LONGBR -> longBrSec;
+        };
+    }
+
+    /**
+     * The phase the engine has entered, published to the listeners after the monitor has been released.
+     */
+    private record Transition(PomoState state, int cycle, int duration) {}
+
+    private void publish(Transition t) {
+        listeners.forEach(l -> l.onPhaseChanged(t.state(), t.cycle(), t.duration()));
+    }
+
+    /**
+     * Gets the tick handler for a run of the timer in the given phase.
+     */
+    private IntConsumer ticksOf(long phaseNumber) {
+        return seconds -> onTimerTick(phaseNumber, seconds);
+    }
+
+    /**
+     * Handles a tick of the timer. The end of the phase is only handled if the engine is still in the phase the
+     * tick was scheduled for and the timer has not been started again; the finish and the switch to the next phase
+     * happen under the monitor, so a concurrent {@link PomodoroEngine#skip()} cannot advance the engine twice.
+     */
+    private void onTimerTick(long phaseNumber, int seconds) {
+        if (seconds > 0) {
+            synchronized (this) {
+                if (phaseNumber != phase) return;
+            }
+            listeners.forEach(l -> l.onTick(seconds));
+            return;
+        }
+        PomoState finished;
+        Transition next;
+        long entered;
+        synchronized (this) {
+            if (phaseNumber != phase || timer.isRunning()) return;
+            finished = state;
+            next = advance();
+            entered = phase;
+        }
+        listeners.forEach(l -> l.onPhaseFinished(finished));
+        publish(next);
+        PomoState started = null;
+        synchronized (this) {
+            /* the new phase may have been skipped or reset by now */
+            if (autoContinue && entered == phase && !timer.isRunning() && next.duration() > 0) {
+                timer.start(ticksOf(phase));
+                started = state;
+            }
+        }
+        if (started != null) {
+            PomoState s = started;
+            listeners.forEach(l -> l.onStarted(s));
+        }
+    }
+
+    /**
+     * Switches to the next phase, the caller holds the monitor and publishes the returned transition.
+     */
+    private Transition advance() {
+        switch (state) {
+            case FOCUS -> {
+                if (cycleCounter >= cycleAmount) {
+                    state = PomoState.LONGBR;
+                    cycleCounter = 1;
+                } else {
+                    state = PomoState.SHORTBR;
+                    cycleCounter += 1;
+                }
+            }
+            case SHORTBR, LONGBR -> state = PomoState.FOCUS;
+        }
+        int duration = getDuration(state);
+        restartPhase(duration);
+        return new Transition(state, cycleCounter, duration);
+    }
+
+    /**
+     * Starts a new phase number with the given duration. A running countdown keeps running with the new duration,
+     * its ticks belong to the new phase. The caller holds the monitor.
+     */
+    private void restartPhase(int seconds) {
+        phase++;
+        if (timer.isRunning() && seconds > 0) {
+            timer.reset(seconds);
+            timer.start(ticksOf(phase));
+        } else {
+            timer.reset(seconds);
+        }
+    }
+}
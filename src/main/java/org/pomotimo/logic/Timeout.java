@@ -0,0 +1,24 @@
+package org.pomotimo.logic;
+
+/**
+ * A handle to a task that has been scheduled on a {@link ClockSource}.
+ */
+public interface Timeout {
+
+    /**
+     * Cancels the scheduled task. Cancelling a task that already ran or was cancelled has no effect.
+     *
+     * @return {@code true} if the task was cancelled by this call, {@code false} otherwise.
+     */
+    boolean cancel();
+
+    /**
+     * @return {@code true} if the task has been cancelled before it ran.
+     */
+    boolean isCancelled();
+
+    /**
+     * @return {@code true} if the task has been handed over for execution.
+     */
+    boolean isExpired();
+}
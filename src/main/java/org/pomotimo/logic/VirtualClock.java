@@ -0,0 +1,91 @@
+package org.pomotimo.logic;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ClockSource} whose time only moves when {@link VirtualClock#advance(long, TimeUnit)} is called.
+ * Scheduled tasks run on the thread that advances the clock, in the order of their deadlines, and see
+ * {@link VirtualClock#nanoTime()} at exactly their deadline. This allows to simulate hours of timer
+ * activity in milliseconds.
+ * <p>This class is not thread-safe, it is meant to be used from a single thread.</p>
+ */
+public class VirtualClock implements ClockSource {
+    private final PriorityQueue<VirtualTimeout> queue = new PriorityQueue<>(
+            Comparator.comparingLong((VirtualTimeout t) -> t.deadline).thenComparingLong(t -> t.sequence));
+    private long now;
+    private long sequence;
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        VirtualTimeout timeout = new VirtualTimeout(task, now + Math.max(0, unit.toNanos(delay)), sequence++);
+        queue.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the clock forward and runs every task whose deadline is reached on the way,
+     * including tasks that are scheduled by other tasks during the advance.
+     *
+     * @param amount the amount of time to move forward.
+     * @param unit the unit of {@code amount}.
+     */
+    public void advance(long amount, TimeUnit unit) {
+        long target = now + Math.max(0, unit.toNanos(amount));
+        VirtualTimeout timeout;
+        while ((timeout = queue.peek()) != null && timeout.deadline <= target) {
+            queue.poll();
+            if (timeout.cancelled) continue;
+            now = timeout.deadline;
+            timeout.expired = true;
+            timeout.task.run();
+        }
+        now = target;
+    }
+
+    /**
+     * Gets the number of scheduled tasks that have not run yet, cancelled tasks may still be counted.
+     *
+     * @return the number of queued tasks.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private static final class VirtualTimeout implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final long sequence;
+        private boolean cancelled;
+        private boolean expired;
+
+        private VirtualTimeout(Runnable task, long deadline, long sequence) {
+            this.task = task;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled || expired) return false;
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.pomotimo.logic.analytics;
+
+import org.pomotimo.logic.history.SessionRecord;
+
+/**
+ * Collects a result from session records. {@link HistoryAnalytics} gives every fork/join task its own accumulator
+ * and merges them when the tasks are joined, so the result must not depend on how the records are split.
+ *
+ * @param <A> the type of the accumulator itself.
+ */
+public interface Accumulator<A extends Accumulator<A>> {
+
+    /**
+     * Adds a record.
+     *
+     * @param record a record in the analyzed range.
+     */
+    void add(SessionRecord record);
+
+    /**
+     * Adds everything another accumulator has collected to this one.
+     *
+     * @param other an accumulator of the same question, it is not used afterwards.
+     */
+    void merge(A other);
+}
@@ -0,0 +1,77 @@
+package org.pomotimo.logic.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Counts values in bins of equal width. Values below the first bin are counted in the first bin,
+ * values above the last bin in the last one. Only histograms with the same bins can be merged.
+ */
+public final class Histogram {
+    private final long min;
+    private final long width;
+    private final long[] counts;
+
+    /**
+     * @param min the smallest value of the first bin.
+     * @param width the width of a bin.
+     * @param bins the number of bins.
+     */
+    public Histogram(long min, long width, int bins) {
+        if (width <= 0 || bins <= 0) {
+            throw new IllegalArgumentException("Width and bins must be positive");
+        }
+        this.min = min;
+        this.width = width;
+        this.counts = new long[bins];
+    }
+
+    /**
+     * @param value the value to count.
+     */
+    public void add(long value) {
+        long bin = Math.floorDiv(value - min, width);
+        counts[(int) Math.max(0, Math.min(counts.length - 1, bin))]++;
+    }
+
+    /**
+     * @param other a histogram with the same bins.
+     */
+    public void merge(Histogram other) {
+        if (other.min != min || other.width != width || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms with different bins cannot be merged");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * @param bin the index of a bin.
+     * @return the number of values in the bin.
+     */
+    public long count(int bin) {
+        return counts[bin];
+    }
+
+    /**
+     * @param bin the index of a bin.
+     * @return the smallest value of the bin.
+     */
+    public long lowerBound(int bin) {
+        return min + bin * width;
+    }
+
+    /**
+     * @return the number of bins.
+     */
+    public int bins() {
+        return counts.length;
+    }
+
+    /**
+     * @return a copy of the counts of all bins.
+     */
+    public long[] counts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+}
@@ -0,0 +1,336 @@
+package org.pomotimo.logic.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.history.HistorySegment;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+
+/**
+ * Answers questions about a {@link SessionHistory} by scanning it in parallel.
+ * <p>The records of the history are split into ranges of at most {@link HistoryAnalytics#LEAF_RECORDS} records.
+ * Every range is scanned by a fork/join task into its own {@link Accumulator}, the accumulators are merged when
+ * the tasks are joined. Records that are appended during a scan are not included.</p>
+ * <p>Besides {@link HistoryAnalytics#aggregate(long, long, Supplier)} for custom questions, there are accumulators
+ * for streaks of focus days, the length of focus phases per hour of the day and the interruption rate
+ * per preset.</p>
+ */
+public class HistoryAnalytics {
+    /** The number of records a single fork/join task scans. */
+    public static final int LEAF_RECORDS = 16384;
+
+    private final SessionHistory history;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates analytics that run on the common fork/join pool.
+     *
+     * @param history the history to analyze.
+     */
+    public HistoryAnalytics(SessionHistory history) {
+        this(history, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param history the history to analyze.
+     * @param pool the pool that runs the scans, its parallelism decides how many ranges are scanned at once.
+     */
+    public HistoryAnalytics(SessionHistory history, ForkJoinPool pool) {
+        this.history = history;
+        this.pool = pool;
+    }
+
+    /**
+     * Scans all records that started in the given range.
+     *
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param factory creates an empty accumulator for every task.
+     * @param <A> the type of the accumulator.
+     * @return the merged accumulator of all tasks.
+     */
+    public <A extends Accumulator<A>> A aggregate(long fromMillis, long toMillis, Supplier<A> factory) {
+        List<HistorySegment> segments = history.segments();
+        long[] starts = new long[segments.size() + 1];
+        for (int i = 0; i < segments.size(); i++) {
+            starts[i + 1] = starts[i] + segments.get(i).size();
+        }
+        return pool.invoke(new Scan<>(segments, starts, 0, starts[segments.size()], fromMillis, toMillis, factory));
+    }
+
+    /**
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param zone the time zone that decides on which date a phase was run.
+     * @return the days with at least one completed focus phase.
+     */
+    public FocusDays focusDays(long fromMillis, long toMillis, ZoneId zone) {
+        return aggregate(fromMillis, toMillis, () -> new FocusDays(zone));
+    }
+
+    /**
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param zone the time zone of the hours.
+     * @return the length of the focus phases per hour of the day they were started in.
+     */
+    public SessionLengths sessionLengths(long fromMillis, long toMillis, ZoneId zone) {
+        return aggregate(fromMillis, toMillis, () -> new SessionLengths(zone));
+    }
+
+    /**
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @return the completed and interrupted focus phases per preset.
+     */
+    public PresetInterruptions presetInterruptions(long fromMillis, long toMillis) {
+        return aggregate(fromMillis, toMillis, PresetInterruptions::new);
+    }
+
+    /**
+     * Scans the records between two positions of the history, splitting the range while it is larger than
+     * {@link HistoryAnalytics#LEAF_RECORDS}.
+     */
+    private static final class Scan<A extends Accumulator<A>> extends RecursiveTask<A> {
+        private final List<HistorySegment> segments;
+        /* starts[i] is the position of the first record of segment i, the last entry is the number of records */
+        private final long[] starts;
+        private final long lo;
+        private final long hi;
+        private final long fromMillis;
+        private final long toMillis;
+        private final Supplier<A> factory;
+
+        private Scan(List<HistorySegment> segments, long[] starts, long lo, long hi, long fromMillis, long toMillis,
+                     Supplier<A> factory) {
+            this.segments = segments;
+            this.starts = starts;
+            this.lo = lo;
+            this.hi = hi;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.factory = factory;
+        }
+
+        @Override
+        protected A compute() {
+            if (hi - lo > LEAF_RECORDS) {
+                long mid = (lo + hi) >>> 1;
+                Scan<A> left = new Scan<>(segments, starts, lo, mid, fromMillis, toMillis, factory);
+                Scan<A> right = new Scan<>(segments, starts, mid, hi, fromMillis, toMillis, factory);
+                left.fork();
+                A result = right.compute();
+                A other = left.join();
+                other.merge(result);
+                return other;
+            }
+            A acc = factory.get();
+            int s = Arrays.binarySearch(starts, lo);
+            s = s >= 0 ? s : -s - 2;
+            for (long pos = lo; pos < hi && s < segments.size(); s++) {
+                int from = (int) (pos - starts[s]);
+                int to = (int) (Math.min(hi, starts[s + 1]) - starts[s]);
+                segments.get(s).forEach(from, to, fromMillis, toMillis, acc::add);
+                pos = starts[s + 1];
+            }
+            return acc;
+        }
+    }
+
+    /**
+     * The days with at least one completed focus phase, see {@link FocusDays#longestStreak()}.
+     */
+    public static final class FocusDays implements Accumulator<FocusDays> {
+        private final ZoneId zone;
+        /* Indexed by epoch day */
+        private final BitSet days = new BitSet();
+
+        /**
+         * @param zone the time zone that decides on which date a phase was run.
+         */
+        public FocusDays(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public void add(SessionRecord record) {
+            if (record.phase() == PomoState.FOCUS && !record.interrupted()) {
+                long day = Instant.ofEpochMilli(record.startMillis()).atZone(zone).toLocalDate().toEpochDay();
+                days.set((int) Math.max(0, day));
+            }
+        }
+
+        @Override
+        public void merge(FocusDays other) {
+            days.or(other.days);
+        }
+
+        /**
+         * @return the number of days with focus.
+         */
+        public int count() {
+            return days.cardinality();
+        }
+
+        /**
+         * @return the longest run of consecutive days with focus, or {@code null} if there are none.
+         */
+        public Streak longestStreak() {
+            Streak longest = null;
+            for (int start = days.nextSetBit(0); start >= 0; ) {
+                int end = days.nextClearBit(start);
+                if (longest == null || end - start > longest.days()) {
+                    longest = new Streak(LocalDate.ofEpochDay(start), end - start);
+                }
+                start = days.nextSetBit(end);
+            }
+            return longest;
+        }
+
+        /**
+         * @return the run of consecutive days with focus that ends on the last such day, or {@code null}.
+         */
+        public Streak lastStreak() {
+            int last = days.length() - 1;
+            if (last < 0) {
+                return null;
+            }
+            int start = days.previousClearBit(last) + 1;
+            return new Streak(LocalDate.ofEpochDay(start), last - start + 1);
+        }
+    }
+
+    /**
+     * @param start the first day of the streak.
+     * @param days the number of consecutive days.
+     */
+    public record Streak(LocalDate start, int days) {}
+
+    /**
+     * The length of focus phases, per hour of the day they were started in and as a distribution over all hours.
+     */
+    public static final class SessionLengths implements Accumulator<SessionLengths> {
+        private final ZoneId zone;
+        private final Stats[] byHour = new Stats[24];
+        private final QuantileSketch sketch = new QuantileSketch();
+        /* Whole minutes, the last bin holds everything from two hours on */
+        private final Histogram minutes = new Histogram(0, 60_000, 121);
+
+        /**
+         * @param zone the time zone of the hours.
+         */
+        public SessionLengths(ZoneId zone) {
+            this.zone = zone;
+            for (int h = 0; h < byHour.length; h++) {
+                byHour[h] = new Stats();
+            }
+        }
+
+        @Override
+        public void add(SessionRecord record) {
+            if (record.phase() != PomoState.FOCUS) {
+                return;
+            }
+            long length = Math.max(0, record.durationMillis());
+            ZonedDateTime start = Instant.ofEpochMilli(record.startMillis()).atZone(zone);
+            byHour[start.getHour()].add(length);
+            sketch.add(length);
+            minutes.add(length);
+        }
+
+        @Override
+        public void merge(SessionLengths other) {
+            for (int h = 0; h < byHour.length; h++) {
+                byHour[h].merge(other.byHour[h]);
+            }
+            sketch.merge(other.sketch);
+            minutes.merge(other.minutes);
+        }
+
+        /**
+         * @param hour the hour of the day, {@code 0} to {@code 23}.
+         * @return the lengths in millis of the focus phases started in that hour.
+         */
+        public Stats hour(int hour) {
+            return byHour[hour];
+        }
+
+        /**
+         * @param q the quantile, e.g. {@code 0.5} for the median.
+         * @return the estimated length in millis of all focus phases.
+         */
+        public double quantile(double q) {
+            return sketch.quantile(q);
+        }
+
+        /**
+         * @return the number of focus phases per length in whole minutes.
+         */
+        public Histogram minutes() {
+            return minutes;
+        }
+    }
+
+    /**
+     * The completed and interrupted focus phases per preset. Phases without a preset are counted under
+     * {@code null}.
+     */
+    public static final class PresetInterruptions implements Accumulator<PresetInterruptions> {
+        /* preset id -> {completed, interrupted} */
+        private final Map<String, long[]> counts = new HashMap<>();
+
+        @Override
+        public void add(SessionRecord record) {
+            if (record.phase() == PomoState.FOCUS) {
+                counts.computeIfAbsent(record.presetId(), k -> new long[2])[record.interrupted() ? 1 : 0]++;
+            }
+        }
+
+        @Override
+        public void merge(PresetInterruptions other) {
+            other.counts.forEach((preset, c) -> {
+                long[] own = counts.computeIfAbsent(preset, k -> new long[2]);
+                own[0] += c[0];
+                own[1] += c[1];
+            });
+        }
+
+        /**
+         * @return the ids of the presets that have focus phases.
+         */
+        public Set<String> presets() {
+            return counts.keySet();
+        }
+
+        /**
+         * @param presetId the id of a preset.
+         * @return the share of its focus phases that were interrupted, {@code 0} if it has none.
+         */
+        public double rate(String presetId) {
+            long[] c = counts.get(presetId);
+            return c == null || c[0] + c[1] == 0 ? 0 : (double) c[1] / (c[0] + c[1]);
+        }
+
+        /**
+         * @param presetId the id of a preset.
+         * @return the number of focus phases of the preset.
+         */
+        public long total(String presetId) {
+            long[] c = counts.get(presetId);
+            return c == null ? 0 : c[0] + c[1];
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.pomotimo.logic.analytics;
+
+/**
+ * Estimates quantiles of non-negative values with a relative error of at most {@link QuantileSketch#ACCURACY}.
+ * <p>Values are counted in bins whose bounds grow by a constant factor, like a DDSketch. Merging two sketches
+ * adds their bins, so the estimate does not depend on how the values have been split. The bins cover values up
+ * to about {@code 2^42}, which is more than a century in millis, larger values are counted in the last bin.</p>
+ */
+public final class QuantileSketch {
+    /** The relative error of an estimated quantile. */
+    public static final double ACCURACY = 0.01;
+    private static final double GAMMA = (1 + ACCURACY) / (1 - ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BINS = (int) Math.ceil(42 * Math.log(2) / LOG_GAMMA) + 1;
+
+    private final long[] counts = new long[BINS];
+    private long zeros;
+    private long count;
+
+    /**
+     * @param value the value to add, negative values are counted as {@code 0}.
+     */
+    public void add(long value) {
+        count++;
+        if (value <= 0) {
+            zeros++;
+        } else {
+            counts[Math.min(BINS - 1, (int) Math.ceil(Math.log(value) / LOG_GAMMA))]++;
+        }
+    }
+
+    /**
+     * @param other the values to add.
+     */
+    public void merge(QuantileSketch other) {
+        zeros += other.zeros;
+        count += other.count;
+        for (int i = 0; i < BINS; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param q the quantile, between {@code 0} and {@code 1}, e.g. {@code 0.5} for the median.
+     * @return the estimated value, {@code 0} if there are no values.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) (q * (count - 1));
+        if (rank < zeros) {
+            return 0;
+        }
+        long seen = zeros;
+        for (int i = 0; i < BINS; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, BINS - 1) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package org.pomotimo.logic.analytics;
+
+/**
+ * Count, sum, minimum and maximum of a series of values. Two instances can be merged.
+ */
+public final class Stats {
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * @param value the value to add.
+     */
+    public void add(long value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param other the values to add.
+     */
+    public void merge(Stats other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values.
+     */
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, {@link Long#MAX_VALUE} if there are none.
+     */
+    public long min() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, {@link Long#MIN_VALUE} if there are none.
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return the average of the values, {@code 0} if there are none.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
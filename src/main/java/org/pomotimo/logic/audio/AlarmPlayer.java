@@ -1,13 +1,22 @@
 package org.pomotimo.logic.audio;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import javafx.scene.media.AudioClip;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.util.Duration;
 
+import org.pomotimo.logic.config.AppConstants;
 import org.pomotimo.logic.utils.PersistenceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,39 +25,225 @@ import org.slf4j.LoggerFactory;
  * Manages the playback of a looping alarm sound using JavaFX MediaPlayer.
  * This class handles loading, playing, and stopping a sound file, and is optimized
  * to only reload the media when the sound file path changes.
+ * <p>Short WAV sounds are played as an {@link AudioClip}, which holds the whole decoded sound in memory.
+ * Compressed tracks and tracks that decode to more than {@link AppConstants#STREAMING_THRESHOLD_BYTES}
+ * are streamed by a {@link MediaPlayer} instead.</p>
+ * <p>Decoded clips are kept in a {@link ClipCache} with a budget of {@link AppConstants#CLIP_CACHE_BYTES},
+ * so switching back to a sound that has been used before does not decode it again. Clips are decoded by
+ * {@link AlarmPlayer#preloadAsync(String)} on a background thread. If the current clip has not been loaded
+ * before, it is loaded when the alarm starts.</p>
+ * <p>The player listens to the {@link AudioLibrary} of the media directory and drops the cached clips of sounds
+ * that have been modified or removed, so a changed file is decoded again.</p>
  */
 public class AlarmPlayer {
     private AudioClip clip;
+    private MediaPlayer mediaPlayer;
+    private boolean streaming = false;
     private String soundUri;
     private boolean playing = false;
     private boolean isMuted = false;
     private final static Logger logger = LoggerFactory.getLogger(AlarmPlayer.class);
+    private final ClipCache<AudioClip> cache =
+            new ClipCache<>(AppConstants.CLIP_CACHE_BYTES, AlarmPlayer::decode, AlarmPlayer::estimateBytes);
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pomo-clip-preload");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AudioLibrary.Listener libraryListener = this::onLibraryChange;
 
     /**
-     * Constructs an AlarmPlayer and initializes it with a default sound path.
+     * Constructs an AlarmPlayer. Until a sound path is set, the first sound of the media directory is used.
+     * No audio is decoded yet, see {@link AlarmPlayer#preload()}.
      */
     public AlarmPlayer () {
-        this.soundUri = Paths.get(PersistenceManager.readOnlyAudioDataList.getFirst().filePath()).toUri().toString();
-        loadClip(this.soundUri);
+        PersistenceManager.getAudioLibrary().addListener(libraryListener);
     }
 
-    private void loadClip(String uri) {
+    /**
+     * Stops listening to the audio library and stops the preload thread, on application exit.
+     */
+    public void close() {
+        PersistenceManager.getAudioLibrary().removeListener(libraryListener);
+        preloader.shutdownNow();
+    }
+
+    /**
+     * Invalidates the cached clips of modified and removed sounds. The loaded current sound is released too,
+     * unless it is playing, so the next {@link AlarmPlayer#preload()} decodes the new content.
+     */
+    private void onLibraryChange(AudioLibrary.Change change) {
+        Stream.concat(change.modified().stream(), change.removed().stream())
+                .map(a -> Paths.get(a.filePath()).toUri().toString())
+                .forEach(this::invalidate);
+    }
+
+    private synchronized void invalidate(String uri) {
+        cache.invalidate(uri);
+        if (!uri.equals(soundUri) || playing) {
+            return;
+        }
+        logger.debug("Alarm sound {} has changed on disk", uri);
+        clip = null;
+        if (mediaPlayer != null) {
+            mediaPlayer.dispose();
+            mediaPlayer = null;
+        }
+    }
+
+    /**
+     * Decodes the current sound, so that the alarm can start without delay.
+     * Nothing is done if the clip has already been loaded. The decoding does not block
+     * {@link AlarmPlayer#setSoundPath(String)}.
+     */
+    public void preload() {
+        String uri;
+        boolean stream;
+        synchronized (this) {
+            if (clip != null || mediaPlayer != null) {
+                return;
+            }
+            uri = currentUri();
+            stream = streaming;
+        }
+        if (stream) {
+            MediaPlayer loaded = openStream(uri);
+            synchronized (this) {
+                if (mediaPlayer == null && uri.equals(soundUri)) {
+                    mediaPlayer = loaded;
+                    return;
+                }
+            }
+            if (loaded != null) {
+                loaded.dispose();
+            }
+            return;
+        }
+        AudioClip loaded = cache.get(uri);
+        synchronized (this) {
+            if (clip == null && uri.equals(soundUri)) {
+                clip = loaded;
+            }
+        }
+    }
+
+    /**
+     * Decodes the current sound on the background thread of the player.
+     *
+     * @return a future that completes when the sound is ready to play.
+     */
+    public CompletableFuture<Void> preloadAsync() {
+        return CompletableFuture.runAsync(this::preload, preloader);
+    }
+
+    /**
+     * Decodes a sound into the cache on the background thread of the player, e.g. for a recently used preset.
+     * A sound that is already cached becomes the most recently used one.
+     *
+     * @param uri The URI string of the sound file.
+     * @return a future that completes when the sound is cached.
+     */
+    public CompletableFuture<Void> preloadAsync(String uri) {
+        return CompletableFuture.runAsync(() -> {
+            if (!shouldStream(uri)) {
+                cache.get(uri);
+            }
+        }, preloader);
+    }
+
+    /**
+     * Checks if the alarm sound is streamed instead of being held in memory as a whole.
+     *
+     * @return {@code true} if the current sound is played by a {@link MediaPlayer}.
+     */
+    public synchronized boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counters and the resident bytes of the clip cache.
+     *
+     * @return the current {@link ClipCache.Stats}.
+     */
+    public ClipCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    private String currentUri() {
+        if (soundUri == null) {
+            soundUri = Paths.get(PersistenceManager.getAudioDataList().getFirst().filePath()).toUri().toString();
+            streaming = shouldStream(soundUri);
+        }
+        return soundUri;
+    }
+
+    /**
+     * Compressed sounds are always streamed, their decoded size is many times their file size.
+     */
+    private static boolean shouldStream(String uri) {
+        String lower = uri.toLowerCase();
+        if (!lower.endsWith(".wav")) {
+            return true;
+        }
+        return estimateBytes(uri) > AppConstants.STREAMING_THRESHOLD_BYTES;
+    }
+
+    private static MediaPlayer openStream(String uri) {
+        try {
+            MediaPlayer player = new MediaPlayer(new Media(uri));
+            player.setCycleCount(MediaPlayer.INDEFINITE);
+            player.setOnError(() -> logger.error("Error while streaming {}: {}", uri, player.getError()));
+            return player;
+        } catch (Exception e) {
+            logger.error("Failed to open audio stream: {}", uri, e);
+            return null;
+        }
+    }
+
+    private static AudioClip decode(String uri) {
         try {
-            clip = new AudioClip(uri);
+            return new AudioClip(uri);
         } catch (Exception e) {
             logger.error("Failed to load audio clip: {}", uri, e);
+            return null;
         }
     }
+
+    /**
+     * Estimates the memory of a decoded clip from the audio index, or from the file size if it is not indexed.
+     */
+    private static long estimateBytes(String uri) {
+        try {
+            Path path = Paths.get(URI.create(uri));
+            return PersistenceManager.getAudioMetadataIndex()
+                    .get(AudioData.createAudioDataFromFile(path.toString()))
+                    .map(AudioMetadata::decodedBytes)
+                    .filter(bytes -> bytes > 0)
+                    .orElse(Files.size(path));
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
     /**
      * Sets a new sound file to be used for the alarm.
+     * A cached clip of the sound is used right away, otherwise the sound is decoded by the next
+     * {@link AlarmPlayer#preload()} or when the alarm starts.
      *
      * @param soundUri The URI string of the new sound file (e.g., from file.toURI().toString()).
+     * @return {@code true} if the sound has changed, {@code false} if it was already set.
      */
-    public void setSoundPath(String soundUri) {
-        if (this.soundUri.equals(soundUri)) return;
+    public synchronized boolean setSoundPath(String soundUri) {
+        if (soundUri.equals(this.soundUri)) return false;
         stop();
+        if (mediaPlayer != null) {
+            mediaPlayer.dispose();
+            mediaPlayer = null;
+        }
         this.soundUri = soundUri;
-        loadClip(soundUri);
+        this.streaming = shouldStream(soundUri);
+        this.clip = streaming ? null : cache.getIfPresent(soundUri).orElse(null);
+        return true;
     }
 
     /**
@@ -57,6 +252,25 @@ public class AlarmPlayer {
      * has been set, this method will first dispose of the old player and create a new one.
      */
     public void play() {
+        preload();
+        playLoaded();
+    }
+
+    private synchronized void playLoaded() {
+        if (streaming) {
+            if (mediaPlayer == null) {
+                logger.warn("MediaPlayer is not initialized");
+                return;
+            }
+            if (playing) {
+                return;
+            }
+            mediaPlayer.setVolume(isMuted ? 0.0 : 1.0);
+            mediaPlayer.seek(Duration.ZERO);
+            mediaPlayer.play();
+            playing = true;
+            return;
+        }
         if (clip == null) {
             logger.warn("AudioClip is not initialized");
             return;
@@ -74,10 +288,13 @@ public class AlarmPlayer {
     /**
      * Stops the playback of the alarm sound if it is currently playing.
      */
-    public void stop() {
+    public synchronized void stop() {
         if (clip != null && playing) {
             clip.stop();
         }
+        if (mediaPlayer != null && playing) {
+            mediaPlayer.stop();
+        }
         playing = false;
     }
 
@@ -103,10 +320,13 @@ public class AlarmPlayer {
      *
      * @param m true to mute, false to unmute
      */
-    public void setMute(boolean m) {
+    public synchronized void setMute(boolean m) {
         this.isMuted = m;
         if (clip != null) {
             clip.setVolume(isMuted ? 0.0 : 1.0);
         }
+        if (mediaPlayer != null) {
+            mediaPlayer.setVolume(isMuted ? 0.0 : 1.0);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package org.pomotimo.logic.audio;
 
+import java.util.Locale;
+
 import org.pomotimo.logic.config.AppConstants;
 
 public record AudioData (String name, String filePath) {
@@ -7,6 +9,8 @@ public record AudioData (String name, String filePath) {
     /**
      * Creates an AudioData record from a file Path.
      * Extracts the name without the extension and gets the absolute file path.
+     * The name of a sound that is not a WAV file ends with its format, e.g. {@code "zarathustra_strauss (MP3)"},
+     * so it can be told apart from a WAV file of the same name.
      *
      * @param filePath The path where the audio file is located.
      *             Assumes that a file exists under this path.
@@ -18,6 +22,10 @@ public record AudioData (String name, String filePath) {
         int lastDotIndex = fileName.lastIndexOf('.');
         if (lastDotIndex > 0) {
             nameWithoutExtension = fileName.substring(0, lastDotIndex);
+            String format = fileName.substring(lastDotIndex + 1);
+            if (!format.equalsIgnoreCase("wav")) {
+                nameWithoutExtension += " (" + format.toUpperCase(Locale.ROOT) + ")";
+            }
         }
         return new AudioData(nameWithoutExtension, filePath);
     }
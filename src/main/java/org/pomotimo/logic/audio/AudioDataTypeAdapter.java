@@ -0,0 +1,54 @@
+package org.pomotimo.logic.audio;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming Gson adapter for {@link AudioData}, writes the same JSON as Gson's reflective binding.
+ */
+public class AudioDataTypeAdapter extends TypeAdapter<AudioData> {
+
+    @Override
+    public void write(JsonWriter out, AudioData audio) throws IOException {
+        if (audio == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("name").value(audio.name());
+        out.name("filePath").value(audio.filePath());
+        out.endObject();
+    }
+
+    @Override
+    public AudioData read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = null;
+        String filePath = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> name = nextStringOrNull(in);
+                case "filePath" -> filePath = nextStringOrNull(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new AudioData(name, filePath);
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
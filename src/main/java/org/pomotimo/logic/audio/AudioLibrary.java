@@ -0,0 +1,315 @@
+package org.pomotimo.logic.audio;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import org.pomotimo.logic.config.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The audio files in the media directory, kept up to date by a {@link WatchService}.
+ * <p>The directory is listed once by {@link AudioLibrary#scan()}. After that, {@link AudioLibrary#startWatching()}
+ * applies the create, delete and modify events of the directory to an index keyed by path, so adding or removing
+ * a sound never needs a rescan. Only an overflow of the event queue triggers a full scan.</p>
+ * <p>Readers get an immutable snapshot of the library that is replaced whenever it changes. Every change is also
+ * published to the registered {@link Listener}s, on the watcher thread.</p>
+ */
+public class AudioLibrary implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AudioLibrary.class);
+
+    /**
+     * Receives the changes of an {@link AudioLibrary}.
+     */
+    public interface Listener {
+
+        /**
+         * Called after the library has changed.
+         *
+         * @param change the added, removed and modified audio files.
+         */
+        void onChange(Change change);
+    }
+
+    /**
+     * A change of the library.
+     *
+     * @param added audio files that are new in the library.
+     * @param removed audio files that have been removed from the library.
+     * @param modified audio files whose content has changed on disk.
+     */
+    public record Change(List<AudioData> added, List<AudioData> removed, List<AudioData> modified) {
+
+        /**
+         * @return {@code true} if nothing has changed.
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+        }
+    }
+
+    private final Path dir;
+    private final Map<Path, AudioData> index = new LinkedHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile List<AudioData> snapshot = List.of();
+    private WatchService watchService;
+
+    /**
+     * Creates an empty library for the given directory, see {@link AudioLibrary#scan()}.
+     *
+     * @param dir the directory with the audio files.
+     */
+    public AudioLibrary(Path dir) {
+        this.dir = dir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Checks if a file can be played as an alarm sound, by its extension, see {@link AppConstants#AUDIO_EXTENSIONS}.
+     *
+     * @param file the file to check.
+     * @return {@code true} for supported audio files.
+     */
+    public static boolean isAudioFile(Path file) {
+        if (file.getFileName() == null) {
+            return false;
+        }
+        String name = file.getFileName().toString().toLowerCase();
+        return AppConstants.AUDIO_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /**
+     * Gets the audio files of the library.
+     *
+     * @return an immutable snapshot, in the order the files have been found.
+     */
+    public List<AudioData> getAudioDataList() {
+        return snapshot;
+    }
+
+    /**
+     * Looks up the audio file with the given path.
+     *
+     * @param file the path of the audio file.
+     * @return the entry of the file, or an empty optional if it is not in the library.
+     */
+    public synchronized Optional<AudioData> get(Path file) {
+        return Optional.ofNullable(index.get(file.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Registers a listener for the changes of the library.
+     *
+     * @param listener the {@link Listener} to add.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the {@link Listener} to remove.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Lists the directory and brings the index in line with it.
+     * This is done once on startup and after the watcher has lost events.
+     */
+    public void scan() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Set<Path> found = new HashSet<>();
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.filter(f -> isAudioFile(f) && Files.isRegularFile(f))
+                    .map(f -> f.toAbsolutePath().normalize())
+                    .forEach(f -> {
+                        found.add(f);
+                        files.add(f);
+                    });
+        } catch (IOException e) {
+            logger.error("Error reading directory: {}, {}", dir, e.getMessage());
+            return;
+        }
+
+        List<AudioData> added = new ArrayList<>();
+        List<AudioData> removed = new ArrayList<>();
+        synchronized (this) {
+            index.entrySet().removeIf(e -> {
+                if (!found.contains(e.getKey())) {
+                    removed.add(e.getValue());
+                    return true;
+                }
+                return false;
+            });
+            for (Path f : files) {
+                if (!index.containsKey(f)) {
+                    AudioData data = AudioData.createAudioDataFromFile(f.toString());
+                    index.put(f, data);
+                    added.add(data);
+                    logger.debug("Following audio added to list: {}", f);
+                }
+            }
+        }
+        publish(new Change(added, removed, List.of()));
+    }
+
+    /**
+     * Adds an audio file to the library, e.g. right after it has been copied to the media directory.
+     * The event of the watcher for the same file is ignored.
+     *
+     * @param entry the {@link AudioData} to add.
+     */
+    public void add(AudioData entry) {
+        Path key = Path.of(entry.filePath()).toAbsolutePath().normalize();
+        synchronized (this) {
+            if (index.putIfAbsent(key, entry) != null) {
+                return;
+            }
+        }
+        publish(new Change(List.of(entry), List.of(), List.of()));
+    }
+
+    /**
+     * Removes an audio file from the library.
+     *
+     * @param entry the {@link AudioData} to remove.
+     */
+    public void remove(AudioData entry) {
+        Path key = Path.of(entry.filePath()).toAbsolutePath().normalize();
+        synchronized (this) {
+            if (index.remove(key) == null) {
+                return;
+            }
+        }
+        publish(new Change(List.of(), List.of(entry), List.of()));
+    }
+
+    /**
+     * Starts a daemon thread that applies the changes of the directory to the library.
+     * Does nothing if the library is already watched or the directory can not be watched.
+     */
+    public synchronized void startWatching() {
+        if (watchService != null) {
+            return;
+        }
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Can not watch {} for new sounds: {}", dir, e.getMessage());
+            watchService = null;
+            return;
+        }
+        WatchService ws = watchService;
+        Thread watcher = new Thread(() -> watch(ws), "pomo-audio-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.debug("Watching {} for audio files", dir);
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Could not close the watch service of {}", dir);
+            }
+            watchService = null;
+        }
+    }
+
+    private void watch(WatchService ws) {
+        try {
+            while (true) {
+                WatchKey key = ws.take();
+                applyEvents(key.pollEvents());
+                if (!key.reset()) {
+                    logger.warn("Media directory {} is no longer accessible, stopped watching it", dir);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Stopped watching {}", dir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyEvents(List<WatchEvent<?>> events) {
+        List<AudioData> added = new ArrayList<>();
+        List<AudioData> removed = new ArrayList<>();
+        List<AudioData> modified = new ArrayList<>();
+        boolean overflow = false;
+        synchronized (this) {
+            for (WatchEvent<?> event : events) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                Path file = dir.resolve((Path) event.context());
+                if (!isAudioFile(file)) {
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    AudioData old = index.remove(file);
+                    if (old != null) {
+                        removed.add(old);
+                    }
+                } else if (Files.isRegularFile(file)) {
+                    AudioData existing = index.get(file);
+                    if (existing == null) {
+                        AudioData data = AudioData.createAudioDataFromFile(file.toString());
+                        index.put(file, data);
+                        added.add(data);
+                    } else if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY && !added.contains(existing)) {
+                        modified.add(existing);
+                    }
+                }
+            }
+        }
+        publish(new Change(added, removed, modified.stream().distinct().toList()));
+        if (overflow) {
+            logger.debug("Lost events for {}, rescanning", dir);
+            scan();
+        }
+    }
+
+    private void publish(Change change) {
+        if (change.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            snapshot = List.copyOf(index.values());
+        }
+        logger.debug("Audio library changed: {} added, {} removed, {} modified",
+                change.added().size(), change.removed().size(), change.modified().size());
+        for (Listener l : listeners) {
+            l.onChange(change);
+        }
+    }
+}
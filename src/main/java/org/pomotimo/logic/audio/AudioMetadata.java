@@ -0,0 +1,171 @@
+package org.pomotimo.logic.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Metadata of an audio file, read from its header without decoding any audio.
+ * <p>Values that are unknown, e.g. for formats whose header is not parsed, are {@code -1}.</p>
+ *
+ * @param filePath the absolute path of the file, like {@link AudioData#filePath()}.
+ * @param size the size of the file in bytes.
+ * @param modified the last modification time of the file in milliseconds.
+ * @param format the container and encoding, e.g. {@code WAV/PCM}.
+ * @param sampleRate samples per second and channel.
+ * @param channels the number of channels.
+ * @param bitsPerSample the bits of a single sample.
+ * @param dataBytes the size of the decoded audio data in bytes, estimated from the bitrate for MP3 files.
+ * @param sha256 the hex encoded SHA-256 digest of the file.
+ */
+public record AudioMetadata(String filePath, long size, long modified, String format, int sampleRate,
+                            int channels, int bitsPerSample, long dataBytes, String sha256) {
+
+    private static final int[] MP3_BITRATES_V1 = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320};
+    private static final int[] MP3_BITRATES_V2 = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160};
+    private static final int[] MP3_SAMPLE_RATES_V1 = {44100, 48000, 32000};
+
+    /**
+     * @return the duration of the sound in milliseconds, {@code -1} if unknown.
+     */
+    public long durationMillis() {
+        long bytesPerSecond = (long) sampleRate * channels * bitsPerSample / 8;
+        if (bytesPerSecond <= 0 || dataBytes < 0) {
+            return -1;
+        }
+        return dataBytes * 1000 / bytesPerSecond;
+    }
+
+    /**
+     * Gets the memory that is needed to hold the decoded sound, e.g. in an {@link javafx.scene.media.AudioClip}.
+     *
+     * @return the size of the decoded PCM data in bytes, {@code -1} if unknown.
+     */
+    public long decodedBytes() {
+        return dataBytes;
+    }
+
+    /**
+     * Checks if this metadata still describes the file on disk.
+     *
+     * @param size the current size of the file.
+     * @param modified the current modification time of the file in milliseconds.
+     * @return {@code true} if size and modification time are unchanged.
+     */
+    public boolean matches(long size, long modified) {
+        return this.size == size && this.modified == modified;
+    }
+
+    /**
+     * Reads the format of a file from its header.
+     * For WAV files the {@code fmt } and {@code data} chunks are read, for MP3 files the first frame header.
+     * Other files only get their extension as format.
+     *
+     * @param file the audio file.
+     * @param size the size of the file.
+     * @param modified the modification time of the file in milliseconds.
+     * @param sha256 the digest of the file.
+     * @return the metadata of the file.
+     * @throws IOException if the file could not be read.
+     */
+    static AudioMetadata read(Path file, long size, long modified, String sha256) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).toUpperCase() : "";
+        if (extension.equals("MP3")) {
+            return readMp3(file, size, modified, sha256);
+        }
+        if (!extension.equals("WAV")) {
+            return new AudioMetadata(file.toString(), size, modified, extension, -1, -1, -1, -1, sha256);
+        }
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, header, 0);
+            if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) { // "RIFF", "WAVE"
+                return new AudioMetadata(file.toString(), size, modified, "WAV/unknown", -1, -1, -1, -1, sha256);
+            }
+            String encoding = "unknown";
+            int sampleRate = -1;
+            int channels = -1;
+            int bits = -1;
+            long dataBytes = -1;
+            ByteBuffer chunk = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+            long pos = 12;
+            while (pos + 8 <= size && (dataBytes < 0 || sampleRate < 0)) {
+                chunk.clear().limit(8);
+                readFully(ch, chunk, pos);
+                int id = chunk.getInt(0);
+                long length = Integer.toUnsignedLong(chunk.getInt(4));
+                if (id == 0x20746d66) { // "fmt "
+                    chunk.clear().limit(16);
+                    readFully(ch, chunk, pos + 8);
+                    encoding = switch (chunk.getShort(0) & 0xffff) {
+                        case 1 -> "PCM";
+                        case 3 -> "float";
+                        case 0xfffe -> "extensible";
+                        default -> "0x" + Integer.toHexString(chunk.getShort(0) & 0xffff);
+                    };
+                    channels = chunk.getShort(2) & 0xffff;
+                    sampleRate = chunk.getInt(4);
+                    bits = chunk.getShort(14) & 0xffff;
+                } else if (id == 0x61746164) { // "data"
+                    dataBytes = Math.min(length, size - pos - 8);
+                }
+                pos += 8 + length + (length & 1);
+            }
+            return new AudioMetadata(file.toString(), size, modified, "WAV/" + encoding, sampleRate, channels, bits,
+                    dataBytes, sha256);
+        }
+    }
+
+    /**
+     * Reads the first MPEG layer III frame header after an optional ID3v2 tag. The duration assumes a constant bitrate.
+     */
+    private static AudioMetadata readMp3(Path file, long size, long modified, String sha256) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = 0;
+            ByteBuffer tag = ByteBuffer.allocate(10);
+            if (size >= 10) {
+                readFully(ch, tag, 0);
+                if (tag.get(0) == 'I' && tag.get(1) == 'D' && tag.get(2) == '3') {
+                    start = 10 + ((tag.get(6) & 0x7f) << 21 | (tag.get(7) & 0x7f) << 14
+                            | (tag.get(8) & 0x7f) << 7 | (tag.get(9) & 0x7f));
+                }
+            }
+            ByteBuffer window = ByteBuffer.allocate((int) Math.max(0, Math.min(64 * 1024, size - start)));
+            readFully(ch, window, start);
+            for (int i = 0; i + 4 <= window.limit(); i++) {
+                int header = window.getInt(i);
+                if ((header >>> 21) != 0x7ff || ((header >>> 17) & 3) != 1) { // frame sync, layer III
+                    continue;
+                }
+                int version = (header >>> 19) & 3; // 3 = MPEG 1, 2 = MPEG 2, 0 = MPEG 2.5
+                int bitrateIndex = (header >>> 12) & 0xf;
+                int rateIndex = (header >>> 10) & 3;
+                if (version == 1 || bitrateIndex == 0 || bitrateIndex == 0xf || rateIndex == 3) {
+                    continue;
+                }
+                int bitrate = (version == 3 ? MP3_BITRATES_V1 : MP3_BITRATES_V2)[bitrateIndex] * 1000;
+                int sampleRate = MP3_SAMPLE_RATES_V1[rateIndex] >> (version == 3 ? 0 : version == 2 ? 1 : 2);
+                int channels = ((header >>> 6) & 3) == 3 ? 1 : 2;
+                long audioBytes = size - start - i;
+                long decodedBytes = audioBytes * 8 * sampleRate / bitrate * channels * 2;
+                return new AudioMetadata(file.toString(), size, modified, "MP3", sampleRate, channels, 16,
+                        decodedBytes, sha256);
+            }
+        }
+        return new AudioMetadata(file.toString(), size, modified, "MP3", -1, -1, -1, -1, sha256);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (ch.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+}
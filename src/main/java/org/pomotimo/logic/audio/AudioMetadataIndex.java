@@ -0,0 +1,235 @@
+package org.pomotimo.logic.audio;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent index with the {@link AudioMetadata} of every file in the {@link AudioLibrary}.
+ * <p>An entry is valid as long as size and modification time of its file are unchanged, so keeping the index
+ * up to date only costs one stat per file. Only new and changed files are read and hashed again, in parallel.</p>
+ * <p>Register the index as a listener of the library to keep it up to date while the application runs.</p>
+ */
+public class AudioMetadataIndex implements AudioLibrary.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(AudioMetadataIndex.class);
+    private static final Type ENTRY_LIST_TYPE = new TypeToken<ArrayList<AudioMetadata>>() {}.getType();
+
+    private final Gson gson = new Gson();
+    private final Path file;
+    private final Map<String, AudioMetadata> entries = new ConcurrentHashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Creates an index that is stored in the given file.
+     *
+     * @param file the index file, it is read on the first {@link AudioMetadataIndex#refresh(Collection)}.
+     */
+    public AudioMetadataIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the metadata of an audio file.
+     *
+     * @param audio the audio file.
+     * @return the metadata, or an empty optional if the file has not been indexed (yet).
+     */
+    public Optional<AudioMetadata> get(AudioData audio) {
+        return Optional.ofNullable(entries.get(audio.filePath()));
+    }
+
+    /**
+     * Gets the metadata of all indexed files.
+     *
+     * @return a copy of the entries.
+     */
+    public List<AudioMetadata> getAll() {
+        return List.copyOf(entries.values());
+    }
+
+    /**
+     * Finds files with the same content.
+     *
+     * @return the groups of files that share a content hash, only groups with more than one file.
+     */
+    public List<List<AudioMetadata>> findDuplicates() {
+        return entries.values().stream()
+                .filter(m -> m.sha256() != null)
+                .collect(Collectors.groupingBy(AudioMetadata::sha256))
+                .values().stream()
+                .filter(group -> group.size() > 1)
+                .toList();
+    }
+
+    /**
+     * Brings the index in line with the given audio files: entries of files that are gone are dropped, new
+     * and changed files are indexed in parallel. The index file is rewritten if anything has changed.
+     *
+     * @param audioFiles all files of the library.
+     * @return the number of files that had to be read.
+     */
+    public synchronized int refresh(Collection<AudioData> audioFiles) {
+        long start = System.nanoTime();
+        boolean changed = load();
+        Set<String> paths = audioFiles.stream().map(AudioData::filePath).collect(Collectors.toCollection(HashSet::new));
+        changed |= entries.keySet().retainAll(paths);
+        int indexed = update(audioFiles);
+        if (changed || indexed > 0) {
+            save();
+        }
+        logger.info("Audio index refreshed in {} ms, {} of {} files indexed",
+                (System.nanoTime() - start) / 1_000_000, indexed, audioFiles.size());
+        return indexed;
+    }
+
+    /**
+     * Applies a change of the {@link AudioLibrary} to the index.
+     *
+     * @param change the added, removed and modified audio files.
+     */
+    @Override
+    public synchronized void onChange(AudioLibrary.Change change) {
+        if (!loaded) {
+            return;
+        }
+        boolean changed = false;
+        for (AudioData removed : change.removed()) {
+            changed |= entries.remove(removed.filePath()) != null;
+        }
+        List<AudioData> toIndex = new ArrayList<>(change.added());
+        toIndex.addAll(change.modified());
+        if (update(toIndex) > 0 || changed) {
+            save();
+        }
+    }
+
+    /**
+     * Indexes the files whose entry is missing or outdated.
+     *
+     * @return the number of files that have been read.
+     */
+    private int update(Collection<AudioData> audioFiles) {
+        List<AudioMetadata> updated = audioFiles.parallelStream()
+                .map(this::indexIfChanged)
+                .filter(Objects::nonNull)
+                .toList();
+        for (AudioMetadata m : updated) {
+            entries.put(m.filePath(), m);
+        }
+        return updated.size();
+    }
+
+    private AudioMetadata indexIfChanged(AudioData audio) {
+        Path path = Path.of(audio.filePath());
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            AudioMetadata cached = entries.get(audio.filePath());
+            if (cached != null && cached.matches(attrs.size(), modified)) {
+                return null;
+            }
+            return AudioMetadata.read(path, attrs.size(), modified, digest(path));
+        } catch (IOException e) {
+            logger.warn("Could not index audio file {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean load() {
+        if (loaded) {
+            return false;
+        }
+        loaded = true;
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<AudioMetadata> list = gson.fromJson(reader, ENTRY_LIST_TYPE);
+            if (list != null) {
+                for (AudioMetadata m : list) {
+                    if (m != null && m.filePath() != null) {
+                        entries.put(m.filePath(), m);
+                    }
+                }
+            }
+            return false;
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Ignoring unreadable audio index {}, rebuilding it", file);
+            entries.clear();
+            return true;
+        }
+    }
+
+    private void save() {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                gson.toJson(new ArrayList<>(entries.values()), ENTRY_LIST_TYPE, writer);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            logger.warn("Could not write audio index {}: {}", file, e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary file {}", tmp);
+                }
+            }
+        }
+    }
+
+    private static String digest(Path path) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+}
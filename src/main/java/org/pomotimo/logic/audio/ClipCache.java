@@ -0,0 +1,141 @@
+package org.pomotimo.logic.audio;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A least recently used cache of decoded sounds with a budget in bytes.
+ * <p>When the resident bytes exceed the budget, the least recently used sounds are evicted. The sound that
+ * has just been added is never evicted, even if it is larger than the whole budget.</p>
+ * <p>Decoding happens outside of the lock of the cache, so lookups of other sounds never wait for it.
+ * If two threads miss the same sound at the same time, it may be decoded twice.</p>
+ *
+ * @param <T> the type of the decoded sounds, e.g. {@link javafx.scene.media.AudioClip}.
+ */
+public class ClipCache<T> {
+    private static final Logger logger = LoggerFactory.getLogger(ClipCache.class);
+
+    private final long budgetBytes;
+    private final Function<String, T> loader;
+    private final ToLongFunction<String> weigher;
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private record Entry<T>(T clip, long bytes) {}
+
+    /**
+     * The counters of a cache at one point in time.
+     *
+     * @param hits lookups that found the sound in the cache.
+     * @param misses lookups that had to decode the sound.
+     * @param evictions sounds that have been dropped to stay within the budget.
+     * @param residentBytes the estimated size of all cached sounds.
+     * @param clips the number of cached sounds.
+     * @param budgetBytes the budget of the cache.
+     */
+    public record Stats(long hits, long misses, long evictions, long residentBytes, int clips, long budgetBytes) {}
+
+    /**
+     * Creates a cache.
+     *
+     * @param budgetBytes the maximum bytes of the cached sounds.
+     * @param loader decodes the sound with the given URI, returns {@code null} if that fails.
+     * @param weigher estimates the memory of the decoded sound with the given URI.
+     */
+    public ClipCache(long budgetBytes, Function<String, T> loader, ToLongFunction<String> weigher) {
+        this.budgetBytes = budgetBytes;
+        this.loader = loader;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets a sound from the cache without decoding it.
+     * A found sound becomes the most recently used one.
+     *
+     * @param uri the URI of the sound.
+     * @return the cached sound, or an empty optional.
+     */
+    public synchronized Optional<T> getIfPresent(String uri) {
+        Entry<T> e = entries.get(uri);
+        if (e == null) {
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(e.clip());
+    }
+
+    /**
+     * Gets a sound from the cache and decodes it on a miss.
+     *
+     * @param uri the URI of the sound.
+     * @return the sound, or {@code null} if it could not be decoded.
+     */
+    public T get(String uri) {
+        synchronized (this) {
+            Entry<T> e = entries.get(uri);
+            if (e != null) {
+                hits++;
+                return e.clip();
+            }
+            misses++;
+        }
+        T clip = loader.apply(uri);
+        if (clip == null) {
+            return null;
+        }
+        long bytes = Math.max(0, weigher.applyAsLong(uri));
+        synchronized (this) {
+            Entry<T> raced = entries.get(uri);
+            if (raced != null) {
+                return raced.clip();
+            }
+            entries.put(uri, new Entry<>(clip, bytes));
+            residentBytes += bytes;
+            evict(uri);
+        }
+        return clip;
+    }
+
+    /**
+     * Drops a sound from the cache, e.g. because its file has changed.
+     *
+     * @param uri the URI of the sound.
+     */
+    public synchronized void invalidate(String uri) {
+        Entry<T> e = entries.remove(uri);
+        if (e != null) {
+            residentBytes -= e.bytes();
+        }
+    }
+
+    /**
+     * @return the current counters of the cache.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, residentBytes, entries.size(), budgetBytes);
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Entry<T>>> it = entries.entrySet().iterator();
+        while (residentBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, Entry<T>> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            residentBytes -= eldest.getValue().bytes();
+            evictions++;
+            logger.debug("Evicted {} from the clip cache", eldest.getKey());
+        }
+    }
+}
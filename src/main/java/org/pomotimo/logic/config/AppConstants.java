@@ -16,30 +16,45 @@ public final class AppConstants {
 
 
     // --- App Icons ---
-    public static final Image ICON = new Image(Objects.requireNonNull(AppConstants.class.
-            getResourceAsStream("/icons/alt/app_icon.png")));
-    public static final Image ICON_48 = new Image(Objects.requireNonNull(AppConstants.class.
-            getResourceAsStream("/icons/alt/app_icon_48.png")));
-    public static final Image ICON_128 = new Image(Objects.requireNonNull(AppConstants.class.
-            getResourceAsStream("/icons/alt/app_icon_128.png")));
-
-    //List of Icons size versions
-    public static final List<Image> ICON_LIST = List.of(
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_16.png"))),
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_24.png"))),
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_32.png"))),
-            ICON_48,
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_64.png"))),
-            ICON_128,
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_256.png"))),
-            new Image(Objects.requireNonNull(AppConstants.class.
-                    getResourceAsStream("/icons/alt/app_icon_512.png")))
-    );
+    /**
+     * The application icons. They are decoded when this class is first used instead of with
+     * {@link AppConstants}, {@link Icons#preload()} does that on a background thread during startup.
+     */
+    public static final class Icons {
+
+        private Icons() {}
+
+        public static final Image ICON = new Image(Objects.requireNonNull(AppConstants.class.
+                getResourceAsStream("/icons/alt/app_icon.png")));
+        public static final Image ICON_48 = new Image(Objects.requireNonNull(AppConstants.class.
+                getResourceAsStream("/icons/alt/app_icon_48.png")));
+        public static final Image ICON_128 = new Image(Objects.requireNonNull(AppConstants.class.
+                getResourceAsStream("/icons/alt/app_icon_128.png")));
+
+        //List of Icons size versions
+        public static final List<Image> ICON_LIST = List.of(
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_16.png"))),
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_24.png"))),
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_32.png"))),
+                ICON_48,
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_64.png"))),
+                ICON_128,
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_256.png"))),
+                new Image(Objects.requireNonNull(AppConstants.class.
+                        getResourceAsStream("/icons/alt/app_icon_512.png")))
+        );
+
+        /**
+         * Decodes all icons, e.g. on a background thread before the window is built.
+         * Calling this method initializes the class, it has nothing else to do.
+         */
+        public static void preload() {}
+    }
 
     // --- Operating System ---
     public static final OperatingSystem os = OperatingSystem.detect();
@@ -48,6 +63,32 @@ public final class AppConstants {
     public static final Path CONFIG_DIR = Path.of(System.getProperty("user.home"), ".pomotimo");
     public static final Path MEDIA_DIR = CONFIG_DIR.resolve("media");
     public static final Path PRESETS_FILE = CONFIG_DIR.resolve("presets.json");
+    public static final Path PRESETS_BACKUP_FILE = CONFIG_DIR.resolve("presets.json.bak");
+    public static final Path PRESETS_JOURNAL_FILE = CONFIG_DIR.resolve("presets.journal");
+    /** One file per preset with its task list, named after the preset id. */
+    public static final Path TASKS_DIR = CONFIG_DIR.resolve("tasks");
+    /** Size of the journal in bytes after which it is folded into a new presets snapshot. */
+    public static final long JOURNAL_COMPACTION_BYTES = 256 * 1024;
+    /** Writes presets.json without indentation when started with {@code -Dpomotimo.compactJson=true}. */
+    public static final boolean COMPACT_JSON = Boolean.getBoolean("pomotimo.compactJson");
+    /** Size, modification time and digest of the extracted default sounds. */
+    public static final Path SOUND_DIGEST_CACHE = CONFIG_DIR.resolve("sounds.digests");
+    /** Format, duration, size and content hash of the files in the media directory. */
+    public static final Path AUDIO_INDEX_FILE = CONFIG_DIR.resolve("audio-index.json");
+    /** Memory-mapped segment files with one fixed-width record per phase that has been run. */
+    public static final Path HISTORY_DIR = CONFIG_DIR.resolve("history");
+    /** Records per history segment, a segment file of 65536 records takes 4 MiB. */
+    public static final int HISTORY_SEGMENT_RECORDS = 65536;
+    /** Focus time per day, week and month, derived from the history. */
+    public static final Path ROLLUPS_FILE = CONFIG_DIR.resolve("rollups.json");
+
+    // --- Alarm sounds ---
+    /** Budget of the decoded alarm clips kept in memory, {@code -Dpomotimo.clipCacheBytes} to change it. */
+    public static final long CLIP_CACHE_BYTES = Long.getLong("pomotimo.clipCacheBytes", 64L * 1024 * 1024);
+    /** Decoded size above which a WAV alarm is streamed by a MediaPlayer instead of being held as an AudioClip. */
+    public static final long STREAMING_THRESHOLD_BYTES = 8L * 1024 * 1024;
+    /** Number of recently used presets whose alarm sound is kept decoded. */
+    public static final int RECENT_PRESET_SOUNDS = 3;
 
     // --- Application metadata ---
     public static final String APP_NAME = "Pomotimo";
@@ -67,6 +108,10 @@ public final class AppConstants {
             "zarathustra_strauss.wav",
             "alarm_clock_digital.wav",
             "wildest_dreams_taylor_swift.wav",
-            "chi_mai_ennio_morricone.wav"
+            "chi_mai_ennio_morricone.wav",
+            "mp3/alarm_clock_digital.mp3",
+            "mp3/zarathustra_strauss.mp3"
     };
+    /** File extensions of the sounds that can be used as alarm. */
+    public static final List<String> AUDIO_EXTENSIONS = List.of(".wav", ".mp3", ".m4a", ".aac");
 }
@@ -0,0 +1,312 @@
+package org.pomotimo.logic.history;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.pomotimo.logic.PomoState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Focus time per day, week and month, per preset and in total, kept up to date while phases are recorded.
+ * <p>The rollups listen to a {@link SessionHistory} and add every appended focus phase to its day, week and
+ * month bucket, so a dashboard query only reads the buckets of the requested range instead of the sessions.
+ * A phase counts for the local date on which it was started.</p>
+ * <p>The buckets are stored in a file next to the presets together with the number of history records they
+ * contain. When the rollups are attached to the history again, only the records appended after the last save
+ * are added. They are rebuilt from the whole history only if the file is missing or unreadable, was written for
+ * another time zone, or contains more records than the history.</p>
+ */
+public class FocusRollups implements SessionHistory.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(FocusRollups.class);
+    private static final int FORMAT_VERSION = 1;
+    /* Key of the buckets that add up all presets, preset ids are UUIDs and never look like this */
+    private static final String ALL_PRESETS = "*";
+    /* Key of the buckets of phases that were run without a preset */
+    private static final String NO_PRESET = "";
+    private static final int FOCUS_MILLIS = 0;
+    private static final int COMPLETED = 1;
+    private static final int INTERRUPTED = 2;
+
+    /**
+     * The length of a bucket.
+     */
+    public enum Period {
+        DAY,
+        /** Weeks start on Monday. */
+        WEEK,
+        MONTH;
+
+        /**
+         * @param date a date.
+         * @return the first day of the bucket that contains the date.
+         */
+        public LocalDate bucketOf(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    /**
+     * The focus phases of one bucket.
+     *
+     * @param start the first day of the bucket.
+     * @param focusMillis the time spent in focus phases, including interrupted ones.
+     * @param completed the number of focus phases that ran out.
+     * @param interrupted the number of focus phases that were skipped or reset.
+     */
+    public record Bucket(LocalDate start, long focusMillis, int completed, int interrupted) {
+
+        /**
+         * @return the focus time in whole minutes.
+         */
+        public long focusMinutes() {
+            return focusMillis / 60_000;
+        }
+    }
+
+    private final Path file;
+    private final ZoneId zone;
+    /* period -> preset key -> epoch day of the bucket start -> {focus millis, completed, interrupted} */
+    private final Map<Period, Map<String, TreeMap<Long, long[]>>> buckets = new EnumMap<>(Period.class);
+    /* Number of history records that have been added, the position of the next record to add */
+    private long folded;
+    private SessionHistory history;
+
+    /**
+     * Creates empty rollups, see {@link FocusRollups#attach(SessionHistory)}.
+     *
+     * @param file the file the buckets are stored in.
+     * @param zone the time zone that decides on which date a phase was run.
+     */
+    public FocusRollups(Path file, ZoneId zone) {
+        this.file = file;
+        this.zone = zone;
+        clearBuckets();
+    }
+
+    /**
+     * Loads the stored buckets, adds the records that are missing in them and then follows the appends
+     * to the history.
+     *
+     * @param history the history of the phases.
+     */
+    public synchronized void attach(SessionHistory history) {
+        if (this.history != null) {
+            this.history.removeListener(this);
+        }
+        this.history = history;
+        long start = System.nanoTime();
+        if (!load() || folded > history.size()) {
+            logger.info("Rebuilding focus rollups from {} history records", history.size());
+            clearBuckets();
+            folded = 0;
+        }
+        long before = folded;
+        history.addListener(this);
+        catchUp();
+        logger.debug("Focus rollups attached in {} ms, {} records added", (System.nanoTime() - start) / 1_000_000,
+                folded - before);
+    }
+
+    @Override
+    public synchronized void onAppended(SessionRecord record, long position) {
+        if (position < folded) {
+            /* already added by the catch up of attach() */
+            return;
+        }
+        if (position > folded) {
+            catchUp();
+            return;
+        }
+        add(record);
+        folded++;
+    }
+
+    /**
+     * Gets the buckets of a preset that overlap a range of dates. Only the buckets in the range are read.
+     *
+     * @param period the length of the buckets.
+     * @param presetId the id of the preset, or {@code null} for all presets together.
+     * @param from the first date of the range, inclusive.
+     * @param to the last date of the range, exclusive.
+     * @return the buckets that contain focus phases, oldest first.
+     */
+    public synchronized List<Bucket> query(Period period, String presetId, LocalDate from, LocalDate to) {
+        TreeMap<Long, long[]> rows = buckets.get(period).get(presetId == null ? ALL_PRESETS : presetId);
+        if (rows == null) {
+            return List.of();
+        }
+        long first = period.bucketOf(from).toEpochDay();
+        NavigableMap<Long, long[]> range = rows.subMap(first, true, to.toEpochDay(), false);
+        List<Bucket> result = new ArrayList<>(range.size());
+        range.forEach((day, c) -> result.add(new Bucket(LocalDate.ofEpochDay(day), c[FOCUS_MILLIS],
+                (int) c[COMPLETED], (int) c[INTERRUPTED])));
+        return result;
+    }
+
+    /**
+     * Writes the buckets to the rollups file.
+     *
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (JsonWriter out = new JsonWriter(Files.newBufferedWriter(tmp))) {
+            write(out);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.debug("Focus rollups of {} history records saved", folded);
+    }
+
+    private void catchUp() {
+        history.forEachFrom(folded, r -> {
+            add(r);
+            folded++;
+        });
+    }
+
+    private void add(SessionRecord record) {
+        if (record.phase() != PomoState.FOCUS) {
+            return;
+        }
+        LocalDate date = Instant.ofEpochMilli(record.startMillis()).atZone(zone).toLocalDate();
+        String preset = record.presetId() == null ? NO_PRESET : record.presetId();
+        for (Period period : Period.values()) {
+            long bucket = period.bucketOf(date).toEpochDay();
+            Map<String, TreeMap<Long, long[]>> byPreset = buckets.get(period);
+            count(byPreset.computeIfAbsent(preset, k -> new TreeMap<>()), bucket, record);
+            count(byPreset.computeIfAbsent(ALL_PRESETS, k -> new TreeMap<>()), bucket, record);
+        }
+    }
+
+    private static void count(TreeMap<Long, long[]> rows, long bucket, SessionRecord record) {
+        long[] c = rows.computeIfAbsent(bucket, k -> new long[3]);
+        c[FOCUS_MILLIS] += Math.max(0, record.durationMillis());
+        c[record.interrupted() ? INTERRUPTED : COMPLETED]++;
+    }
+
+    /**
+     * @return {@code true} if the stored buckets have been loaded.
+     */
+    private boolean load() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (JsonReader in = new JsonReader(Files.newBufferedReader(file))) {
+            return read(in);
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable focus rollups {}: {}", file, e.getMessage());
+            clearBuckets();
+            return false;
+        }
+    }
+
+    /*
+     * The rollups file is written without reflection, so the history package does not have to be opened to Gson:
+     * {"version": 1, "zone": "Europe/Berlin", "folded": 1234,
+     *  "buckets": {"DAY": {"<preset key>": [[epoch day of the bucket start, focus millis, completed, interrupted]]}}}
+     */
+    private void write(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("version").value(FORMAT_VERSION);
+        out.name("zone").value(zone.getId());
+        out.name("folded").value(folded);
+        out.name("buckets").beginObject();
+        for (Map.Entry<Period, Map<String, TreeMap<Long, long[]>>> period : buckets.entrySet()) {
+            out.name(period.getKey().name()).beginObject();
+            for (Map.Entry<String, TreeMap<Long, long[]>> preset : period.getValue().entrySet()) {
+                out.name(preset.getKey()).beginArray();
+                for (Map.Entry<Long, long[]> row : preset.getValue().entrySet()) {
+                    long[] c = row.getValue();
+                    out.beginArray().value(row.getKey()).value(c[FOCUS_MILLIS]).value(c[COMPLETED])
+                            .value(c[INTERRUPTED]).endArray();
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    private boolean read(JsonReader in) throws IOException {
+        int version = -1;
+        String storedZone = null;
+        long storedFolded = -1;
+        boolean hasBuckets = false;
+        clearBuckets();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "version" -> version = in.nextInt();
+                case "zone" -> storedZone = in.nextString();
+                case "folded" -> storedFolded = in.nextLong();
+                case "buckets" -> {
+                    readBuckets(in);
+                    hasBuckets = true;
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (version != FORMAT_VERSION || !hasBuckets || storedFolded < 0 || !zone.getId().equals(storedZone)) {
+            clearBuckets();
+            return false;
+        }
+        folded = storedFolded;
+        return true;
+    }
+
+    private void readBuckets(JsonReader in) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            Map<String, TreeMap<Long, long[]>> byPreset = buckets.get(Period.valueOf(in.nextName()));
+            in.beginObject();
+            while (in.hasNext()) {
+                TreeMap<Long, long[]> counts = byPreset.computeIfAbsent(in.nextName(), k -> new TreeMap<>());
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray();
+                    long day = in.nextLong();
+                    counts.put(day, new long[] {in.nextLong(), in.nextLong(), in.nextLong()});
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+        }
+        in.endObject();
+    }
+
+    private void clearBuckets() {
+        for (Period period : Period.values()) {
+            buckets.put(period, new HashMap<>());
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.pomotimo.logic.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file of the {@link SessionHistory} with room for a fixed number of {@link SessionRecord}s.
+ * <p>The file is memory-mapped as a whole. Records are appended one after another, a record counts as written
+ * once its commit marker is set, so a record that has been cut off by a crash is ignored.</p>
+ * <p>The sparse time index keeps the smallest and largest start time of every block of
+ * {@link HistorySegment#BLOCK_RECORDS} records, which is one page of the file. A range query only reads the
+ * blocks whose start times overlap the range. The index is stored in a file next to the segment whenever the
+ * segment is forced to disk, records appended after that are indexed again when the segment is opened.</p>
+ * <p>There is a single writer, the {@link SessionHistory}. Readers on other threads see all records up to
+ * {@link HistorySegment#size()}.</p>
+ */
+public final class HistorySegment {
+    private static final Logger logger = LoggerFactory.getLogger(HistorySegment.class);
+    /** The number of records in a block of the sparse index, a block fills a page of 4 KiB. */
+    public static final int BLOCK_RECORDS = 4096 / SessionRecord.BYTES;
+    /* "PIX1" */
+    private static final int INDEX_MAGIC = 0x50495831;
+
+    private final Path file;
+    private final Path indexFile;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private volatile long minStart = Long.MAX_VALUE;
+    private volatile long maxStart = Long.MIN_VALUE;
+    /* Written last by the writer, readers only look at the records below it */
+    private volatile int size;
+
+    private HistorySegment(Path file, int capacity) throws IOException {
+        this.file = file;
+        this.indexFile = file.resolveSibling(file.getFileName() + ".idx");
+        this.capacity = capacity;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * SessionRecord.BYTES);
+        }
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int blocks = (capacity + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        Arrays.fill(blockMin, Long.MAX_VALUE);
+        Arrays.fill(blockMax, Long.MIN_VALUE);
+    }
+
+    /**
+     * Creates a new, empty segment file.
+     *
+     * @param file the segment file, it must not exist.
+     * @param capacity the number of records the segment has room for.
+     * @return the segment.
+     * @throws IOException if the file could not be created.
+     */
+    static HistorySegment create(Path file, int capacity) throws IOException {
+        if (Files.exists(file)) {
+            throw new IOException("History segment " + file + " already exists");
+        }
+        return new HistorySegment(file, capacity);
+    }
+
+    /**
+     * Opens an existing segment file. The stored index is used for the records it covers,
+     * the remaining records are read until the first one that has not been written completely.
+     *
+     * @param file the segment file.
+     * @return the segment.
+     * @throws IOException if the file could not be mapped.
+     */
+    static HistorySegment open(Path file) throws IOException {
+        int capacity = (int) (Files.size(file) / SessionRecord.BYTES);
+        HistorySegment segment = new HistorySegment(file, capacity);
+        int indexed = segment.readIndex();
+        int n = indexed;
+        while (n < capacity && SessionRecord.isCommitted(segment.buffer, n * SessionRecord.BYTES)) {
+            segment.indexRecord(n, SessionRecord.startAt(segment.buffer, n * SessionRecord.BYTES));
+            n++;
+        }
+        segment.size = n;
+        if (n != indexed) {
+            logger.debug("Indexed {} records of history segment {} that were not in its index", n - indexed, file);
+        }
+        return segment;
+    }
+
+    /**
+     * @return the number of records in this segment.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of records this segment has room for.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the smallest start time in this segment, {@link Long#MAX_VALUE} if it is empty.
+     */
+    public long minStart() {
+        return minStart;
+    }
+
+    /**
+     * @return the largest start time in this segment, {@link Long#MIN_VALUE} if it is empty.
+     */
+    public long maxStart() {
+        return maxStart;
+    }
+
+    /**
+     * @param index the position of the record, {@code 0 <= index < size()}.
+     * @return the record.
+     */
+    public SessionRecord get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return SessionRecord.readFrom(buffer, index * SessionRecord.BYTES);
+    }
+
+    /**
+     * Passes all records that started in the given range to the action, in the order they were appended.
+     *
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param action receives the records.
+     */
+    public void forEach(long fromMillis, long toMillis, Consumer<? super SessionRecord> action) {
+        forEach(0, size, fromMillis, toMillis, action);
+    }
+
+    /**
+     * Passes the records between two positions that started in the given range to the action.
+     * Blocks whose start times lie outside the range are not read.
+     *
+     * @param fromIndex the first position, inclusive.
+     * @param toIndex the last position, exclusive. It is limited to {@link HistorySegment#size()}.
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param action receives the records.
+     */
+    public void forEach(int fromIndex, int toIndex, long fromMillis, long toMillis,
+                        Consumer<? super SessionRecord> action) {
+        int end = Math.min(toIndex, size);
+        if (fromIndex >= end || maxStart < fromMillis || minStart >= toMillis) {
+            return;
+        }
+        for (int block = fromIndex / BLOCK_RECORDS; block * BLOCK_RECORDS < end; block++) {
+            if (blockMax[block] < fromMillis || blockMin[block] >= toMillis) {
+                continue;
+            }
+            int first = Math.max(fromIndex, block * BLOCK_RECORDS);
+            int last = Math.min(end, (block + 1) * BLOCK_RECORDS);
+            for (int i = first; i < last; i++) {
+                int offset = i * SessionRecord.BYTES;
+                long start = SessionRecord.startAt(buffer, offset);
+                if (start >= fromMillis && start < toMillis) {
+                    action.accept(SessionRecord.readFrom(buffer, offset));
+                }
+            }
+        }
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Appends a record. Only the {@link SessionHistory} calls this, while holding its lock.
+     *
+     * @param record the record, the segment must not be full.
+     */
+    void append(SessionRecord record) {
+        int n = size;
+        record.writeTo(buffer, n * SessionRecord.BYTES);
+        indexRecord(n, record.startMillis());
+        size = n + 1;
+    }
+
+    /**
+     * Forces the records to disk and stores the index.
+     *
+     * @throws IOException if the index could not be written.
+     */
+    void force() throws IOException {
+        buffer.force();
+        writeIndex();
+    }
+
+    private void indexRecord(int index, long start) {
+        int block = index / BLOCK_RECORDS;
+        blockMin[block] = Math.min(blockMin[block], start);
+        blockMax[block] = Math.max(blockMax[block], start);
+        if (start < minStart) minStart = start;
+        if (start > maxStart) maxStart = start;
+    }
+
+    private void writeIndex() throws IOException {
+        int n = size;
+        int blocks = (n + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(n);
+            for (int b = 0; b < blocks; b++) {
+                out.writeLong(blockMin[b]);
+                out.writeLong(blockMax[b]);
+            }
+        }
+        try {
+            Files.move(tmp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the number of records covered by the stored index, {@code 0} if there is no usable index.
+     */
+    private int readIndex() {
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return 0;
+            }
+            int n = in.readInt();
+            if (n < 0 || n > capacity || n > 0 && !SessionRecord.isCommitted(buffer, (n - 1) * SessionRecord.BYTES)) {
+                return 0;
+            }
+            int blocks = (n + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int b = 0; b < blocks; b++) {
+                blockMin[b] = in.readLong();
+                blockMax[b] = in.readLong();
+                min = Math.min(min, blockMin[b]);
+                max = Math.max(max, blockMax[b]);
+            }
+            minStart = min;
+            maxStart = max;
+            return n;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable index of history segment {}: {}", file, e.getMessage());
+            Arrays.fill(blockMin, Long.MAX_VALUE);
+            Arrays.fill(blockMax, Long.MIN_VALUE);
+            minStart = Long.MAX_VALUE;
+            maxStart = Long.MIN_VALUE;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.pomotimo.logic.history;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.pomotimo.logic.config.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only store of all phases that have been run, see {@link SessionRecord}.
+ * <p>The records are kept in memory-mapped {@link HistorySegment} files of
+ * {@link AppConstants#HISTORY_SEGMENT_RECORDS} records each. A new segment is started when the last one is full,
+ * older segments are never written again. Range queries skip segments and pages whose start times lie outside
+ * the range, so a query for a day only reads a few pages, no matter how many years of history there are.</p>
+ * <p>Appends are serialized, queries may run on any thread at the same time and see all records that have
+ * been appended before they started.</p>
+ */
+public class SessionHistory implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SessionHistory.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".hist";
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    /* Replaced on every new segment, the last one is written to */
+    private volatile List<HistorySegment> segments;
+    private volatile long size;
+    private boolean closed;
+
+    /**
+     * Receives the records appended to a history.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a record has been appended, on the thread that appended it.
+         *
+         * @param record the appended record.
+         * @param position the position of the record in the history, starting at 0.
+         */
+        void onAppended(SessionRecord record, long position);
+    }
+
+    /**
+     * Opens the history stored in the given directory, the directory is created if needed.
+     *
+     * @param dir the directory of the segment files.
+     * @throws IOException if the directory or a segment could not be opened.
+     */
+    public SessionHistory(Path dir) throws IOException {
+        this(dir, AppConstants.HISTORY_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Opens the history stored in the given directory, the directory is created if needed.
+     *
+     * @param dir the directory of the segment files.
+     * @param segmentRecords the number of records of a new segment, existing segments keep their size.
+     * @throws IOException if the directory or a segment could not be opened.
+     */
+    public SessionHistory(Path dir, int segmentRecords) throws IOException {
+        if (segmentRecords < HistorySegment.BLOCK_RECORDS) {
+            throw new IllegalArgumentException("A segment needs room for at least "
+                    + HistorySegment.BLOCK_RECORDS + " records");
+        }
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(dir);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        List<HistorySegment> opened = new ArrayList<>(files.size());
+        long records = 0;
+        for (Path file : files) {
+            HistorySegment segment = HistorySegment.open(file);
+            opened.add(segment);
+            records += segment.size();
+        }
+        this.segments = List.copyOf(opened);
+        this.size = records;
+        logger.debug("Opened session history with {} records in {} segments", records, opened.size());
+    }
+
+    /**
+     * Appends a record. It is visible to queries right away, but only written to disk by the operating system
+     * or by {@link SessionHistory#flush()}.
+     *
+     * @param record the record to append.
+     * @throws IOException if a new segment could not be created.
+     */
+    public synchronized void append(SessionRecord record) throws IOException {
+        if (closed) {
+            throw new IOException("The session history has been closed");
+        }
+        List<HistorySegment> current = segments;
+        HistorySegment last = current.isEmpty() ? null : current.getLast();
+        if (last == null || last.isFull()) {
+            if (last != null) {
+                last.force();
+            }
+            last = HistorySegment.create(dir.resolve(String.format("%s%08d%s",
+                    SEGMENT_PREFIX, current.size(), SEGMENT_SUFFIX)), segmentRecords);
+            List<HistorySegment> grown = new ArrayList<>(current);
+            grown.add(last);
+            segments = List.copyOf(grown);
+        }
+        last.append(record);
+        long position = size++;
+        if (!listeners.isEmpty()) {
+            for (Listener l : listeners) {
+                try {
+                    l.onAppended(record, position);
+                } catch (RuntimeException e) {
+                    logger.error("History listener failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a listener for appended records.
+     *
+     * @param listener the {@link Listener} to add.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the {@link Listener} to remove.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Passes all records from a position on to the action, in the order they were appended.
+     *
+     * @param position the position of the first record.
+     * @param action receives the records.
+     */
+    public void forEachFrom(long position, Consumer<? super SessionRecord> action) {
+        long skip = position;
+        for (HistorySegment s : segments) {
+            int n = s.size();
+            if (skip >= n) {
+                skip -= n;
+                continue;
+            }
+            s.forEach((int) skip, n, Long.MIN_VALUE, Long.MAX_VALUE, action);
+            skip = 0;
+        }
+    }
+
+    /**
+     * @return the number of records in the history.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the segments, e.g. to split a scan of the whole history between several threads.
+     *
+     * @return the segments in the order they were written, the last one may still grow.
+     */
+    public List<HistorySegment> segments() {
+        return segments;
+    }
+
+    /**
+     * Passes all records that started in the given range to the action, in the order they were appended.
+     *
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @param action receives the records.
+     */
+    public void forEach(long fromMillis, long toMillis, Consumer<? super SessionRecord> action) {
+        for (HistorySegment s : segments) {
+            s.forEach(fromMillis, toMillis, action);
+        }
+    }
+
+    /**
+     * Gets all records that started in the given range.
+     *
+     * @param fromMillis the start of the range in epoch millis, inclusive.
+     * @param toMillis the end of the range in epoch millis, exclusive.
+     * @return the records in the order they were appended.
+     */
+    public List<SessionRecord> query(long fromMillis, long toMillis) {
+        List<SessionRecord> result = new ArrayList<>();
+        forEach(fromMillis, toMillis, result::add);
+        return result;
+    }
+
+    /**
+     * Forces the records of the last segment to disk and stores its index.
+     *
+     * @throws IOException if the index could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        List<HistorySegment> current = segments;
+        if (!current.isEmpty()) {
+            current.getLast().force();
+        }
+    }
+
+    /**
+     * Flushes the history, later appends fail. The segments can still be queried.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.error("Could not flush session history: {}", e.getMessage());
+        }
+        closed = true;
+    }
+}
@@ -0,0 +1,105 @@
+package org.pomotimo.logic.history;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.pomotimo.logic.PomoState;
+
+/**
+ * A single focus or break phase that has been run, as stored in the {@link SessionHistory}.
+ * <p>On disk a record takes exactly {@link SessionRecord#BYTES} bytes: the start and end time, the preset and
+ * task id as two longs each, the phase, a flags byte and a commit marker that is written last.
+ * Ids that are not in UUID format are not stored.</p>
+ *
+ * @param startMillis the epoch millis at which the countdown of the phase was started.
+ * @param endMillis the epoch millis at which the phase ended or was abandoned.
+ * @param phase the phase.
+ * @param presetId the id of the preset the phase ran with, or {@code null}.
+ * @param taskId the uuid of the task that was worked on, or {@code null}.
+ * @param interrupted {@code true} if the phase was skipped or reset before its countdown ran out.
+ */
+public record SessionRecord(long startMillis, long endMillis, PomoState phase,
+                            String presetId, String taskId, boolean interrupted) {
+    /** The size of a stored record in bytes, a page of 4 KiB holds 64 records. */
+    public static final int BYTES = 64;
+
+    private static final PomoState[] PHASES = PomoState.values();
+    private static final int PHASE = 48;
+    private static final int FLAGS = 49;
+    private static final int MARKER = 60;
+    /* "POM1", a record without it has not been written completely */
+    private static final int COMMITTED = 0x504F4D31;
+    private static final int INTERRUPTED = 1;
+    private static final int HAS_PRESET = 2;
+    private static final int HAS_TASK = 4;
+
+    /**
+     * @return the time between start and end in millis.
+     */
+    public long durationMillis() {
+        return endMillis - startMillis;
+    }
+
+    /**
+     * Writes the record, the commit marker is written last.
+     *
+     * @param buffer the buffer to write into.
+     * @param offset the position of the record in the buffer.
+     */
+    void writeTo(ByteBuffer buffer, int offset) {
+        UUID preset = parse(presetId);
+        UUID task = parse(taskId);
+        buffer.putLong(offset, startMillis);
+        buffer.putLong(offset + 8, endMillis);
+        buffer.putLong(offset + 16, preset == null ? 0 : preset.getMostSignificantBits());
+        buffer.putLong(offset + 24, preset == null ? 0 : preset.getLeastSignificantBits());
+        buffer.putLong(offset + 32, task == null ? 0 : task.getMostSignificantBits());
+        buffer.putLong(offset + 40, task == null ? 0 : task.getLeastSignificantBits());
+        buffer.put(offset + PHASE, (byte) phase.ordinal());
+        buffer.put(offset + FLAGS, (byte) ((interrupted ? INTERRUPTED : 0)
+                | (preset != null ? HAS_PRESET : 0) | (task != null ? HAS_TASK : 0)));
+        buffer.putInt(offset + MARKER, COMMITTED);
+    }
+
+    /**
+     * Reads a record that has been written by {@link SessionRecord#writeTo(ByteBuffer, int)}.
+     *
+     * @param buffer the buffer to read from.
+     * @param offset the position of the record in the buffer.
+     * @return the record.
+     */
+    static SessionRecord readFrom(ByteBuffer buffer, int offset) {
+        int flags = buffer.get(offset + FLAGS);
+        String preset = (flags & HAS_PRESET) == 0 ? null
+                : new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24)).toString();
+        String task = (flags & HAS_TASK) == 0 ? null
+                : new UUID(buffer.getLong(offset + 32), buffer.getLong(offset + 40)).toString();
+        return new SessionRecord(buffer.getLong(offset), buffer.getLong(offset + 8),
+                PHASES[buffer.get(offset + PHASE)], preset, task, (flags & INTERRUPTED) != 0);
+    }
+
+    /**
+     * @return the start time of the record at the given position, without decoding the rest of it.
+     */
+    static long startAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    /**
+     * @return {@code true} if the record at the given position has been written completely.
+     */
+    static boolean isCommitted(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + MARKER) == COMMITTED;
+    }
+
+    private static UUID parse(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.pomotimo.logic.history;
+
+import java.io.IOException;
+
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.PomodoroEngine;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.preset.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends a {@link SessionRecord} to a {@link SessionHistory} for every phase a {@link PomodoroEngine} runs.
+ * <p>A phase starts when its countdown is started for the first time, pauses count as part of the phase.
+ * A phase whose countdown runs out is recorded when it finishes. A started phase that is skipped, reset or left
+ * by resetting the cycle is recorded as interrupted. The current preset and its focus target, see
+ * {@link PresetManager#getFocusTask()}, are taken when the phase starts.</p>
+ */
+public class SessionRecorder implements PomodoroEngine.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRecorder.class);
+
+    private final PomodoroEngine engine;
+    private final SessionHistory history;
+    private final PresetManager presetManager;
+    /* Epoch millis at which the current phase was started, 0 while it has not been started */
+    private long startedAt;
+    private PomoState phase;
+    private String presetId;
+    private String taskId;
+
+    /**
+     * Creates a recorder, it still has to be added as a listener to the engine.
+     *
+     * @param engine the engine whose phases are recorded.
+     * @param history the history to append to.
+     * @param presetManager provides the current preset and task.
+     */
+    public SessionRecorder(PomodoroEngine engine, SessionHistory history, PresetManager presetManager) {
+        this.engine = engine;
+        this.history = history;
+        this.presetManager = presetManager;
+    }
+
+    @Override
+    public synchronized void onStarted(PomoState state) {
+        if (startedAt == 0) {
+            begin(state);
+        }
+    }
+
+    @Override
+    public synchronized void onPhaseFinished(PomoState finished) {
+        if (startedAt != 0) {
+            record(false);
+        }
+    }
+
+    @Override
+    public synchronized void onPhaseChanged(PomoState state, int cycle, int durationSeconds) {
+        if (startedAt != 0) {
+            record(true);
+        }
+        /* a skip keeps the countdown running, so the next phase starts right away */
+        if (engine.isRunning()) {
+            begin(state);
+        }
+    }
+
+    @Override
+    public synchronized void onPhaseReset(PomoState state) {
+        if (startedAt != 0) {
+            record(true);
+        }
+    }
+
+    private void begin(PomoState state) {
+        startedAt = System.currentTimeMillis();
+        phase = state;
+        presetId = presetManager.getCurrentPreset().map(Preset::getId).orElse(null);
+        taskId = presetManager.getFocusTask().map(Task::getUUId).orElse(null);
+    }
+
+    private void record(boolean interrupted) {
+        SessionRecord record = new SessionRecord(startedAt, System.currentTimeMillis(), phase,
+                presetId, taskId, interrupted);
+        startedAt = 0;
+        try {
+            history.append(record);
+        } catch (IOException e) {
+            logger.error("Could not record {} phase: {}", record.phase(), e.getMessage());
+        }
+    }
+}
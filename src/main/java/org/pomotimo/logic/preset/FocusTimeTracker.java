@@ -0,0 +1,121 @@
+package org.pomotimo.logic.preset;
+
+import java.util.concurrent.TimeUnit;
+
+import org.pomotimo.logic.ClockSource;
+import org.pomotimo.logic.HashedWheelClock;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.PomodoroEngine;
+
+/**
+ * Counts the time a focus phase is running for the focus target of the {@link PresetManager},
+ * see {@link PresetManager#getFocusTask()}.
+ * <p>Only running time counts: the time is added to the task whenever the countdown of a focus phase stops,
+ * because it is paused, finished, skipped or reset. When another task becomes the focus target while the
+ * countdown runs, the time so far goes to the previous task.</p>
+ * <p>The tracker has to be registered with the engine and with the preset manager. It never calls the preset
+ * manager while holding its own lock, so it may be called while the manager holds its lock.</p>
+ */
+public class FocusTimeTracker implements PomodoroEngine.Listener, PresetManager.Listener {
+    private final PomodoroEngine engine;
+    private final PresetManager presetManager;
+    private final ClockSource clock;
+    private boolean running;
+    private long runningSince;
+    private Preset preset;
+    private Task task;
+
+    /**
+     * Creates a tracker that measures time with the application wide {@link HashedWheelClock#shared()} clock.
+     *
+     * @param engine the engine whose focus phases are counted.
+     * @param presetManager provides the focus target and stores the focus time.
+     */
+    public FocusTimeTracker(PomodoroEngine engine, PresetManager presetManager) {
+        this(engine, presetManager, HashedWheelClock.shared());
+    }
+
+    /**
+     * @param engine the engine whose focus phases are counted.
+     * @param presetManager provides the focus target and stores the focus time.
+     * @param clock the clock the running time is measured with, usually the clock of the engine.
+     */
+    public FocusTimeTracker(PomodoroEngine engine, PresetManager presetManager, ClockSource clock) {
+        this.engine = engine;
+        this.presetManager = presetManager;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onStarted(PomoState state) {
+        if (state == PomoState.FOCUS) {
+            begin(presetManager.getCurrentPreset().orElse(null), presetManager.getFocusTask().orElse(null));
+        }
+    }
+
+    @Override
+    public void onPaused(PomoState state) {
+        credit();
+    }
+
+    @Override
+    public void onPhaseFinished(PomoState finished) {
+        credit();
+    }
+
+    @Override
+    public void onPhaseReset(PomoState state) {
+        credit();
+    }
+
+    @Override
+    public void onPhaseChanged(PomoState state, int cycle, int durationSeconds) {
+        credit();
+        /* a skip keeps the countdown running */
+        if (state == PomoState.FOCUS && engine.isRunning()) {
+            begin(presetManager.getCurrentPreset().orElse(null), presetManager.getFocusTask().orElse(null));
+        }
+    }
+
+    @Override
+    public void onEvent(PresetEvent event) {
+        if (event instanceof PresetEvent.FocusTaskChanged e) {
+            boolean wasRunning;
+            synchronized (this) {
+                wasRunning = running;
+            }
+            if (wasRunning) {
+                credit();
+                begin(e.preset(), e.task());
+            }
+        }
+    }
+
+    private synchronized void begin(Preset p, Task t) {
+        if (running) {
+            return;
+        }
+        running = true;
+        runningSince = clock.nanoTime();
+        preset = p;
+        task = t;
+    }
+
+    private void credit() {
+        Preset p;
+        Task t;
+        long millis;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            millis = TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - runningSince);
+            p = preset;
+            t = task;
+        }
+        if (p != null && t != null) {
+            presetManager.addFocusTime(p, t, millis);
+        }
+    }
+}
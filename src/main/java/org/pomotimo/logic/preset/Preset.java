@@ -1,9 +1,9 @@
 package org.pomotimo.logic.preset;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.pomotimo.logic.audio.AudioData;
 import org.pomotimo.logic.config.AppConstants;
@@ -17,6 +17,10 @@ import org.slf4j.LoggerFactory;
  */
 public class Preset {
     private static final Logger logger = LoggerFactory.getLogger(Preset.class);
+    /**
+     * Stable identifier of the preset, it does not change when the preset is renamed or edited.
+     */
+    private String id;
     private String name;
     /* Durations in seconds */
     private int durationFocus;
@@ -25,15 +29,22 @@ public class Preset {
     private int cycleAmount;
 
     private String imageFile;
-    private final ArrayList<Task> tasks;
+    private final TaskList tasks;
     private AudioData currentAudio;
+    /* A preset read from the header file has no tasks until they are loaded, see PersistenceManager#loadTasks.
+     * Volatile so that a snapshot that sees the loaded flag also sees the loaded tasks. */
+    private volatile boolean tasksLoaded = true;
+    private int storedTaskCount;
+    /* Set when the task file could not be read, the file is then never overwritten, see attachUnreadableTasks */
+    private volatile boolean tasksUnreadable;
 
 
     /**
      * No-arg constructor for Gson deserialization.
+     * The id is left empty so that presets from files without ids can be detected, see {@link Preset#assignNewId()}.
      */
     public Preset() {
-        this.tasks = new ArrayList<>();
+        this.tasks = new TaskList();
     }
 
     /**
@@ -47,6 +58,7 @@ public class Preset {
      */
     public Preset(String name, int durationFocus, int durationShortBreak,
                   int durationLongBreak, String imageFile, int cycleAmount, AudioData currentAudio, ArrayList<Task> tasks) {
+        this.id = UUID.randomUUID().toString();
         this.name = name;
         this.durationFocus = durationFocus;
         this.durationShortBreak = durationShortBreak;
@@ -54,6 +66,26 @@ public class Preset {
         this.imageFile = imageFile;
         this.cycleAmount = cycleAmount;
         this.currentAudio = currentAudio;
+        this.tasks = new TaskList();
+        this.tasks.setAll(tasks);
+    }
+
+    /**
+     * Construct a copy of a preset with the given task list, see {@link Preset#copyWith} and {@link Preset#snapshot()}.
+     */
+    private Preset(Preset source, String name, int durationFocus, int durationShortBreak,
+                   int durationLongBreak, int cycleAmount, AudioData currentAudio, TaskList tasks) {
+        this.id = source.id;
+        this.name = name;
+        this.durationFocus = durationFocus;
+        this.durationShortBreak = durationShortBreak;
+        this.durationLongBreak = durationLongBreak;
+        this.imageFile = source.imageFile;
+        this.cycleAmount = cycleAmount;
+        this.currentAudio = currentAudio;
+        this.storedTaskCount = source.storedTaskCount;
+        this.tasksLoaded = source.tasksLoaded;
+        this.tasksUnreadable = source.tasksUnreadable;
         this.tasks = tasks;
     }
 
@@ -65,14 +97,15 @@ public class Preset {
      * @param durationLongBreak duration in seconds of a big break
     */
     public Preset(String name, int durationFocus, int durationShortBreak, int durationLongBreak, int cycleAmount) {
+        this.id = UUID.randomUUID().toString();
         this.name = name;
         this.durationFocus = durationFocus;
         this.durationShortBreak = durationShortBreak;
         this.durationLongBreak = durationLongBreak;
         this.cycleAmount = cycleAmount;
         this.imageFile = null;
-        this.currentAudio = PersistenceManager.readOnlyAudioDataList.getFirst();
-        this.tasks = new ArrayList<>();
+        this.currentAudio = PersistenceManager.getAudioDataList().getFirst();
+        this.tasks = new TaskList();
     }
 
     /**
@@ -80,17 +113,43 @@ public class Preset {
      * @param name name of the preset (must be provided)
      */
     public Preset(String name) {
+        this.id = UUID.randomUUID().toString();
         this.name = name;
         this.durationFocus = AppConstants.DEFAULT_FOCUS_TIME;
         this.durationShortBreak = AppConstants.DEFAULT_SHORT_BREAK;
         this.durationLongBreak = AppConstants.DEFAULT_LONG_BREAK;
         this.cycleAmount = AppConstants.DEFAULT_CYCLE_AMOUNT;
         this.imageFile = null;
-        this.currentAudio = PersistenceManager.readOnlyAudioDataList.getFirst();
-        this.tasks = new ArrayList<>();
+        this.currentAudio = PersistenceManager.getAudioDataList().getFirst();
+        this.tasks = new TaskList();
     }
 
     // --- Getters & Setters ---
+    /**
+     * Gets the stable id of the preset.
+     * @return The id in standard UUID format, or {@code null} for a preset loaded from a file without ids.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gives the preset a new random id, e.g. after it has been imported or loaded from a file without ids.
+     * @return this preset.
+     */
+    public Preset assignNewId() {
+        this.id = UUID.randomUUID().toString();
+        return this;
+    }
+
+    /**
+     * Restores the id of a preset that has been read from disk, see {@link PresetTypeAdapter}.
+     * @param id the stored id, may be {@code null} for files without ids.
+     */
+    void setId(String id) {
+        this.id = id;
+    }
+
     /**
      * Gets the name of the preset.
      * @return The name of the preset.
@@ -212,38 +271,94 @@ public class Preset {
 
     /**
      * Gets the number of tasks associated with this preset.
-     * @return The total count of tasks.
+     * @return The total count of tasks, also if the tasks have not been loaded yet.
      */
     public int getTaskAmount() {
-        return tasks.size();
+        return tasksLoaded ? tasks.size() : storedTaskCount;
+    }
+
+    /**
+     * Checks whether the task list of this preset is in memory.
+     * @return {@code false} if only the header of the preset has been loaded, {@code true} otherwise.
+     */
+    public boolean isTasksLoaded() {
+        return tasksLoaded;
+    }
+
+    /**
+     * Sets the tasks of a preset that has been loaded without them.
+     * @param loaded the tasks read from disk.
+     */
+    public void attachTasks(List<Task> loaded) {
+        tasks.setAll(loaded);
+        tasksUnreadable = false;
+        tasksLoaded = true;
+    }
+
+    /**
+     * Gives a preset whose stored tasks could not be read an empty task list, so that it can still be used.
+     * The stored task count is kept and the task file must not be overwritten, see {@link Preset#isTasksUnreadable()}.
+     */
+    public void attachUnreadableTasks() {
+        tasks.clear();
+        tasksUnreadable = true;
+        tasksLoaded = true;
+    }
+
+    /**
+     * Checks whether the stored tasks of this preset could not be read. Its task list in memory is not the
+     * stored one then, so it must not replace the task file.
+     * @return {@code true} if the task file was unreadable or missing.
+     */
+    public boolean isTasksUnreadable() {
+        return tasksUnreadable;
+    }
+
+    /**
+     * Gets the number of tasks to store in the preset header. For a preset with unreadable tasks this is the
+     * count of the task file on disk, not of the tasks in memory.
+     * @return the task count of the header.
+     */
+    int getStoredTaskAmount() {
+        return tasksUnreadable ? storedTaskCount : getTaskAmount();
+    }
+
+    /**
+     * Marks the preset as header only, its tasks are stored separately and loaded on demand.
+     * @param taskCount the number of stored tasks.
+     */
+    void markTasksUnloaded(int taskCount) {
+        tasks.clear();
+        storedTaskCount = taskCount;
+        tasksLoaded = false;
     }
 
     /**
      * Gets the list of tasks associated with this preset.
-     * @return The list of {@link Task} objects.
+     * @return A read-only view of the {@link Task} objects, ordered by priority.
+     * Use {@link Preset#addTask}, {@link Preset#removeTask} and {@link Preset#moveTask} to change it.
      */
     public List<Task> getTasks() {
-        return tasks;
+        return tasks.view();
     }
 
     /**
      * Sorts the tasklist according to their priority.
+     * The tasks are always kept in this order, this is only needed after priorities have been changed
+     * with {@link Task#setPriority(int)}.
      */
     public void sortTasks() {
-        tasks.sort(Comparator.comparingInt(Task::getPriority));
+        tasks.setAll(List.copyOf(tasks.view()));
     }
     /**
      * Add a task to the preset. See {@link Task} for more information.
+     * The task is appended after the task with the lowest priority, its priority is raised if necessary.
      * @param t Task that should be added to the preset.
      * @return {@code true} if the task has been added successfully, {@code false} otherwise.
      * {@code false} is an indicator that the task already exists in the presets task list.
      */
     public boolean addTask(Task t) {
-        if(!tasks.contains(t)){
-            tasks.add(t);
-            return true;
-        }
-        return false;
+        return tasks.add(t);
     }
 
     /**
@@ -255,20 +370,50 @@ public class Preset {
         return tasks.remove(t);
     }
 
+    /**
+     * Moves a task to a new position in the priority order.
+     * Usually only the priority of the moved task changes, see {@link TaskList}.
+     * @param t the task to move.
+     * @param newIndex the new position, {@code 0} is the highest priority.
+     * @return {@code true} if the task is part of this preset and has been moved, {@code false} otherwise.
+     */
+    public boolean moveTask(Task t, int newIndex) {
+        return tasks.move(t, newIndex);
+    }
+
+    /**
+     * Finds the position of a task without searching the whole list, see {@link TaskList}.
+     * @param t the task.
+     * @return the position of the task in {@link Preset#getTasks()}, or {@code -1} if it is not part of the preset.
+     */
+    int indexOfTask(Task t) {
+        return tasks.indexOfTask(t);
+    }
+
     public Optional<Task> getTaskByUUID(String uuid) {
-        for (Task task : tasks) {
-            if (task.getUUId().equals(uuid))
-                return Optional.of(task);
-        }
-        return Optional.empty();
+        return tasks.get(uuid);
     }
 
     public Preset copyWith(String name, int focusSecs,
                            int shortBrSecs, int longBrSecs,
                            int cycleAmount,
                            AudioData currentAudio) {
-        return new Preset(name, focusSecs,
-                shortBrSecs, longBrSecs, this.imageFile, cycleAmount, currentAudio, this.tasks);
+        return new Preset(this, name, focusSecs, shortBrSecs, longBrSecs, cycleAmount, currentAudio, this.tasks);
+    }
+
+    /**
+     * Gets an immutable copy of the preset, e.g. for saving it while its tasks are being edited.
+     * The copy holds the last published version of the task list, see {@link TaskVector}. Taking it
+     * does not copy the tasks and does not need a lock, so it may be called from any thread.
+     * @return a copy of this preset whose tasks cannot be changed.
+     */
+    public Preset snapshot() {
+        /* read the flag first, the tasks are published before it is set, see attachTasks */
+        boolean loaded = tasksLoaded;
+        Preset copy = new Preset(this, name, durationFocus, durationShortBreak, durationLongBreak, cycleAmount,
+                currentAudio, tasks.snapshot());
+        copy.tasksLoaded = loaded;
+        return copy;
     }
 
     /**
@@ -306,6 +451,6 @@ public class Preset {
                 && p.getCycleAmount() == cycleAmount
                 //&& p.getImageFile().equals(imageFile) --> not used yet
                 && p.getCurrentAudio().equals(currentAudio)
-                && tasks.containsAll(p.getTasks());
+                && p.getTasks().stream().allMatch(tasks::contains);
     }
 }
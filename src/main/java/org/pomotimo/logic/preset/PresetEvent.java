@@ -0,0 +1,88 @@
+package org.pomotimo.logic.preset;
+
+import java.util.List;
+
+/**
+ * A single change of the presets of a {@link PresetManager}.
+ * <p>Views apply the event to the rows they show instead of rebuilding them,
+ * see {@link PresetManager#addListener(PresetManager.Listener)}. Positions are the positions in
+ * {@link PresetManager#getPresets()} and {@link Preset#getTasks()} right after the change.</p>
+ */
+public sealed interface PresetEvent {
+
+    /**
+     * All presets have been replaced, e.g. after loading them or clearing the manager.
+     *
+     * @param presets the new presets.
+     */
+    record PresetsReset(List<Preset> presets) implements PresetEvent {}
+
+    /**
+     * @param preset the added preset.
+     * @param index the position of the preset.
+     */
+    record PresetAdded(Preset preset, int index) implements PresetEvent {}
+
+    /**
+     * @param preset the removed preset.
+     */
+    record PresetRemoved(Preset preset) implements PresetEvent {}
+
+    /**
+     * A preset has been replaced with an edited copy at the same position.
+     *
+     * @param old the preset before the edit.
+     * @param updated the edited copy.
+     */
+    record PresetUpdated(Preset old, Preset updated) implements PresetEvent {
+
+        /**
+         * @return {@code true} if the name of the preset has changed.
+         */
+        public boolean renamed() {
+            return !old.getName().equals(updated.getName());
+        }
+    }
+
+    /**
+     * @param preset the preset the task has been added to.
+     * @param task the added task.
+     * @param index the position of the task.
+     */
+    record TaskInserted(Preset preset, Task task, int index) implements PresetEvent {}
+
+    /**
+     * @param preset the preset the task has been removed from.
+     * @param task the removed task.
+     * @param index the position the task had.
+     */
+    record TaskRemoved(Preset preset, Task task, int index) implements PresetEvent {}
+
+    /**
+     * @param preset the preset that contains the task.
+     * @param task the moved task.
+     * @param from the old position of the task.
+     * @param to the new position of the task.
+     */
+    record TaskMoved(Preset preset, Task task, int from, int to) implements PresetEvent {}
+
+    /**
+     * Another task of the current preset has been chosen as the focus target,
+     * see {@link PresetManager#setFocusTask(Task)}.
+     *
+     * @param preset the current preset.
+     * @param task the new focus target, or {@code null} if the preset has no tasks.
+     * @param previous the previous focus target, or {@code null}.
+     */
+    record FocusTaskChanged(Preset preset, Task task, Task previous) implements PresetEvent {}
+
+    /**
+     * Focus time has been added to a task, see {@link Task#getFocusMillis()}.
+     *
+     * @param preset the preset that contains the task.
+     * @param task the task.
+     * @param index the position of the task.
+     * @param millis the added focus time.
+     */
+    record FocusTimeAdded(Preset preset, Task task, int index, long millis) implements PresetEvent {}
+}
@@ -1,9 +1,13 @@
 package org.pomotimo.logic.preset;
 
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -13,6 +17,9 @@ import org.pomotimo.gui.state.AppState;
 import org.pomotimo.gui.state.TaskViewState;
 import org.pomotimo.gui.state.TimerViewState;
 import org.pomotimo.logic.audio.AlarmPlayer;
+import org.pomotimo.logic.audio.ClipCache;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.utils.JournalRecord;
 import org.pomotimo.logic.utils.PersistenceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,17 +28,41 @@ import org.slf4j.LoggerFactory;
  * Manages the collection of user presets, handling loading, saving, and modification.
  * This class uses a persistence manager to handle disk I/O and schedules save operations
  * to avoid excessive writes.
+ * <p>Task edits and preset edits are appended to the journal instead of rewriting the presets file,
+ * the journal is folded into a new snapshot once it exceeds {@link AppConstants#JOURNAL_COMPACTION_BYTES}.</p>
+ * <p>Every change is published as a {@link PresetEvent}, so that views can update only the affected rows.</p>
  */
 public class PresetManager {
-    private List<Preset> presets;
+    private final PresetRegistry presets = new PresetRegistry();
     private Preset currentPreset;
+    /* The task of the current preset that focus time is counted for, null for the top task */
+    private Task focusTask;
     private final PersistenceManager persistenceManager;
     private final AlarmPlayer player;
     private final AppState appState;
     private static final Logger logger = LoggerFactory.getLogger(PresetManager.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private ScheduledFuture<?> pendingSave;
+    private CompletableFuture<Void> presetsLoaded;
+    /* Most recently used presets first, their alarm sounds are kept in the clip cache */
+    private final Deque<Preset> recentPresets = new ArrayDeque<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives the changes of the presets.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a change has been applied, on the thread that made it. Presets are loaded on a
+         * background thread, task and preset edits usually come from the JavaFX application thread.
+         *
+         * @param event the change.
+         */
+        void onEvent(PresetEvent event);
+    }
 
     /**
      * Default constructor that creates a PresetManager instance and initializes the list of presets
@@ -39,7 +70,6 @@ public class PresetManager {
      */
     public PresetManager(AppState appState) {
         this.appState = appState;
-        this.presets = new ArrayList<>();
         this.persistenceManager = new PersistenceManager();
         this.player = new AlarmPlayer();
         loadPresetsAsync();
@@ -47,22 +77,43 @@ public class PresetManager {
 
     /**
      * Loads presets asynchronously from the persistence layer.
+     * Only the preset headers are read, the task list of a preset is loaded when it becomes the current one.
      * On completion, it updates the internal list and sets the first loaded preset as the current one.
      */
     public void loadPresetsAsync() {
-        scheduler.submit(() -> {
+        presetsLoaded = CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
             List<Preset> loaded = persistenceManager.loadPresets();
             synchronized (this) {
-                this.presets = loaded;
+                presets.setAll(loaded);
                 if (hasPresets()) {
-                    setCurrentPreset(presets.getFirst());
-                    appState.setCurrentPreset(presets.getFirst());
+                    setCurrentPreset(loaded.getFirst());
+                    appState.setCurrentPreset(loaded.getFirst());
                     appState.setTimerViewState(TimerViewState.TIMER);
                     appState.setTaskViewState(TaskViewState.TASKLIST);
                 }
             }
-            logger.debug("Presets loaded successfully.");
-        });
+            publish(new PresetEvent.PresetsReset(presets.getAll()));
+            logger.debug("Presets loaded successfully in {} ms.", (System.nanoTime() - start) / 1_000_000);
+        }, scheduler);
+    }
+
+    /**
+     * Gets the future of the last {@link PresetManager#loadPresetsAsync()} call.
+     *
+     * @return a future that completes when the presets have been loaded.
+     */
+    public CompletableFuture<Void> presetsLoaded() {
+        return presetsLoaded;
+    }
+
+    /**
+     * Decodes the alarm sound of the current preset in the background, after the presets have been loaded.
+     *
+     * @return a future that completes when the sound is ready to play.
+     */
+    public CompletableFuture<Void> preloadAlarmAsync() {
+        return player.preloadAsync();
     }
 
     /**
@@ -79,17 +130,161 @@ public class PresetManager {
 
     /**
      * Performs the actual save operation by writing the current list of presets to disk.
+     * The snapshot contains all journaled mutations, so the journal is cleared afterwards.
      * This method is intended to be called by the internal scheduler.
+     * <p>Immutable snapshots of the presets are written, see {@link Preset#snapshot()}, so edits on other
+     * threads neither wait for the save nor change the presets while they are written.</p>
      */
     private void savePresetsSafe() {
         try {
-            persistenceManager.savePresets(List.copyOf(this.presets));
-            logger.info("Presets saved successfully.");
+            List<Preset> snapshot = presets.getAll().stream().map(Preset::snapshot).toList();
+            if (persistenceManager.compact(snapshot)) {
+                logger.info("Presets saved successfully.");
+            }
         } catch (Exception e) {
             logger.error("Failed to save presets. {}", e.getMessage());
         }
     }
 
+    /**
+     * Appends a mutation to the journal on the internal scheduler.
+     * A full save is scheduled instead if the journal cannot be written, and the journal is compacted
+     * once it has grown past {@link AppConstants#JOURNAL_COMPACTION_BYTES}.
+     *
+     * @param record the mutation that has been applied to the presets in memory.
+     */
+    private void journal(JournalRecord record) {
+        scheduler.execute(() -> {
+            long size = persistenceManager.appendToJournal(record);
+            if (size < 0) {
+                scheduleSave();
+            } else if (size > AppConstants.JOURNAL_COMPACTION_BYTES) {
+                logger.debug("Compacting journal of {} bytes", size);
+                savePresetsSafe();
+            }
+        });
+    }
+
+    /* --- Utility Methods that append to the journal --- */
+
+    /**
+     * Adds a task to a preset and records it in the journal.
+     *
+     * @param p The {@link Preset} the task is added to.
+     * @param t The {@link Task} to add.
+     * @return {@code true} if the task has been added, {@code false} if the preset already contains it.
+     */
+    public boolean addTask(Preset p, Task t) {
+        int index = -1;
+        Task focusBefore;
+        Task focusAfter;
+        synchronized (this) {
+            focusBefore = getFocusTask().orElse(null);
+            if (p.addTask(t)) {
+                index = p.indexOfTask(t);
+            }
+            focusAfter = getFocusTask().orElse(null);
+        }
+        if (index < 0) {
+            return false;
+        }
+        journal(JournalRecord.addTask(p, t));
+        publish(new PresetEvent.TaskInserted(p, t, index));
+        publishFocusChange(p, focusBefore, focusAfter);
+        return true;
+    }
+
+    /**
+     * Removes a task from a preset and records it in the journal.
+     *
+     * @param p The {@link Preset} the task is removed from.
+     * @param t The {@link Task} to remove.
+     * @return {@code true} if the task has been removed, {@code false} otherwise.
+     */
+    public boolean removeTask(Preset p, Task t) {
+        int index;
+        Task focusBefore;
+        Task focusAfter;
+        synchronized (this) {
+            focusBefore = getFocusTask().orElse(null);
+            index = p.indexOfTask(t);
+            if (index >= 0) {
+                p.removeTask(t);
+                if (p == currentPreset && focusTask != null && p.indexOfTask(focusTask) < 0) {
+                    focusTask = null;
+                }
+            }
+            focusAfter = getFocusTask().orElse(null);
+        }
+        if (index < 0) {
+            return false;
+        }
+        journal(JournalRecord.removeTask(p, t));
+        publish(new PresetEvent.TaskRemoved(p, t, index));
+        publishFocusChange(p, focusBefore, focusAfter);
+        return true;
+    }
+
+    /**
+     * Moves a task of a preset to a new position and records it in the journal.
+     * See {@link Preset#moveTask(Task, int)}.
+     *
+     * @param p The {@link Preset} that contains the task.
+     * @param t The {@link Task} to move.
+     * @param newIndex The new position of the task.
+     * @return {@code true} if the task has been moved, {@code false} otherwise.
+     */
+    public boolean moveTask(Preset p, Task t, int newIndex) {
+        int from;
+        int to = -1;
+        Task focusBefore;
+        Task focusAfter;
+        synchronized (this) {
+            focusBefore = getFocusTask().orElse(null);
+            from = p.indexOfTask(t);
+            if (from >= 0 && p.moveTask(t, newIndex)) {
+                to = p.indexOfTask(t);
+            }
+            focusAfter = getFocusTask().orElse(null);
+        }
+        if (to < 0) {
+            return false;
+        }
+        journal(JournalRecord.moveTask(p, t, newIndex));
+        publish(new PresetEvent.TaskMoved(p, t, from, to));
+        publishFocusChange(p, focusBefore, focusAfter);
+        return true;
+    }
+
+    /**
+     * Publishes a {@link PresetEvent.FocusTaskChanged} if a change of a task list moved the focus target,
+     * e.g. because the top task changed while no task has been chosen, or the chosen task was removed.
+     */
+    private void publishFocusChange(Preset p, Task before, Task after) {
+        if (before != after) {
+            publish(new PresetEvent.FocusTaskChanged(p, after, before));
+        }
+    }
+
+    /**
+     * Replaces a preset with an edited copy, keeping its position in the list.
+     * An edit of a managed preset is recorded in the journal, an unknown preset is added like with
+     * {@link PresetManager#addPreset(Preset)}.
+     *
+     * @param old The {@link Preset} that has been edited.
+     * @param updated The edited copy, see {@link Preset#copyWith}.
+     */
+    public void updatePreset(Preset old, Preset updated) {
+        boolean replaced = presets.replace(old, updated);
+        int index = replaced ? -1 : presets.add(updated);
+        if (replaced && updated.getId().equals(old.getId())) {
+            journal(JournalRecord.editPreset(updated));
+        } else {
+            scheduleSave();
+        }
+        publish(replaced ? new PresetEvent.PresetUpdated(old, updated) : new PresetEvent.PresetAdded(updated, index));
+    }
+
     /* --- Utility Methods that trigger saving --- */
 
     /**
@@ -98,10 +293,9 @@ public class PresetManager {
      * @param p The {@link Preset} to add.
      */
     public void addPreset(Preset p) {
-        synchronized (this) {
-            presets.add(p);
-        }
+        int index = presets.add(p);
         scheduleSave();
+        publish(new PresetEvent.PresetAdded(p, index));
     }
 
     /**
@@ -112,12 +306,13 @@ public class PresetManager {
      * @return {@code true} if a preset was successfully removed, {@code false} otherwise.
      */
     public boolean removePreset(String name) {
-        boolean removed;
-        synchronized (this) {
-            removed = presets.removeIf(p -> p.getName().equalsIgnoreCase(name));
+        List<Preset> removed = presets.removeByName(name);
+        if (removed.isEmpty()) {
+            return false;
         }
-        if (removed) scheduleSave();
-        return removed;
+        scheduleSave();
+        removed.forEach(p -> publish(new PresetEvent.PresetRemoved(p)));
+        return true;
     }
 
     /**
@@ -131,17 +326,28 @@ public class PresetManager {
     public boolean removePreset(Preset p) {
         logger.debug("Size of preset list: {}", presets.size());
         boolean removed;
+        Task focusBefore;
+        Task focusAfter;
+        Preset current;
         synchronized (this) {
             logger.debug("Removing preset: {}", p);
+            focusBefore = getFocusTask().orElse(null);
             removed = presets.remove(p);
             if(p.equals(currentPreset)) {
-                currentPreset = null;
-                if(!presets.isEmpty()) {
-                    currentPreset = presets.getFirst();
+                currentPreset = presets.first().orElse(null);
+                focusTask = null;
+                if (currentPreset != null) {
+                    ensureTasksLoaded(currentPreset);
                 }
             }
+            focusAfter = getFocusTask().orElse(null);
+            current = currentPreset;
+        }
+        if (removed) {
+            scheduleSave();
+            publish(new PresetEvent.PresetRemoved(p));
+            publishFocusChange(current != null ? current : p, focusBefore, focusAfter);
         }
-        if (removed) scheduleSave();
         return removed;
     }
 
@@ -153,10 +359,37 @@ public class PresetManager {
      * Removes all presets from the manager and schedules a save operation.
      */
     public void clear() {
-        synchronized (this) {
-            presets.clear();
-        }
+        presets.clear();
         scheduleSave();
+        publish(new PresetEvent.PresetsReset(List.of()));
+    }
+
+    /**
+     * Registers a listener for the changes of the presets.
+     *
+     * @param listener the {@link Listener} to add.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the {@link Listener} to remove.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish(PresetEvent event) {
+        for (Listener l : listeners) {
+            try {
+                l.onEvent(event);
+            } catch (RuntimeException e) {
+                logger.error("Preset listener failed on {}", event, e);
+            }
+        }
     }
 
     /**
@@ -173,7 +406,9 @@ public class PresetManager {
      * @param newPath the new audio path (absolute).
      */
     public void refreshPlayerAudioPath(String newPath) {
-        player.setSoundPath(Paths.get(newPath).toUri().toString());
+        if (player.setSoundPath(Paths.get(newPath).toUri().toString())) {
+            player.preloadAsync();
+        }
     }
 
     /**
@@ -214,12 +449,22 @@ public class PresetManager {
     /* --- Other Utility Methods --- */
 
     /**
-     * Gets an immutable copy of the list of all managed presets.
+     * Gets the list of all managed presets. The list is a snapshot, getting it does not copy or lock anything.
      *
      * @return An immutable {@link List} of {@link Preset} objects.
      */
-    public synchronized List<Preset> getPresets() {
-        return List.copyOf(presets);
+    public List<Preset> getPresets() {
+        return presets.getAll();
+    }
+
+    /**
+     * Finds a preset by its stable id.
+     *
+     * @param id The id of the preset, see {@link Preset#getId()}.
+     * @return An {@link Optional} containing the found {@link Preset}, or an empty Optional if no match is found.
+     */
+    public Optional<Preset> findPresetById(String id) {
+        return presets.findById(id);
     }
 
     /**
@@ -228,8 +473,8 @@ public class PresetManager {
      * @param name The name of the preset to find.
      * @return An {@link Optional} containing the found {@link Preset}, or an empty Optional if no match is found.
      */
-    public synchronized Optional<Preset> findPresetByName(String name) {
-        return presets.stream().filter(p -> p.getName().equalsIgnoreCase(name)).findFirst();
+    public Optional<Preset> findPresetByName(String name) {
+        return presets.findByName(name);
     }
 
     /**
@@ -237,7 +482,7 @@ public class PresetManager {
      *
      * @return {@code true} if there is at least one preset, {@code false} otherwise.
      */
-    public synchronized boolean hasPresets() {
+    public boolean hasPresets() {
         return !presets.isEmpty();
     }
 
@@ -246,7 +491,7 @@ public class PresetManager {
      *
      * @return The count of presets.
      */
-    public synchronized int getPresetCount() {
+    public int getPresetCount() {
         return presets.size();
     }
 
@@ -255,8 +500,8 @@ public class PresetManager {
      *
      * @return An {@link Optional} containing the first {@link Preset}, or an empty Optional if the list is empty.
      */
-    public synchronized Optional<Preset> getFirst() {
-        return presets.stream().findFirst();
+    public Optional<Preset> getFirst() {
+        return presets.first();
     }
 
     /**
@@ -268,31 +513,177 @@ public class PresetManager {
         return Optional.ofNullable(currentPreset);
     }
 
+    /**
+     * Loads the task list of a preset if only its header has been loaded so far.
+     *
+     * @param p The {@link Preset} whose tasks are needed, e.g. for displaying or exporting it.
+     */
+    public synchronized void ensureTasksLoaded(Preset p) {
+        if (!p.isTasksLoaded()) {
+            persistenceManager.loadTasks(p);
+        }
+    }
+
     /**
      * Sets the currently active preset.
+     * The task list of the preset is loaded if needed, the focus target goes back to its top task.
+     * If the preset is an edited version of the current preset, e.g. after {@link PresetManager#updatePreset},
+     * the chosen focus target is kept.
      *
      * @param pr The {@link Preset} to be set as the current one.
      */
-    public synchronized void setCurrentPreset(Preset pr) {
-        if (pr != currentPreset){
+    public void setCurrentPreset(Preset pr) {
+        Task previous;
+        Task next;
+        synchronized (this) {
+            if (pr == currentPreset) {
+                return;
+            }
+            previous = getFocusTask().orElse(null);
+            ensureTasksLoaded(pr);
+            boolean edited = currentPreset != null && currentPreset.getId().equals(pr.getId());
+            this.focusTask = edited && focusTask != null ? pr.getTaskByUUID(focusTask.getUUId()).orElse(null) : null;
             this.currentPreset = pr;
+            rememberRecentPreset(pr);
             String path = currentPreset.getCurrentAudio().filePath();
             refreshPlayerAudioPath(path);
+            next = getFocusTask().orElse(null);
         }
+        publish(new PresetEvent.FocusTaskChanged(pr, next, previous));
     }
 
     /**
-     * Shuts down the internal scheduler service.
+     * Gets the task of the current preset that focus time is counted for.
+     * Unless another task has been chosen, this is the task at the top of the list.
+     *
+     * @return the focus target, or an empty Optional if there is no current preset or it has no tasks.
+     */
+    public synchronized Optional<Task> getFocusTask() {
+        if (currentPreset == null) {
+            return Optional.empty();
+        }
+        if (focusTask != null && currentPreset.indexOfTask(focusTask) >= 0) {
+            return Optional.of(focusTask);
+        }
+        List<Task> tasks = currentPreset.getTasks();
+        return tasks.isEmpty() ? Optional.empty() : Optional.of(tasks.getFirst());
+    }
+
+    /**
+     * Chooses the task of the current preset that focus time is counted for.
+     *
+     * @param t a task of the current preset.
+     * @return {@code false} if the task is not in the current preset.
+     */
+    public boolean setFocusTask(Task t) {
+        Preset p;
+        Task own;
+        Task previous;
+        synchronized (this) {
+            if (currentPreset == null || t == null) {
+                return false;
+            }
+            own = currentPreset.getTaskByUUID(t.getUUId()).orElse(null);
+            if (own == null) {
+                return false;
+            }
+            previous = getFocusTask().orElse(null);
+            focusTask = own;
+            p = currentPreset;
+        }
+        if (own != previous) {
+            publish(new PresetEvent.FocusTaskChanged(p, own, previous));
+        }
+        return true;
+    }
+
+    /**
+     * Adds focus time to a task and schedules a save, the time is stored with the task list of the preset.
+     * Nothing happens if the task has been removed from the preset in the meantime.
+     *
+     * @param p the preset that contains the task.
+     * @param t the task that has been worked on.
+     * @param millis the focus time in millis.
+     */
+    public void addFocusTime(Preset p, Task t, long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        Task own;
+        int index;
+        synchronized (this) {
+            own = p.getTaskByUUID(t.getUUId()).orElse(null);
+            index = own == null ? -1 : p.indexOfTask(own);
+        }
+        if (index < 0) {
+            return;
+        }
+        own.addFocusMillis(millis);
+        scheduleSave();
+        publish(new PresetEvent.FocusTimeAdded(p, own, index, millis));
+    }
+
+    /**
+     * Moves a preset to the front of the recently used presets and keeps the alarm sounds of the others
+     * in the clip cache. The current sound is preloaded last, so it is the most recently used clip.
+     */
+    private void rememberRecentPreset(Preset pr) {
+        recentPresets.removeIf(p -> p == pr);
+        recentPresets.addFirst(pr);
+        while (recentPresets.size() > AppConstants.RECENT_PRESET_SOUNDS) {
+            recentPresets.removeLast();
+        }
+        Iterator<Preset> oldestFirst = recentPresets.descendingIterator();
+        while (oldestFirst.hasNext()) {
+            Preset recent = oldestFirst.next();
+            if (recent != pr && recent.getCurrentAudio() != null) {
+                player.preloadAsync(Paths.get(recent.getCurrentAudio().filePath()).toUri().toString());
+            }
+        }
+    }
+
+    /**
+     * Gets the counters of the alarm clip cache, e.g. for diagnostics.
+     *
+     * @return the hits, misses, evictions and resident bytes of the cache.
+     */
+    public ClipCache.Stats getAlarmCacheStats() {
+        return player.getCacheStats();
+    }
+
+    /**
+     * Shuts down the internal scheduler service and flushes the session history.
      * This method should be called upon application exit to ensure a clean shutdown.
+     * <p>The journal appends that are still queued are written first, then the journal is folded into a
+     * final snapshot, if it has records or a save was pending, and closed.</p>
      */
     public void shutDownScheduler() {
         if (!scheduler.isShutdown()) {
+            boolean savePending;
+            synchronized (this) {
+                savePending = pendingSave != null && pendingSave.cancel(false);
+            }
+            scheduler.execute(() -> {
+                if (savePending || persistenceManager.hasJournalRecords()) {
+                    savePresetsSafe();
+                }
+            });
             scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Presets were not saved within {} seconds.", SHUTDOWN_TIMEOUT_SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        persistenceManager.closeJournal();
+        player.close();
+        PersistenceManager.closeSessionHistory();
     }
 
     /**
-     * Check if a preset is contained in the preset manager's preset list.
+     * Check if a preset with the id of the given preset is contained in the preset manager's preset list.
      * @return true if the preset manager contains the preset and false if not.
      */
     public boolean contains(Preset p) {
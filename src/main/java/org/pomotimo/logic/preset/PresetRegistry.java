@@ -0,0 +1,231 @@
+package org.pomotimo.logic.preset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The presets of a {@link PresetManager}, indexed by their stable id and by their normalized name.
+ * <p>Reads never lock: the ordered list of presets is an immutable snapshot that is replaced on every
+ * change, and the indexes are concurrent maps. Writers are serialized by the monitor of the registry.
+ * A reader may therefore see a change in the list slightly before or after it shows up in an index.</p>
+ * <p>Names are not unique. A name lookup returns the preset that comes first in the list,
+ * like a case-insensitive search through the list would.</p>
+ */
+public class PresetRegistry {
+    private volatile List<Preset> snapshot = List.of();
+    private final Map<String, Preset> byId = new ConcurrentHashMap<>();
+    private final Map<String, List<Preset>> byName = new ConcurrentHashMap<>();
+
+    /**
+     * Normalizes a preset name for the name index.
+     *
+     * @param name the name of a preset.
+     * @return the key of the name in the index.
+     */
+    static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets all presets in the order they have been added.
+     *
+     * @return an immutable snapshot, it is not affected by later changes of the registry.
+     */
+    public List<Preset> getAll() {
+        return snapshot;
+    }
+
+    /**
+     * @return the number of presets.
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * @return {@code true} if there are no presets.
+     */
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    /**
+     * @return the first preset, or an empty optional if there are none.
+     */
+    public Optional<Preset> first() {
+        List<Preset> current = snapshot;
+        return current.isEmpty() ? Optional.empty() : Optional.of(current.getFirst());
+    }
+
+    /**
+     * Finds a preset by its id.
+     *
+     * @param id the id of the preset, see {@link Preset#getId()}.
+     * @return the preset, or an empty optional if there is none with this id.
+     */
+    public Optional<Preset> findById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Finds a preset by its name, ignoring case.
+     *
+     * @param name the name of the preset.
+     * @return the first preset with this name, or an empty optional.
+     */
+    public Optional<Preset> findByName(String name) {
+        List<Preset> matches = byName.get(normalize(name));
+        return matches == null || matches.isEmpty() ? Optional.empty() : Optional.of(matches.getFirst());
+    }
+
+    /**
+     * Checks if the registry contains a preset with the id of the given preset.
+     *
+     * @param p the preset to look for.
+     * @return {@code true} if the preset is registered.
+     */
+    public boolean contains(Preset p) {
+        return p != null && p.getId() != null && byId.containsKey(p.getId());
+    }
+
+    /**
+     * Replaces all presets, e.g. after loading them.
+     *
+     * @param presets the new presets.
+     */
+    public synchronized void setAll(List<Preset> presets) {
+        byId.clear();
+        byName.clear();
+        for (Preset p : presets) {
+            index(p);
+        }
+        snapshot = List.copyOf(presets);
+    }
+
+    /**
+     * Adds a preset at the end of the list.
+     *
+     * @param p the preset to add.
+     * @return the position of the added preset.
+     */
+    public synchronized int add(Preset p) {
+        List<Preset> next = new ArrayList<>(snapshot.size() + 1);
+        next.addAll(snapshot);
+        next.add(p);
+        index(p);
+        snapshot = List.copyOf(next);
+        return next.size() - 1;
+    }
+
+    /**
+     * Replaces a preset with another one at the same position, e.g. an edited copy.
+     *
+     * @param old the registered preset.
+     * @param updated the preset that takes its place.
+     * @return {@code true} if the old preset has been replaced, {@code false} if it is not registered.
+     */
+    public synchronized boolean replace(Preset old, Preset updated) {
+        int index = indexOf(old);
+        if (index < 0) {
+            return false;
+        }
+        List<Preset> next = new ArrayList<>(snapshot);
+        next.set(index, updated);
+        unindex(old);
+        index(updated);
+        snapshot = List.copyOf(next);
+        /* the name list of the updated preset has to follow the order of the presets again */
+        reorderName(updated.getName(), next);
+        return true;
+    }
+
+    /**
+     * Removes a preset.
+     *
+     * @param p the preset to remove, it is matched by identity or, if not found, by its id.
+     * @return {@code true} if the preset has been removed.
+     */
+    public synchronized boolean remove(Preset p) {
+        int index = indexOf(p);
+        if (index < 0 && p != null && p.getId() != null) {
+            Preset registered = byId.get(p.getId());
+            index = registered == null ? -1 : indexOf(registered);
+        }
+        if (index < 0) {
+            return false;
+        }
+        List<Preset> next = new ArrayList<>(snapshot);
+        Preset removed = next.remove(index);
+        unindex(removed);
+        snapshot = List.copyOf(next);
+        return true;
+    }
+
+    /**
+     * Removes all presets with the given name, ignoring case.
+     *
+     * @param name the name of the presets to remove.
+     * @return the removed presets.
+     */
+    public synchronized List<Preset> removeByName(String name) {
+        List<Preset> matches = byName.get(normalize(name));
+        if (matches == null || matches.isEmpty()) {
+            return List.of();
+        }
+        List<Preset> removed = List.copyOf(matches);
+        List<Preset> next = new ArrayList<>(snapshot);
+        next.removeIf(p -> removed.stream().anyMatch(r -> r == p));
+        removed.forEach(this::unindex);
+        snapshot = List.copyOf(next);
+        return removed;
+    }
+
+    /**
+     * Removes all presets.
+     */
+    public synchronized void clear() {
+        byId.clear();
+        byName.clear();
+        snapshot = List.of();
+    }
+
+    private int indexOf(Preset p) {
+        List<Preset> current = snapshot;
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) == p) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void index(Preset p) {
+        if (p.getId() != null) {
+            byId.put(p.getId(), p);
+        }
+        byName.merge(normalize(p.getName()), List.of(p), (a, b) -> {
+            List<Preset> merged = new ArrayList<>(a);
+            merged.addAll(b);
+            return List.copyOf(merged);
+        });
+    }
+
+    private void unindex(Preset p) {
+        if (p.getId() != null) {
+            byId.remove(p.getId(), p);
+        }
+        byName.computeIfPresent(normalize(p.getName()), (k, list) -> {
+            List<Preset> rest = list.stream().filter(other -> other != p).toList();
+            return rest.isEmpty() ? null : rest;
+        });
+    }
+
+    private void reorderName(String name, List<Preset> order) {
+        byName.computeIfPresent(normalize(name), (k, list) -> list.size() < 2 ? list
+                : order.stream().filter(p -> list.stream().anyMatch(q -> q == p)).toList());
+    }
+}
@@ -0,0 +1,135 @@
+package org.pomotimo.logic.preset;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.audio.AudioDataTypeAdapter;
+
+/**
+ * Streaming Gson adapter for {@link Preset}.
+ * <p>Reads and writes the presets with {@link JsonReader} and {@link JsonWriter} directly instead of
+ * Gson's reflective binding. The JSON is the same as before, so existing preset files and exports
+ * stay readable. Unknown fields are skipped.</p>
+ * <p>Without inline tasks only the header of a preset is written, with a {@code taskCount} instead of
+ * the task list. Reading such a header gives a preset whose tasks are not loaded yet.</p>
+ */
+public class PresetTypeAdapter extends TypeAdapter<Preset> {
+    private final TaskTypeAdapter taskAdapter = new TaskTypeAdapter();
+    private final AudioDataTypeAdapter audioAdapter = new AudioDataTypeAdapter();
+    private final boolean inlineTasks;
+
+    /**
+     * Creates an adapter that writes the tasks as part of the preset.
+     */
+    public PresetTypeAdapter() {
+        this(true);
+    }
+
+    /**
+     * Creates an adapter.
+     *
+     * @param inlineTasks {@code true} to write the task list of a preset,
+     *                    {@code false} to only write the header with the number of tasks.
+     */
+    public PresetTypeAdapter(boolean inlineTasks) {
+        this.inlineTasks = inlineTasks;
+    }
+
+    @Override
+    public void write(JsonWriter out, Preset preset) throws IOException {
+        if (preset == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(preset.getId());
+        out.name("name").value(preset.getName());
+        out.name("durationFocus").value(preset.getDurationFocus());
+        out.name("durationShortBreak").value(preset.getDurationShortBreak());
+        out.name("durationLongBreak").value(preset.getDurationLongBreak());
+        out.name("cycleAmount").value(preset.getCycleAmount());
+        out.name("imageFile").value(preset.getImageFile());
+        if (inlineTasks) {
+            out.name("tasks");
+            out.beginArray();
+            for (Task t : preset.getTasks()) {
+                taskAdapter.write(out, t);
+            }
+            out.endArray();
+        } else {
+            out.name("taskCount").value(preset.getStoredTaskAmount());
+        }
+        if (preset.getCurrentAudio() != null) {
+            out.name("currentAudio");
+            audioAdapter.write(out, preset.getCurrentAudio());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Preset read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String id = null;
+        String name = null;
+        int focus = 0;
+        int shortBreak = 0;
+        int longBreak = 0;
+        int cycleAmount = 0;
+        String imageFile = null;
+        AudioData audio = null;
+        ArrayList<Task> tasks = new ArrayList<>();
+        boolean hasTasks = false;
+        int taskCount = -1;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = TaskTypeAdapter.nextStringOr(in, null);
+                case "name" -> name = TaskTypeAdapter.nextStringOr(in, null);
+                case "durationFocus" -> focus = in.nextInt();
+                case "durationShortBreak" -> shortBreak = in.nextInt();
+                case "durationLongBreak" -> longBreak = in.nextInt();
+                case "cycleAmount" -> cycleAmount = in.nextInt();
+                case "imageFile" -> imageFile = TaskTypeAdapter.nextStringOr(in, null);
+                case "currentAudio" -> audio = audioAdapter.read(in);
+                case "tasks" -> {
+                    readTasks(in, tasks);
+                    hasTasks = true;
+                }
+                case "taskCount" -> taskCount = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Preset preset = new Preset(name, focus, shortBreak, longBreak, imageFile, cycleAmount, audio, tasks);
+        preset.setId(id);
+        if (!hasTasks && taskCount >= 0) {
+            preset.markTasksUnloaded(taskCount);
+        }
+        return preset;
+    }
+
+    private void readTasks(JsonReader in, ArrayList<Task> tasks) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            Task t = taskAdapter.read(in);
+            if (t != null) {
+                tasks.add(t);
+            }
+        }
+        in.endArray();
+    }
+}
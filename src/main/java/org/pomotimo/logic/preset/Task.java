@@ -2,9 +2,12 @@ package org.pomotimo.logic.preset;
 
 import org.pomotimo.logic.config.AppConstants;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a task that is to be done. A task has a name and a priority.
+ * <p>The focus time spent on a task is counted without locking, it is added on the timer thread while the
+ * task list is shown and saved on other threads.</p>
  */
 public class Task {
     private String name;
@@ -17,6 +20,10 @@ public class Task {
      * In the task list the numbers refer to the placement in the list and can be used to sort tasks.
      */
     private int priority;
+    /**
+     * Focus time spent on the task in millis, shared with the frozen copies of the task.
+     */
+    private final AtomicLong focusMillis;
 
     /**
      * no-args constructor required by Gson
@@ -25,6 +32,21 @@ public class Task {
         this.name = "";
         this.priority = AppConstants.DEFAULT_PRIO;
         this.uuid = "";
+        this.focusMillis = new AtomicLong();
+    }
+
+    /**
+     * Constructs a task that shares its focus time counter with another task, e.g. a frozen copy.
+     * @param name the name of the task
+     * @param priority the priority of the task, lower int value means higher priority.
+     * @param uuid the uuid of our task.
+     * @param focusMillis the focus time counter.
+     */
+    Task(String name, int priority, String uuid, AtomicLong focusMillis) {
+        this.name = name;
+        this.priority = priority;
+        this.uuid = uuid;
+        this.focusMillis = focusMillis;
     }
 
     /**
@@ -37,6 +59,7 @@ public class Task {
         this.name = name;
         this.priority = priority;
         this.uuid = uuid;
+        this.focusMillis = new AtomicLong();
     }
 
     /**
@@ -48,6 +71,7 @@ public class Task {
         this.name = name;
         this.priority = priority;
         this.uuid = UUID.randomUUID().toString();
+        this.focusMillis = new AtomicLong();
     }
 
     /**
@@ -58,6 +82,7 @@ public class Task {
         this.name = name;
         this.priority = AppConstants.DEFAULT_PRIO;
         this.uuid = UUID.randomUUID().toString();
+        this.focusMillis = new AtomicLong();
     }
 
     /**
@@ -95,6 +120,34 @@ public class Task {
         this.priority = priority;
     }
 
+    /**
+     * Gets the focus time that has been spent on the task.
+     *
+     * @return the focus time in millis.
+     */
+    public long getFocusMillis() {
+        return focusMillis.get();
+    }
+
+    /**
+     * Adds focus time to the task. May be called from any thread.
+     *
+     * @param millis the focus time to add in millis.
+     * @return the focus time of the task afterwards.
+     */
+    public long addFocusMillis(long millis) {
+        return focusMillis.addAndGet(millis);
+    }
+
+    /**
+     * Creates a copy of the task that shares its focus time counter, see {@link TaskList}.
+     *
+     * @return the copy.
+     */
+    Task frozenCopy() {
+        return new Task(name, priority, uuid, focusMillis);
+    }
+
     /**
      * Compares this task to another object for equality.
      * Two tasks are considered equal if they have the same name and priority.
@@ -115,6 +168,16 @@ public class Task {
         return this.uuid.equals(t.uuid);
     }
 
+    /**
+     * Returns a hash code based on the uuid, consistent with {@link Task#equals(Object)}.
+     *
+     * @return the hash code of the uuid.
+     */
+    @Override
+    public int hashCode() {
+        return uuid.hashCode();
+    }
+
     /**
      * Returns a string representation of the task, including its name and priority.
      *
@@ -0,0 +1,251 @@
+package org.pomotimo.logic.preset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The tasks of a {@link Preset}, ordered by their priority and indexed by their uuid.
+ * <p>Priorities are ranks with gaps of {@link TaskList#GAP} between them. Moving a task only gives the moved
+ * task a new rank between its new neighbours, so a reorder changes a single task. Only when two neighbours
+ * have no gap left, all tasks are ranked again.</p>
+ * <p>Membership checks and lookups by uuid use a hash index. This class is not thread-safe,
+ * the {@link PresetManager} serializes changes of the tasks.</p>
+ * <p>Every change also publishes a new {@link TaskVector} with frozen copies of the tasks. Other threads,
+ * e.g. the saver, can read this version without locking while the tasks are being changed.</p>
+ */
+final class TaskList {
+    /** Distance between the ranks of neighbouring tasks after a rebalance. */
+    static final int GAP = 1024;
+
+    private final ArrayList<Task> ordered = new ArrayList<>();
+    /* Derived from the ordered tasks, transient so that reflective JSON binding only sees the tasks */
+    private final transient List<Task> view = Collections.unmodifiableList(ordered);
+    private final transient Map<String, Task> byUuid = new HashMap<>();
+    private transient volatile TaskVector version = TaskVector.EMPTY;
+    /* A snapshot only holds a version, see TaskList#snapshot() */
+    private final boolean readOnly;
+
+    TaskList() {
+        this.readOnly = false;
+    }
+
+    private TaskList(TaskVector version) {
+        this.version = version;
+        this.readOnly = true;
+    }
+
+    /**
+     * Creates a read-only task list of the current version of this list. It may be called from any thread.
+     *
+     * @return a task list that never changes.
+     */
+    TaskList snapshot() {
+        return readOnly ? this : new TaskList(version);
+    }
+
+    /**
+     * @return a read-only view of the tasks, ordered by priority.
+     */
+    List<Task> view() {
+        return readOnly ? version : view;
+    }
+
+    int size() {
+        return readOnly ? version.size() : ordered.size();
+    }
+
+    boolean contains(Task t) {
+        return t != null && get(t.getUUId()).isPresent();
+    }
+
+    /**
+     * @param t a task, it is matched by its uuid.
+     * @return the position of the task, or {@code -1} if it is not in the list.
+     */
+    int indexOfTask(Task t) {
+        if (t == null) {
+            return -1;
+        }
+        if (readOnly) {
+            return version.indexOf(t);
+        }
+        Task own = byUuid.get(t.getUUId());
+        return own == null ? -1 : indexOf(own);
+    }
+
+    Optional<Task> get(String uuid) {
+        if (readOnly) {
+            return version.stream().filter(t -> t.getUUId().equals(uuid)).findFirst();
+        }
+        return Optional.ofNullable(byUuid.get(uuid));
+    }
+
+    /**
+     * Replaces all tasks, e.g. with the tasks read from disk. Their priorities are kept, tasks with the same
+     * priority keep the order of the given collection.
+     *
+     * @param tasks the new tasks.
+     */
+    void setAll(Collection<Task> tasks) {
+        checkWritable();
+        ordered.clear();
+        byUuid.clear();
+        for (Task t : tasks) {
+            if (byUuid.putIfAbsent(t.getUUId(), t) == null) {
+                ordered.add(t);
+            }
+        }
+        ordered.sort(Comparator.comparingInt(Task::getPriority));
+        publishAll();
+    }
+
+    /**
+     * Appends a task. A task whose priority is not behind the last task gets the rank after the last task.
+     *
+     * @param t the task to add.
+     * @return {@code false} if a task with the same uuid is already in the list.
+     */
+    boolean add(Task t) {
+        checkWritable();
+        if (contains(t)) {
+            return false;
+        }
+        if (!ordered.isEmpty()) {
+            int last = ordered.getLast().getPriority();
+            if (t.getPriority() <= last) {
+                if ((long) last + GAP > Integer.MAX_VALUE) {
+                    rebalance();
+                    last = ordered.getLast().getPriority();
+                }
+                t.setPriority(last + GAP);
+            }
+        }
+        ordered.add(t);
+        byUuid.put(t.getUUId(), t);
+        version = version.plus(version.size(), frozen(t));
+        return true;
+    }
+
+    boolean remove(Task t) {
+        checkWritable();
+        Task own = t == null ? null : byUuid.remove(t.getUUId());
+        if (own == null) {
+            return false;
+        }
+        int index = indexOf(own);
+        ordered.remove(index);
+        version = version.without(index);
+        return true;
+    }
+
+    /**
+     * Moves a task to a new position. Usually only the moved task gets a new priority.
+     *
+     * @param t the task to move.
+     * @param newIndex the new position, {@code 0} is the highest priority.
+     * @return {@code false} if the task is not in the list.
+     */
+    boolean move(Task t, int newIndex) {
+        checkWritable();
+        Task own = t == null ? null : byUuid.get(t.getUUId());
+        if (own == null) {
+            return false;
+        }
+        int oldIndex = indexOf(own);
+        ordered.remove(oldIndex);
+        int index = Math.max(0, Math.min(newIndex, ordered.size()));
+        long before = index > 0 ? ordered.get(index - 1).getPriority() : Long.MIN_VALUE;
+        long after = index < ordered.size() ? ordered.get(index).getPriority() : Long.MAX_VALUE;
+        ordered.add(index, own);
+
+        long rank;
+        if (before == Long.MIN_VALUE && after == Long.MAX_VALUE) {
+            return true;
+        } else if (before == Long.MIN_VALUE) {
+            rank = after - GAP;
+        } else if (after == Long.MAX_VALUE) {
+            rank = before + GAP;
+        } else if (after - before >= 2) {
+            rank = before + (after - before) / 2;
+        } else {
+            rebalance();
+            return true;
+        }
+        if (rank < Integer.MIN_VALUE || rank > Integer.MAX_VALUE) {
+            rebalance();
+        } else {
+            own.setPriority((int) rank);
+            version = version.without(oldIndex).plus(index, frozen(own));
+        }
+        return true;
+    }
+
+    void clear() {
+        checkWritable();
+        ordered.clear();
+        byUuid.clear();
+        version = TaskVector.EMPTY;
+    }
+
+    /**
+     * Finds the position of a task with a binary search for its priority. Tasks with the same priority,
+     * e.g. from files written before ranks had gaps, are searched linearly.
+     */
+    private int indexOf(Task t) {
+        int lo = 0;
+        int hi = ordered.size() - 1;
+        int priority = t.getPriority();
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int p = ordered.get(mid).getPriority();
+            if (p < priority) {
+                lo = mid + 1;
+            } else if (p > priority) {
+                hi = mid - 1;
+            } else {
+                for (int i = mid; i >= 0 && ordered.get(i).getPriority() == priority; i--) {
+                    if (ordered.get(i) == t) return i;
+                }
+                for (int i = mid + 1; i < ordered.size() && ordered.get(i).getPriority() == priority; i++) {
+                    if (ordered.get(i) == t) return i;
+                }
+                break;
+            }
+        }
+        return ordered.indexOf(t);
+    }
+
+    /**
+     * Spreads the ranks of all tasks evenly, starting at {@link TaskList#GAP}.
+     */
+    private void rebalance() {
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setPriority((i + 1) * GAP);
+        }
+        publishAll();
+    }
+
+    private void publishAll() {
+        version = TaskVector.of(ordered.stream().map(TaskList::frozen).toList());
+    }
+
+    /**
+     * Copies a task for a {@link TaskVector}, the copy is never changed. Only the focus time counter is shared,
+     * so that a snapshot saves the focus time that has been added since the task was last changed.
+     */
+    private static Task frozen(Task t) {
+        return t.frozenCopy();
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("The snapshot of a task list cannot be changed");
+        }
+    }
+}
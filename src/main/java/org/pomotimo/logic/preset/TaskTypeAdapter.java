@@ -0,0 +1,62 @@
+package org.pomotimo.logic.preset;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.pomotimo.logic.config.AppConstants;
+
+/**
+ * Streaming Gson adapter for {@link Task}, writes the same JSON as Gson's reflective binding.
+ */
+public class TaskTypeAdapter extends TypeAdapter<Task> {
+
+    @Override
+    public void write(JsonWriter out, Task task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("name").value(task.getName());
+        out.name("uuid").value(task.getUUId());
+        out.name("priority").value(task.getPriority());
+        out.name("focusMillis").value(task.getFocusMillis());
+        out.endObject();
+    }
+
+    @Override
+    public Task read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = "";
+        String uuid = "";
+        int priority = AppConstants.DEFAULT_PRIO;
+        long focusMillis = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> name = nextStringOr(in, name);
+                case "uuid" -> uuid = nextStringOr(in, uuid);
+                case "priority" -> priority = in.nextInt();
+                case "focusMillis" -> focusMillis = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Task(name, priority, uuid, new AtomicLong(focusMillis));
+    }
+
+    static String nextStringOr(JsonReader in, String fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,177 @@
+package org.pomotimo.logic.preset;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of tasks that shares its structure with the versions it has been derived from.
+ * <p>The tasks are kept in chunks of about {@link TaskVector#CHUNK} tasks. A change copies only the chunk
+ * that contains the changed position and the array of chunk references, all other chunks are shared.
+ * Inserting or removing a task therefore copies {@code n / CHUNK + CHUNK} references instead of the
+ * whole list.</p>
+ * <p>The tasks in a vector must not be changed, {@link TaskList} puts frozen copies of its tasks into it.</p>
+ */
+final class TaskVector extends AbstractList<Task> implements RandomAccess {
+    /** The size of the chunks of a new vector, a chunk is split when it grows to twice this size. */
+    static final int CHUNK = 64;
+
+    static final TaskVector EMPTY = new TaskVector(new Task[0][], new int[] {0});
+
+    private final Task[][] chunks;
+    /* starts[i] is the index of the first task of chunk i, starts[chunks.length] is the size */
+    private final int[] starts;
+
+    private TaskVector(Task[][] chunks, int[] starts) {
+        this.chunks = chunks;
+        this.starts = starts;
+    }
+
+    /**
+     * Creates a vector with the given tasks.
+     *
+     * @param tasks the tasks, they are not copied.
+     * @return a new vector.
+     */
+    static TaskVector of(List<Task> tasks) {
+        int n = tasks.size();
+        int count = (n + CHUNK - 1) / CHUNK;
+        Task[][] chunks = new Task[count][];
+        int[] starts = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            int from = c * CHUNK;
+            chunks[c] = tasks.subList(from, Math.min(n, from + CHUNK)).toArray(new Task[0]);
+            starts[c] = from;
+        }
+        starts[count] = n;
+        return new TaskVector(chunks, starts);
+    }
+
+    @Override
+    public Task get(int index) {
+        int c = chunkOf(index);
+        return chunks[c][index - starts[c]];
+    }
+
+    @Override
+    public int size() {
+        return starts[chunks.length];
+    }
+
+    /**
+     * Walks the chunks directly instead of looking up the chunk of every index.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunks.length;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task t = chunks[chunk][offset++];
+                if (offset == chunks[chunk].length) {
+                    chunk++;
+                    offset = 0;
+                }
+                return t;
+            }
+        };
+    }
+
+    /**
+     * @param index the position of the task, {@code 0 <= index <= size()}.
+     * @param t the task to insert.
+     * @return a new vector with the task inserted at the position.
+     */
+    TaskVector plus(int index, Task t) {
+        int size = size();
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (chunks.length == 0) {
+            return new TaskVector(new Task[][] {{t}}, new int[] {0, 1});
+        }
+        int c = index == size ? chunks.length - 1 : chunkOf(index);
+        Task[] old = chunks[c];
+        int at = index - starts[c];
+        Task[] grown = new Task[old.length + 1];
+        System.arraycopy(old, 0, grown, 0, at);
+        grown[at] = t;
+        System.arraycopy(old, at, grown, at + 1, old.length - at);
+
+        if (grown.length < 2 * CHUNK) {
+            Task[][] nextChunks = chunks.clone();
+            nextChunks[c] = grown;
+            int[] nextStarts = starts.clone();
+            for (int i = c + 1; i < nextStarts.length; i++) {
+                nextStarts[i]++;
+            }
+            return new TaskVector(nextChunks, nextStarts);
+        }
+        /* split the full chunk in two halves */
+        int half = grown.length / 2;
+        Task[][] nextChunks = new Task[chunks.length + 1][];
+        System.arraycopy(chunks, 0, nextChunks, 0, c);
+        nextChunks[c] = Arrays.copyOfRange(grown, 0, half);
+        nextChunks[c + 1] = Arrays.copyOfRange(grown, half, grown.length);
+        System.arraycopy(chunks, c + 1, nextChunks, c + 2, chunks.length - c - 1);
+        int[] nextStarts = new int[starts.length + 1];
+        System.arraycopy(starts, 0, nextStarts, 0, c + 1);
+        nextStarts[c + 1] = starts[c] + half;
+        for (int i = c + 1; i < starts.length; i++) {
+            nextStarts[i + 1] = starts[i] + 1;
+        }
+        return new TaskVector(nextChunks, nextStarts);
+    }
+
+    /**
+     * @param index the position of the task to remove.
+     * @return a new vector without the task.
+     */
+    TaskVector without(int index) {
+        int c = chunkOf(index);
+        Task[] old = chunks[c];
+        if (old.length == 1) {
+            Task[][] nextChunks = new Task[chunks.length - 1][];
+            System.arraycopy(chunks, 0, nextChunks, 0, c);
+            System.arraycopy(chunks, c + 1, nextChunks, c, chunks.length - c - 1);
+            int[] nextStarts = new int[starts.length - 1];
+            System.arraycopy(starts, 0, nextStarts, 0, c);
+            for (int i = c + 1; i < starts.length; i++) {
+                nextStarts[i - 1] = starts[i] - 1;
+            }
+            return new TaskVector(nextChunks, nextStarts);
+        }
+        int at = index - starts[c];
+        Task[] shrunk = new Task[old.length - 1];
+        System.arraycopy(old, 0, shrunk, 0, at);
+        System.arraycopy(old, at + 1, shrunk, at, old.length - at - 1);
+        Task[][] nextChunks = chunks.clone();
+        nextChunks[c] = shrunk;
+        int[] nextStarts = starts.clone();
+        for (int i = c + 1; i < nextStarts.length; i++) {
+            nextStarts[i]--;
+        }
+        return new TaskVector(nextChunks, nextStarts);
+    }
+
+    private int chunkOf(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int c = Arrays.binarySearch(starts, 0, chunks.length, index);
+        return c >= 0 ? c : -c - 2;
+    }
+}
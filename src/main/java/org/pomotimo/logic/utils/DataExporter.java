@@ -0,0 +1,431 @@
+package org.pomotimo.logic.utils;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.preset.Task;
+import org.pomotimo.logic.preset.TaskTypeAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the session history and the tasks of the presets as CSV or newline delimited JSON for reporting.
+ * <p>Unlike {@link PresetImporterExporter}, which builds the whole JSON document of a preset in memory, every
+ * row is written as soon as it is read: sessions are read straight from the mapped segments of the
+ * {@link SessionHistory} and only one row is held at a time, so the heap used does not depend on the number
+ * of rows. Tasks whose preset has been loaded are written from a snapshot of the preset, the tasks of the
+ * other presets are read one by one from their task file, without loading them into the preset.</p>
+ * <p>The output can be restricted to a time range and a single preset, see {@link Options}, and be gzip
+ * compressed. An export to a file is written to a temporary file first, so a failed export never leaves
+ * a partial file behind.</p>
+ */
+public class DataExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExporter.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String[] SESSION_COLUMNS =
+            {"start", "end", "durationMillis", "phase", "presetId", "taskId", "interrupted"};
+    private static final String[] TASK_COLUMNS =
+            {"presetId", "presetName", "taskId", "taskName", "priority", "focusMillis"};
+
+    private final PresetManager presetManager;
+    private final TaskTypeAdapter taskAdapter = new TaskTypeAdapter();
+
+    public DataExporter(PresetManager presetManager) {
+        this.presetManager = presetManager;
+    }
+
+    /**
+     * The file formats of an export.
+     */
+    public enum Format {
+        /** Comma separated values with a header row, quoted as in RFC 4180. */
+        CSV,
+        /** One JSON object per line. */
+        NDJSON
+    }
+
+    /**
+     * What to export and how.
+     *
+     * @param format the file format.
+     * @param fromMillis sessions that started before this time in epoch millis are left out.
+     * @param toMillis sessions that started at or after this time in epoch millis are left out.
+     * @param presetId the id of the only preset to export, or {@code null} for all presets.
+     * @param gzip whether the output is gzip compressed.
+     */
+    public record Options(Format format, long fromMillis, long toMillis, String presetId, boolean gzip) {
+
+        /**
+         * @param format the file format.
+         * @return options that export everything uncompressed.
+         */
+        public static Options all(Format format) {
+            return new Options(format, Long.MIN_VALUE, Long.MAX_VALUE, null, false);
+        }
+
+        /**
+         * Chooses the format by the name of the target file: {@code .ndjson} and {@code .jsonl} files are
+         * written as NDJSON, all others as CSV. Files ending with {@code .gz} are compressed.
+         *
+         * @param target the file to export to.
+         * @return options that export everything to the file.
+         */
+        public static Options forFile(Path target) {
+            String name = target.getFileName().toString().toLowerCase(Locale.ROOT);
+            boolean gzip = name.endsWith(".gz");
+            if (gzip) {
+                name = name.substring(0, name.length() - 3);
+            }
+            Format format = name.endsWith(".ndjson") || name.endsWith(".jsonl") ? Format.NDJSON : Format.CSV;
+            return new Options(format, Long.MIN_VALUE, Long.MAX_VALUE, null, gzip);
+        }
+
+        /**
+         * @param from the start of the range in epoch millis, inclusive.
+         * @param to the end of the range in epoch millis, exclusive.
+         * @return these options restricted to the sessions that started in the range.
+         */
+        public Options between(long from, long to) {
+            return new Options(format, from, to, presetId, gzip);
+        }
+
+        /**
+         * @param id the id of a preset.
+         * @return these options restricted to the preset.
+         */
+        public Options forPreset(String id) {
+            return new Options(format, fromMillis, toMillis, id, gzip);
+        }
+
+        /**
+         * @param compressed whether the output is gzip compressed.
+         * @return these options with the compression changed.
+         */
+        public Options withGzip(boolean compressed) {
+            return new Options(format, fromMillis, toMillis, presetId, compressed);
+        }
+    }
+
+    /**
+     * Exports the sessions of a history to a file, which is replaced if it exists.
+     *
+     * @param history the history to export.
+     * @param options the filters and the format.
+     * @param target the file to write.
+     * @return the number of exported sessions.
+     */
+    public long exportSessions(SessionHistory history, Options options, Path target) throws IOException {
+        return writeAtomically(target, out -> exportSessions(history, options, out));
+    }
+
+    /**
+     * Exports the sessions of a history that match the options, in the order they were recorded.
+     * The stream is not closed.
+     *
+     * @param history the history to export.
+     * @param options the filters and the format.
+     * @param out the stream to write to.
+     * @return the number of exported sessions.
+     */
+    public long exportSessions(SessionHistory history, Options options, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        RowWriter rows = new RowWriter(out, options, SESSION_COLUMNS);
+        try {
+            history.forEach(options.fromMillis(), options.toMillis(), r -> {
+                if (options.presetId() == null || options.presetId().equals(r.presetId())) {
+                    writeSession(rows, r);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.finish();
+        logExported("sessions", rows.count, started);
+        return rows.count;
+    }
+
+    /**
+     * Exports the tasks of all presets, or of the preset of the options, to a file, which is replaced if it
+     * exists. The time range of the options does not apply to tasks.
+     *
+     * @param options the preset filter and the format.
+     * @param target the file to write.
+     * @return the number of exported tasks.
+     */
+    public long exportTasks(Options options, Path target) throws IOException {
+        return writeAtomically(target, out -> exportTasks(options, out));
+    }
+
+    /**
+     * Exports the tasks of all presets, or of the preset of the options, with the focus time spent on them.
+     * The stream is not closed.
+     *
+     * @param options the preset filter and the format.
+     * @param out the stream to write to.
+     * @return the number of exported tasks.
+     * @throws IOException if writing fails or the stored tasks of a preset cannot be read.
+     */
+    public long exportTasks(Options options, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        RowWriter rows = new RowWriter(out, options, TASK_COLUMNS);
+        for (Preset p : presetManager.getPresets()) {
+            if (options.presetId() != null && !options.presetId().equals(p.getId())) {
+                continue;
+            }
+            Preset snapshot = p.snapshot();
+            if (snapshot.isTasksLoaded() && !snapshot.isTasksUnreadable()) {
+                for (Task t : snapshot.getTasks()) {
+                    writeTask(rows, p, t);
+                }
+            } else {
+                streamStoredTasks(rows, snapshot);
+            }
+        }
+        rows.finish();
+        logExported("tasks", rows.count, started);
+        return rows.count;
+    }
+
+    /**
+     * Writes the tasks of a preset whose tasks are not in memory straight from its task file, or from the
+     * last good copy if the file is missing. Only one task is held at a time.
+     */
+    private void streamStoredTasks(RowWriter rows, Preset p) throws IOException {
+        Path file = PersistenceManager.taskFile(p);
+        if (!Files.exists(file)) {
+            file = PersistenceManager.taskBackupFile(p);
+        }
+        if (!Files.exists(file)) {
+            if (p.getTaskAmount() > 0) {
+                throw new IOException("The task file of preset '" + p.getName() + "' is missing");
+            }
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             JsonReader json = new JsonReader(reader)) {
+            json.beginArray();
+            while (json.hasNext()) {
+                writeTask(rows, p, taskAdapter.read(json));
+            }
+            json.endArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("The tasks of preset '" + p.getName() + "' could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeTask(RowWriter rows, Preset p, Task t) throws IOException {
+        rows.begin();
+        rows.text(p.getId());
+        rows.text(p.getName());
+        rows.text(t.getUUId());
+        rows.text(t.getName());
+        rows.number(t.getPriority());
+        rows.number(t.getFocusMillis());
+        rows.end();
+    }
+
+    /**
+     * Writes an export to a temporary file next to the target and renames it to the target once it is complete.
+     */
+    private static long writeAtomically(Path target, Export export) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".part");
+        try {
+            long count;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                count = export.writeTo(out);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+            return count;
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary file {}", tmp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of an export to a stream.
+     */
+    @FunctionalInterface
+    private interface Export {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void writeSession(RowWriter rows, SessionRecord r) {
+        try {
+            rows.begin();
+            rows.text(Instant.ofEpochMilli(r.startMillis()).toString());
+            rows.text(Instant.ofEpochMilli(r.endMillis()).toString());
+            rows.number(r.durationMillis());
+            rows.text(r.phase().name());
+            rows.text(r.presetId());
+            rows.text(r.taskId());
+            rows.bool(r.interrupted());
+            rows.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void logExported(String what, long count, long startedNanos) {
+        long millis = Math.max(1, (System.nanoTime() - startedNanos) / 1_000_000);
+        logger.info("Exported {} {} in {} ms ({} rows/s)", count, what, millis, count * 1000 / millis);
+    }
+
+    /**
+     * Writes rows of a fixed set of columns in one of the formats. A row is assembled in a reused
+     * builder and then appended to a buffered writer, so no row outlives the call that wrote it.
+     */
+    private static final class RowWriter {
+        private final Writer writer;
+        private final GZIPOutputStream gzip;
+        private final Format format;
+        private final String[] columns;
+        private final StringBuilder row = new StringBuilder(256);
+        private int column;
+        private long count;
+
+        private RowWriter(OutputStream out, Options options, String[] columns) throws IOException {
+            this.gzip = options.gzip() ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            this.writer = new BufferedWriter(new OutputStreamWriter(gzip != null ? gzip : out,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.format = options.format();
+            this.columns = columns;
+            if (format == Format.CSV) {
+                writer.write(String.join(",", columns));
+                writer.write('\n');
+            }
+        }
+
+        private void begin() {
+            row.setLength(0);
+            column = 0;
+            if (format == Format.NDJSON) {
+                row.append('{');
+            }
+        }
+
+        private void text(String value) {
+            key();
+            if (value == null) {
+                row.append(format == Format.NDJSON ? "null" : "");
+            } else if (format == Format.NDJSON) {
+                appendJsonString(value);
+            } else {
+                appendCsvField(value);
+            }
+        }
+
+        private void number(long value) {
+            key();
+            row.append(value);
+        }
+
+        private void bool(boolean value) {
+            key();
+            row.append(value);
+        }
+
+        private void end() throws IOException {
+            if (format == Format.NDJSON) {
+                row.append('}');
+            }
+            row.append('\n');
+            writer.append(row);
+            count++;
+        }
+
+        /**
+         * Flushes the buffered rows and ends the compressed stream, the underlying stream stays open.
+         */
+        private void finish() throws IOException {
+            writer.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+        }
+
+        private void key() {
+            if (column > 0) {
+                row.append(',');
+            }
+            if (format == Format.NDJSON) {
+                row.append('"').append(columns[column]).append("\":");
+            }
+            column++;
+        }
+
+        private void appendCsvField(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                row.append(value);
+                return;
+            }
+            row.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    row.append('"');
+                }
+                row.append(c);
+            }
+            row.append('"');
+        }
+
+        private void appendJsonString(String value) {
+            row.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> row.append("\\\"");
+                    case '\\' -> row.append("\\\\");
+                    case '\n' -> row.append("\\n");
+                    case '\r' -> row.append("\\r");
+                    case '\t' -> row.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            row.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            row.append(c);
+                        }
+                    }
+                }
+            }
+            row.append('"');
+        }
+    }
+}
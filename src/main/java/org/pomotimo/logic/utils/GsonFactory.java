@@ -0,0 +1,53 @@
+package org.pomotimo.logic.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.audio.AudioDataTypeAdapter;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetTypeAdapter;
+import org.pomotimo.logic.preset.Task;
+import org.pomotimo.logic.preset.TaskTypeAdapter;
+
+/**
+ * A utility class that creates the {@link Gson} instances used for presets.
+ * The instances use the streaming adapters {@link PresetTypeAdapter}, {@link TaskTypeAdapter} and
+ * {@link AudioDataTypeAdapter} instead of reflection.
+ */
+public final class GsonFactory {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private GsonFactory() {}
+
+    /**
+     * Creates a Gson instance with the preset adapters registered. Presets are written with their tasks.
+     *
+     * @param prettyPrinting {@code true} for indented, human-readable output,
+     *                       {@code false} for compact output without whitespace.
+     * @return the new {@link Gson} instance.
+     */
+    public static Gson create(boolean prettyPrinting) {
+        return create(prettyPrinting, true);
+    }
+
+    /**
+     * Creates a Gson instance with the preset adapters registered.
+     *
+     * @param prettyPrinting {@code true} for indented, human-readable output,
+     *                       {@code false} for compact output without whitespace.
+     * @param inlineTasks {@code false} to write only the preset headers, see {@link PresetTypeAdapter}.
+     * @return the new {@link Gson} instance.
+     */
+    public static Gson create(boolean prettyPrinting, boolean inlineTasks) {
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(Preset.class, new PresetTypeAdapter(inlineTasks))
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+                .registerTypeAdapter(AudioData.class, new AudioDataTypeAdapter());
+        if (prettyPrinting) {
+            builder.setPrettyPrinting();
+        }
+        return builder.create();
+    }
+}
@@ -0,0 +1,98 @@
+package org.pomotimo.logic.utils;
+
+import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+/**
+ * A single mutation of a preset, stored as one line of the {@link PresetJournal}.
+ * <p>Only the fields that belong to the operation are set, the others stay {@code null} and are
+ * left out of the JSON line. Presets and tasks are referenced by their stable ids.</p>
+ * <p>Applying a record is idempotent, so a journal may safely be replayed onto a snapshot that
+ * already contains some of its records.</p>
+ *
+ * @param op the kind of mutation.
+ * @param presetId the id of the preset that is changed.
+ * @param taskId the uuid of the task, for task operations.
+ * @param name the name of the added task or the new name of the preset.
+ * @param index the priority of an added task or the new position of a moved task.
+ * @param focus the new focus duration in seconds.
+ * @param shortBreak the new short break duration in seconds.
+ * @param longBreak the new long break duration in seconds.
+ * @param cycleAmount the new number of cycles.
+ * @param audio the new alarm sound.
+ */
+public record JournalRecord(Op op, String presetId, String taskId, String name, Integer index,
+                            Integer focus, Integer shortBreak, Integer longBreak, Integer cycleAmount,
+                            AudioData audio) {
+
+    /**
+     * The kinds of mutations that are journaled.
+     */
+    public enum Op { ADD_TASK, REMOVE_TASK, MOVE_TASK, EDIT_PRESET }
+
+    /**
+     * @param p the preset the task has been added to.
+     * @param t the added task.
+     * @return a record of the addition.
+     */
+    public static JournalRecord addTask(Preset p, Task t) {
+        return new JournalRecord(Op.ADD_TASK, p.getId(), t.getUUId(), t.getName(), t.getPriority(),
+                null, null, null, null, null);
+    }
+
+    /**
+     * @param p the preset the task has been removed from.
+     * @param t the removed task.
+     * @return a record of the removal.
+     */
+    public static JournalRecord removeTask(Preset p, Task t) {
+        return new JournalRecord(Op.REMOVE_TASK, p.getId(), t.getUUId(), null, null,
+                null, null, null, null, null);
+    }
+
+    /**
+     * @param p the preset that contains the task.
+     * @param t the moved task.
+     * @param newIndex the new position of the task.
+     * @return a record of the move.
+     */
+    public static JournalRecord moveTask(Preset p, Task t, int newIndex) {
+        return new JournalRecord(Op.MOVE_TASK, p.getId(), t.getUUId(), null, newIndex,
+                null, null, null, null, null);
+    }
+
+    /**
+     * @param p the edited preset.
+     * @return a record of the name, durations, cycles and alarm sound of the preset.
+     */
+    public static JournalRecord editPreset(Preset p) {
+        return new JournalRecord(Op.EDIT_PRESET, p.getId(), null, p.getName(), null,
+                p.getDurationFocus(), p.getDurationShortBreak(), p.getDurationLongBreak(), p.getCycleAmount(),
+                p.getCurrentAudio());
+    }
+
+    /**
+     * Applies the mutation to a preset.
+     *
+     * @param p the preset with the id {@link JournalRecord#presetId()}.
+     * @return {@code true} if the preset has been changed, {@code false} if the mutation was already applied.
+     */
+    public boolean applyTo(Preset p) {
+        return switch (op) {
+            case ADD_TASK -> p.getTaskByUUID(taskId).isEmpty()
+                    && p.addTask(new Task(name, index == null ? p.getTaskAmount() : index, taskId));
+            case REMOVE_TASK -> p.getTaskByUUID(taskId).map(p::removeTask).orElse(false);
+            case MOVE_TASK -> index != null && p.getTaskByUUID(taskId).map(t -> p.moveTask(t, index)).orElse(false);
+            case EDIT_PRESET -> {
+                if (name != null) p.setName(name);
+                if (focus != null) p.setDurationFocus(focus);
+                if (shortBreak != null) p.setDurationShortBreak(shortBreak);
+                if (longBreak != null) p.setDurationLongBreak(longBreak);
+                if (cycleAmount != null) p.setCycleAmount(cycleAmount);
+                if (audio != null) p.setCurrentAudio(audio);
+                yield true;
+            }
+        };
+    }
+}
@@ -1,41 +1,76 @@
 package org.pomotimo.logic.utils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.history.FocusRollups;
+import org.pomotimo.logic.history.SessionHistory;
 import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
 import org.pomotimo.logic.audio.AudioData;
+import org.pomotimo.logic.audio.AudioLibrary;
+import org.pomotimo.logic.audio.AudioMetadataIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 /**
- * Handles saving and loading of presets to and from a JSON file.
+ * Handles saving and loading of presets to and from JSON files.
  */
 public class PersistenceManager {
 
-    // Gson instance for JSON serialization/deserialization. Pretty printing makes it human-readable.
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Gson instance with the streaming preset adapters. Pretty printing makes the file human-readable.
+    private final Gson gson;
+    private static final Type PRESET_LIST_TYPE = new TypeToken<ArrayList<Preset>>() {}.getType();
+    private static final Type TASK_LIST_TYPE = new TypeToken<ArrayList<Task>>() {}.getType();
     private static final Logger logger = LoggerFactory.getLogger(PersistenceManager.class);
+    private final PresetJournal journal = new PresetJournal(AppConstants.PRESETS_JOURNAL_FILE);
 
-    private static final List<AudioData> audioDataList = new ArrayList<>();
-    public static final List<AudioData> readOnlyAudioDataList = Collections.unmodifiableList(audioDataList);
+    private static final AudioLibrary audioLibrary = new AudioLibrary(AppConstants.MEDIA_DIR);
+    private static final AudioMetadataIndex audioIndex = new AudioMetadataIndex(AppConstants.AUDIO_INDEX_FILE);
 
-    static {
-        logger.debug("Running static initializer for PersistenceManager...");
+    private static boolean initialized = false;
+    /* Guards the session history instead of the class monitor, so opening it does not hold up initialize() */
+    private static final Object historyLock = new Object();
+    private static SessionHistory sessionHistory;
+    private static final FocusRollups focusRollups = new FocusRollups(AppConstants.ROLLUPS_FILE, ZoneId.systemDefault());
+    private static boolean sessionHistoryFailed = false;
+    private static final CompletableFuture<Optional<SessionHistory>> sessionHistoryOpened = new CompletableFuture<>();
+
+    /**
+     * Prepares the media directory: creates it, extracts the default sounds, fills the audio library and
+     * starts watching the directory for changes.
+     * <p>This is done once, usually by a background step of the application startup. Further calls return
+     * immediately, a call while another thread is initializing waits until it has finished.</p>
+     */
+    public static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        logger.debug("Initializing media directory...");
         try {
             if (!Files.exists(AppConstants.MEDIA_DIR)) {
                 Files.createDirectories(AppConstants.MEDIA_DIR);
@@ -45,119 +80,482 @@ public class PersistenceManager {
         }
         extractDefaultSounds();
         refreshAudioDataList();
+        audioLibrary.addListener(audioIndex);
+        audioLibrary.startWatching();
+        initialized = true;
+    }
+
+    /**
+     * Gets the audio files in the media directory, see {@link AudioLibrary#getAudioDataList()}.
+     * The media directory is initialized first if that has not happened yet.
+     *
+     * @return the read-only list of {@link AudioData} entries.
+     */
+    public static List<AudioData> getAudioDataList() {
+        initialize();
+        return audioLibrary.getAudioDataList();
     }
 
     /**
-     * Saves the provided list of presets to a JSON file.
+     * Gets the library of the audio files in the media directory, e.g. to listen for added or removed sounds.
+     * The media directory is initialized first if that has not happened yet.
+     *
+     * @return the {@link AudioLibrary} of the media directory.
+     */
+    public static AudioLibrary getAudioLibrary() {
+        initialize();
+        return audioLibrary;
+    }
+
+    /**
+     * Gets the metadata index of the media directory. It is filled by {@link PersistenceManager#refreshAudioIndex()}.
+     *
+     * @return the {@link AudioMetadataIndex} of the media directory.
+     */
+    public static AudioMetadataIndex getAudioMetadataIndex() {
+        return audioIndex;
+    }
+
+    /**
+     * Brings the audio metadata index in line with the media directory. Only new and changed files are read,
+     * so this is cheap after the first start. Usually called by a background step of the application startup.
+     */
+    public static void refreshAudioIndex() {
+        audioIndex.refresh(getAudioDataList());
+    }
+
+    /**
+     * Gets the history of the phases that have been run. It is opened on the first call,
+     * the focus rollups follow it from then on.
+     * <p>Opening it may rebuild the focus rollups from the whole history, which takes seconds for a long
+     * history. It is usually opened by a background step of the application startup, see
+     * {@link PersistenceManager#openSessionHistory()}, so this should not be called on the JavaFX thread
+     * before {@link PersistenceManager#whenSessionHistoryOpened()} has completed.</p>
+     *
+     * @return the {@link SessionHistory} in {@link AppConstants#HISTORY_DIR}, or an empty optional if it could
+     *         not be opened.
+     */
+    public static Optional<SessionHistory> getSessionHistory() {
+        synchronized (historyLock) {
+            if (sessionHistory == null && !sessionHistoryFailed) {
+                try {
+                    sessionHistory = new SessionHistory(AppConstants.HISTORY_DIR);
+                    focusRollups.attach(sessionHistory);
+                } catch (IOException e) {
+                    logger.error("Could not open session history: {}", e.getMessage());
+                    sessionHistory = null;
+                    sessionHistoryFailed = true;
+                }
+                sessionHistoryOpened.complete(Optional.ofNullable(sessionHistory));
+            }
+            return Optional.ofNullable(sessionHistory);
+        }
+    }
+
+    /**
+     * Opens the session history and brings the focus rollups up to date with it, as a background step of the
+     * application startup.
+     */
+    public static void openSessionHistory() {
+        getSessionHistory();
+    }
+
+    /**
+     * Gets a future that completes once the session history has been opened, or could not be opened.
+     *
+     * @return the future of the opened history, it holds an empty optional if opening failed.
+     */
+    public static CompletableFuture<Optional<SessionHistory>> whenSessionHistoryOpened() {
+        return sessionHistoryOpened;
+    }
+
+    /**
+     * Gets the focus time per day, week and month. The session history is opened first if that has not
+     * happened yet.
+     *
+     * @return the {@link FocusRollups}, they are empty if the history could not be opened.
+     */
+    public static FocusRollups getFocusRollups() {
+        getSessionHistory();
+        return focusRollups;
+    }
+
+    /**
+     * Flushes and closes the session history if it has been opened and saves the focus rollups,
+     * on application exit.
+     */
+    public static void closeSessionHistory() {
+        synchronized (historyLock) {
+            if (sessionHistory != null) {
+                sessionHistory.close();
+                try {
+                    focusRollups.save();
+                } catch (IOException | JsonIOException e) {
+                    logger.error("Could not save focus rollups: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a persistence manager that pretty prints the presets file,
+     * unless {@link AppConstants#COMPACT_JSON} is set.
+     */
+    public PersistenceManager() {
+        this(!AppConstants.COMPACT_JSON);
+    }
+
+    /**
+     * Creates a persistence manager.
+     *
+     * @param prettyPrinting {@code true} to write an indented presets file, {@code false} for compact output.
+     */
+    public PersistenceManager(boolean prettyPrinting) {
+        this.gson = GsonFactory.create(prettyPrinting, false);
+    }
+
+    /**
+     * Saves the provided list of presets.
+     * <p>The file {@link AppConstants#PRESETS_FILE} only holds the preset headers, the task list of each preset is
+     * stored in its own file in {@link AppConstants#TASKS_DIR}. Only the task lists that have been loaded are
+     * written, the files of the other presets are still up to date. Task files of removed presets are deleted.
+     * The task file of a preset whose tasks could not be read is never rewritten, see
+     * {@link Preset#isTasksUnreadable()}.</p>
+     * <p>Each file is written to a temporary file, forced to disk and then atomically renamed, so it is never
+     * left half written. The previous presets file is kept as {@link AppConstants#PRESETS_BACKUP_FILE}, the
+     * previous task file of a preset next to it with the suffix {@code .bak}.</p>
+     * <p>The journal is not touched, see {@link PersistenceManager#compact(List)}.</p>
      *
      * @param presets The list of presets to save.
+     * @return {@code true} if the presets have been written, {@code false} otherwise.
      */
-    public void savePresets(List<Preset> presets) {
+    public boolean savePresets(List<Preset> presets) {
+        long start = System.nanoTime();
         try {
-            if (!Files.exists(AppConstants.CONFIG_DIR)) {
-                Files.createDirectories(AppConstants.CONFIG_DIR);
+            if (!Files.exists(AppConstants.TASKS_DIR)) {
+                Files.createDirectories(AppConstants.TASKS_DIR);
             }
         } catch (IOException e){
             logger.error("Error when trying to create directories for presets.{}", e.getMessage());
         }
 
-        try (FileWriter writer = new FileWriter(AppConstants.PRESETS_FILE.toFile())) {
-            gson.toJson(presets, writer);
+        try {
+            int taskFiles = 0;
+            for (Preset p : presets) {
+                if (p.isTasksLoaded() && !p.isTasksUnreadable() && p.getId() != null) {
+                    backup(taskFile(p), taskBackupFile(p));
+                    writeAtomically(taskFile(p), p.getTasks(), TASK_LIST_TYPE);
+                    taskFiles++;
+                }
+            }
+            if (taskFiles > 0) {
+                syncDirectory(AppConstants.TASKS_DIR);
+            }
+            backup(AppConstants.PRESETS_FILE, AppConstants.PRESETS_BACKUP_FILE);
+            writeAtomically(AppConstants.PRESETS_FILE, presets, PRESET_LIST_TYPE);
+            syncDirectory(AppConstants.CONFIG_DIR);
+            deleteOrphanedTaskFiles(presets);
+            logger.debug("Presets and {} task lists written in {} ms", taskFiles, (System.nanoTime() - start) / 1_000_000);
+            return true;
         } catch (IOException e) {
             logger.error("Error when trying to write presets{}", e.getMessage());
+            return false;
         }
     }
 
     /**
-     * Loads the list of presets from the JSON file.
+     * Loads the task list of a preset that has been loaded without it.
+     * Nothing is done if the tasks are already in memory.
+     * <p>If the task file is missing or cannot be parsed, the last good copy is loaded instead. If that fails
+     * too, the preset gets an empty task list that is never saved, so the files stay on disk for recovery,
+     * see {@link Preset#attachUnreadableTasks()}.</p>
      *
-     * @return A list of loaded presets. Returns an empty list if the file doesn't exist or an error occurs.
+     * @param preset the preset whose tasks are needed.
      */
-    public List<Preset> loadPresets() {
-        if (!Files.exists(AppConstants.PRESETS_FILE)) {
-            return new ArrayList<>();
+    public void loadTasks(Preset preset) {
+        if (preset.isTasksLoaded()) {
+            return;
+        }
+        Path file = taskFile(preset);
+        if (!Files.exists(file) && !Files.exists(taskBackupFile(preset)) && preset.getTaskAmount() == 0) {
+            preset.attachTasks(new ArrayList<>());
+            return;
         }
+        List<Task> tasks = readTasks(file);
+        if (tasks == null) {
+            logger.warn("Falling back to the last good task file of preset '{}'", preset.getName());
+            tasks = readTasks(taskBackupFile(preset));
+        }
+        if (tasks == null) {
+            logger.error("Tasks of preset '{}' could not be read, {} is kept and not overwritten",
+                    preset.getName(), file);
+            preset.attachUnreadableTasks();
+            return;
+        }
+        preset.attachTasks(tasks);
+        logger.debug("Loaded {} tasks of preset '{}'", tasks.size(), preset.getName());
+    }
 
-        Type presetListType = new TypeToken<ArrayList<Preset>>() {}.getType();
+    /**
+     * Reads a task list from a JSON file.
+     *
+     * @param file the file to read.
+     * @return the tasks, or {@code null} if the file does not exist or is not valid.
+     */
+    private List<Task> readTasks(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Task> read = gson.fromJson(reader, TASK_LIST_TYPE);
+            return read == null ? new ArrayList<>() : read;
+        } catch (IOException | JsonParseException e) {
+            logger.error("Error loading tasks from file: {}, {}", file, e.getMessage());
+            return null;
+        }
+    }
 
-        try (FileReader reader = new FileReader(AppConstants.PRESETS_FILE.toFile())) {
-            List<Preset> presets = gson.fromJson(reader, presetListType);
+    /**
+     * Writes a value as JSON to a temporary file, forces it to disk and renames it to the target.
+     */
+    private void writeAtomically(Path target, Object value, Type type) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+                gson.toJson(value, type, writer);
+                writer.flush();
+                channel.force(true);
+            }
+            moveAtomically(tmp, target);
+            tmp = null;
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary file {}", tmp);
+                }
+            }
+        }
+    }
 
-            return presets == null ? new ArrayList<>() : presets;
+    static Path taskFile(Preset preset) {
+        return AppConstants.TASKS_DIR.resolve(preset.getId() + ".json");
+    }
+
+    static Path taskBackupFile(Preset preset) {
+        return AppConstants.TASKS_DIR.resolve(preset.getId() + ".json.bak");
+    }
+
+    private static void deleteOrphanedTaskFiles(List<Preset> presets) {
+        Set<String> names = new HashSet<>();
+        for (Preset p : presets) {
+            names.add(p.getId() + ".json");
+            names.add(p.getId() + ".json.bak");
+        }
+        try (Stream<Path> files = Files.list(AppConstants.TASKS_DIR)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                if (!names.contains(f.getFileName().toString())) {
+                    Files.deleteIfExists(f);
+                    logger.debug("Deleted task file of removed preset {}", f.getFileName());
+                }
+            }
         } catch (IOException e) {
-            logger.error("Error loading presets from file: {}, {}", AppConstants.PRESETS_FILE, e.getMessage());
-            return new ArrayList<>();
+            logger.warn("Could not clean up task files: {}", e.getMessage());
         }
     }
 
     /**
-     * Refresh {@link PersistenceManager#readOnlyAudioDataList}.
-     * <p>Reads file names that are persistently stored, compares with the ones on the disk
-     * and adds the missing ones or removes the ones that have been deleted.</p>
-     * <p>This method is usually called on application startup.</p>
+     * Writes a new snapshot of the presets and clears the journal, whose records are contained in the snapshot.
+     * The journal is kept if the snapshot could not be written.
+     *
+     * @param presets The list of presets to save.
+     * @return {@code true} if the snapshot has been written, {@code false} otherwise.
      */
+    public boolean compact(List<Preset> presets) {
+        if (!savePresets(presets)) {
+            return false;
+        }
+        try {
+            journal.clear();
+        } catch (IOException e) {
+            logger.warn("Could not clear journal after writing presets: {}", e.getMessage());
+        }
+        return true;
+    }
 
-    public static void refreshAudioDataList() {
-        if (!Files.exists(AppConstants.MEDIA_DIR)) {
+    /**
+     * Checks if the presets journal contains records that are not yet part of the presets file.
+     *
+     * @return {@code true} if the journal is not empty.
+     */
+    public boolean hasJournalRecords() {
+        return journal.size() > 0;
+    }
+
+    /**
+     * Closes the presets journal, on application exit after the final compaction.
+     */
+    public void closeJournal() {
+        journal.close();
+    }
+
+    /**
+     * Appends a mutation to the presets journal.
+     *
+     * @param record the mutation.
+     * @return the size of the journal in bytes, or {@code -1} if the record could not be written.
+     */
+    public long appendToJournal(JournalRecord record) {
+        try {
+            if (!Files.exists(AppConstants.CONFIG_DIR)) {
+                Files.createDirectories(AppConstants.CONFIG_DIR);
+            }
+            return journal.append(record);
+        } catch (IOException e) {
+            logger.error("Error when trying to append to journal: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Loads the preset headers from the JSON file and replays the journal onto them.
+     * The task lists are loaded on demand with {@link PersistenceManager#loadTasks(Preset)}, presets from
+     * files written before task lists were stored separately are loaded with their tasks.
+     * If the file is missing or cannot be parsed (e.g. because it was truncated), the last good copy
+     * in {@link AppConstants#PRESETS_BACKUP_FILE} is loaded instead.
+     * <p>Presets from files written before presets had ids get a new id, which is saved right away so
+     * that journal records can refer to it.</p>
+     *
+     * @return A list of loaded presets. Returns an empty list if neither file can be read.
+     */
+    public List<Preset> loadPresets() {
+        List<Preset> presets = readPresets(AppConstants.PRESETS_FILE);
+        if (presets == null && Files.exists(AppConstants.PRESETS_BACKUP_FILE)) {
+            logger.warn("Falling back to the last good presets file {}", AppConstants.PRESETS_BACKUP_FILE);
+            presets = readPresets(AppConstants.PRESETS_BACKUP_FILE);
+        }
+        if (presets == null) {
+            presets = new ArrayList<>();
+        }
+
+        boolean missingIds = false;
+        for (Preset p : presets) {
+            if (p.getId() == null) {
+                p.assignNewId();
+                missingIds = true;
+            }
+        }
+        if (missingIds) {
+            logger.info("Assigning ids to presets of an older presets file");
+            savePresets(presets);
+        }
+        journal.replay(presets, this::loadTasks);
+        return presets;
+    }
+
+    /**
+     * Reads a list of presets from a JSON file.
+     *
+     * @param file the file to read.
+     * @return the presets, or {@code null} if the file does not exist or is not valid.
+     */
+    private List<Preset> readPresets(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Preset> presets = gson.fromJson(reader, PRESET_LIST_TYPE);
+            return presets == null ? new ArrayList<>() : presets;
+        } catch (IOException | JsonParseException e) {
+            logger.error("Error loading presets from file: {}, {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Keeps the current version of a file as last good copy before it gets replaced.
+     * A hard link is used where possible, so the file itself is never missing.
+     */
+    private static void backup(Path file, Path backup) throws IOException {
+        if (!Files.exists(file)) {
             return;
         }
-        List<AudioData> audioFiles = new ArrayList<>();
-        try (Stream<Path> stream = Files.list(Paths.get(AppConstants.MEDIA_DIR.toUri()))) {
-             audioFiles = stream
-                    .filter(e1 -> {
-                        if (Files.isRegularFile(e1)) {
-                            return e1.toString().endsWith(".wav");
-                        }
-                        return false;
-                    })
-                    .map(e -> {
-                        logger.debug("Following audio added to list: {}", e.toString());
-                        return AudioData.createAudioDataFromFile(e.toString());
+        Files.deleteIfExists(backup);
+        try {
+            Files.createLink(backup, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 
-                    })
-                    .toList();
-        } catch (IOException e){
-            logger.error("Error reading directory: {}, {}", AppConstants.MEDIA_DIR, e.getMessage());
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Atomic move not supported for {}, replacing it non-atomically", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
-        List<AudioData> filesToAdd = new ArrayList<>(audioFiles);
-        filesToAdd.removeAll(audioDataList);
-        audioDataList.addAll(filesToAdd);
     }
 
     /**
-     *  Adds an entry to the {@link PersistenceManager#audioDataList}.
+     * Forces the directory entry of a renamed file to disk. Not every platform supports opening
+     * directories, on those the rename is left to the file system.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.trace("Directory sync not supported for {}", dir);
+        }
+    }
+
+    /**
+     * Lists the media directory and brings the audio library in line with it, adding new files and
+     * removing the ones that have been deleted.
+     * <p>This is only needed on application startup, afterwards the library follows the changes of the
+     * directory by itself.</p>
+     */
+    public static void refreshAudioDataList() {
+        audioLibrary.scan();
+    }
+
+    /**
+     *  Adds an entry to the audio library.
      * @param entry the {@link AudioData} record that is added.
      */
     public void addAudioDataEntry (AudioData entry) {
-        audioDataList.add(entry);
+        audioLibrary.add(entry);
     }
 
     /**
-     *  Removes an entry from the {@link PersistenceManager#audioDataList}.
+     *  Removes an entry from the audio library.
      * @param entry the {@link AudioData} record that is removed.
      */
     public void removeAudioDataEntry (AudioData entry) {
-        audioDataList.remove(entry);
+        audioLibrary.remove(entry);
     }
 
     private static void extractDefaultSounds() {
         logger.info("Extracting default sounds to {}", AppConstants.MEDIA_DIR);
-
-        for (String name : AppConstants.DEFAULT_SOUNDS) {
-            Path target = AppConstants.MEDIA_DIR.resolve(name);
-            if (!Files.exists(target)) {
-                try (InputStream in = PersistenceManager.class.getResourceAsStream("/sounds/" + name)) {
-                    if (in != null) {
-                        Files.copy(in, target);
-                        logger.info("Copied default sound: {}", name);
-                    } else {
-                        logger.warn("Missing internal sound resource: {}", name);
-                    }
-                } catch (IOException e) {
-                    logger.error("Failed to copy default sound {}: {}", name, e.getMessage());
-                }
-            }
+        List<SoundExtractor.Entry> manifest = SoundExtractor.readManifest();
+        if (manifest == null) {
+            logger.warn("No sound manifest found, only copying missing default sounds");
+            manifest = Arrays.stream(AppConstants.DEFAULT_SOUNDS)
+                    .filter(name -> !Files.exists(AppConstants.MEDIA_DIR.resolve(Path.of(name).getFileName())))
+                    .filter(name -> {
+                        boolean bundled = PersistenceManager.class.getResource("/sounds/" + name) != null;
+                        if (!bundled) {
+                            logger.warn("Missing internal sound resource: {}", name);
+                        }
+                        return bundled;
+                    })
+                    .map(name -> new SoundExtractor.Entry(name, -1, null))
+                    .toList();
         }
+        new SoundExtractor(AppConstants.MEDIA_DIR, AppConstants.SOUND_DIGEST_CACHE).extract(manifest);
     }
 
 }
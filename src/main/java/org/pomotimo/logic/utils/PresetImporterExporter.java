@@ -1,10 +1,10 @@
 package org.pomotimo.logic.utils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.pomotimo.logic.audio.AudioData;
 import org.pomotimo.logic.config.AppConstants;
 import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
 import org.pomotimo.logic.preset.PresetManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +20,7 @@ import java.util.zip.ZipOutputStream;
 public class PresetImporterExporter {
 
     private static final Logger logger = LoggerFactory.getLogger(PresetImporterExporter.class);
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson gson = GsonFactory.create(true);
 
     private final PresetManager presetManager;
 
@@ -36,7 +36,9 @@ public class PresetImporterExporter {
      * @return true if export was successful, false otherwise.
      */
     public boolean exportPreset(Preset preset, File destinationFile) {
-        Preset pr = createPresetWithRelativePaths(preset);
+        presetManager.ensureTasksLoaded(preset);
+        /* the snapshot can be read while the tasks are being edited */
+        Preset pr = createPresetWithRelativePaths(preset.snapshot());
 
         try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(destinationFile))) {
             ZipEntry jsonEntry = new ZipEntry("preset.json");
@@ -93,6 +95,7 @@ public class PresetImporterExporter {
 
         if (importedPreset != null) {
             updatePathsToAbsolute(importedPreset);
+            importedPreset.assignNewId();
             presetManager.addPreset(importedPreset);
             presetManager.setCurrentPreset(importedPreset);
             logger.info("Successfully imported preset '{}'", importedPreset.getName());
@@ -138,8 +141,11 @@ public class PresetImporterExporter {
         if (original.getImageFile() != null && !original.getImageFile().isEmpty()) {
             forExport.setImageFile(Paths.get(original.getImageFile()).getFileName().toString());
         }
-        if (original.getTaskAmount() > 0) {
-            original.getTasks().forEach(forExport::addTask);
+        /* adding a task may change its priority, so copies are added instead of the tasks of the preset */
+        for (Task t : original.getTasks()) {
+            Task copy = new Task(t.getName(), t.getPriority(), t.getUUId());
+            copy.addFocusMillis(t.getFocusMillis());
+            forExport.addTask(copy);
         }
         return forExport;
     }
@@ -0,0 +1,185 @@
+package org.pomotimo.logic.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.pomotimo.logic.preset.Preset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of preset mutations, one compact JSON {@link JournalRecord} per line.
+ * <p>Small edits like adding, removing or reordering a task only append a few bytes to the journal instead
+ * of rewriting the whole presets file. The journal is replayed onto the presets snapshot when loading and
+ * cleared whenever a new snapshot has been written.</p>
+ * <p>A line that has been cut off by a crash is skipped when replaying.</p>
+ */
+public class PresetJournal {
+    private static final Logger logger = LoggerFactory.getLogger(PresetJournal.class);
+
+    private final Gson gson = GsonFactory.create(false);
+    private final Path file;
+    private FileChannel channel;
+
+    /**
+     * Creates a journal that is stored in the given file. The file is created on the first append.
+     *
+     * @param file the journal file.
+     */
+    public PresetJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Appends a record to the journal and forces it to disk.
+     *
+     * @param record the mutation to append.
+     * @return the size of the journal in bytes after the append.
+     * @throws IOException if the record could not be written.
+     */
+    public synchronized long append(JournalRecord record) throws IOException {
+        FileChannel ch = channel();
+        ByteBuffer line = StandardCharsets.UTF_8.encode(gson.toJson(record) + "\n");
+        while (line.hasRemaining()) {
+            ch.write(line);
+        }
+        ch.force(false);
+        return ch.size();
+    }
+
+    /**
+     * Gets the current size of the journal.
+     *
+     * @return the size in bytes, {@code 0} if the journal does not exist.
+     */
+    public synchronized long size() {
+        try {
+            return channel != null ? channel.size() : Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            logger.warn("Could not read size of journal {}", file);
+            return 0;
+        }
+    }
+
+    /**
+     * Removes all records, e.g. after they have been folded into a new snapshot.
+     *
+     * @throws IOException if the journal could not be truncated.
+     */
+    public synchronized void clear() throws IOException {
+        if (channel == null && !Files.exists(file)) {
+            return;
+        }
+        FileChannel ch = channel();
+        ch.truncate(0);
+        ch.force(true);
+    }
+
+    /**
+     * Applies all records of the journal to the given presets, in the order they were written.
+     * Records of presets that do not exist (anymore) and unreadable lines are skipped.
+     *
+     * @param presets the presets loaded from the last snapshot.
+     * @param taskLoader loads the tasks of a preset before a task record is applied to it.
+     * @return the number of records that changed a preset.
+     */
+    public synchronized int replay(List<Preset> presets, Consumer<Preset> taskLoader) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        Map<String, Preset> byId = new HashMap<>();
+        for (Preset p : presets) {
+            if (p.getId() != null) {
+                byId.put(p.getId(), p);
+            }
+        }
+
+        int applied = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JournalRecord record;
+                try {
+                    record = gson.fromJson(line, JournalRecord.class);
+                } catch (JsonParseException e) {
+                    logger.warn("Skipping unreadable line {} of journal {}", lineNumber, file);
+                    continue;
+                }
+                if (record == null || record.op() == null) {
+                    continue;
+                }
+                Preset p = byId.get(record.presetId());
+                if (p == null) {
+                    continue;
+                }
+                if (record.op() != JournalRecord.Op.EDIT_PRESET && !p.isTasksLoaded()) {
+                    taskLoader.accept(p);
+                }
+                if (record.applyTo(p)) {
+                    applied++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading journal {}: {}", file, e.getMessage());
+        }
+        logger.debug("Replayed {} of {} journal lines", applied, lineNumber);
+        return applied;
+    }
+
+    /**
+     * Closes the journal file. It is reopened by the next append.
+     */
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close journal {}", file);
+            }
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (endsWithTornLine()) {
+                channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Checks for a last line that has been cut off by a crash, the next record has to start on a line of its own.
+     */
+    private boolean endsWithTornLine() throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            ch.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.pomotimo.logic.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extracts the bundled default sounds into the media directory.
+ * <p>The build generates {@code /sounds/sounds.manifest} with the size and SHA-256 digest of every bundled
+ * sound. A sound on disk is valid if its size and modification time match the digest cache, so a warm start
+ * only needs one stat per file. Files that are missing, have the wrong size or a different digest (e.g. from
+ * an extraction that was interrupted) are extracted again.</p>
+ * <p>The files are extracted concurrently, each one through a channel into a temporary file that is
+ * renamed once its digest has been verified.</p>
+ */
+public class SoundExtractor {
+    private static final Logger logger = LoggerFactory.getLogger(SoundExtractor.class);
+    private static final String RESOURCE_DIR = "/sounds/";
+    private static final String MANIFEST = RESOURCE_DIR + "sounds.manifest";
+    private static final int MAX_THREADS = 4;
+
+    private final Path targetDir;
+    private final Path cacheFile;
+    private final Map<String, CachedDigest> cache = new ConcurrentHashMap<>();
+
+    /**
+     * A bundled sound as listed in the manifest.
+     *
+     * @param name the path of the sound relative to {@code /sounds/}.
+     * @param size the size in bytes, {@code -1} if unknown.
+     * @param sha256 the hex encoded SHA-256 digest, {@code null} if unknown. A sound without digest is only
+     *               extracted if it is missing.
+     */
+    public record Entry(String name, long size, String sha256) {}
+
+    /**
+     * The outcome of {@link SoundExtractor#extract(List)}.
+     *
+     * @param valid number of sounds that were already on disk.
+     * @param extracted number of sounds that have been (re-)extracted.
+     * @param failed number of sounds that could not be extracted.
+     * @param millis the time the check and extraction took.
+     */
+    public record Result(int valid, int extracted, int failed, long millis) {}
+
+    private record CachedDigest(long size, long modified, String sha256) {}
+
+    /**
+     * Creates an extractor.
+     *
+     * @param targetDir the directory the sounds are extracted to.
+     * @param cacheFile the file the digests of the extracted sounds are cached in.
+     */
+    public SoundExtractor(Path targetDir, Path cacheFile) {
+        this.targetDir = targetDir;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Reads the manifest of the bundled sounds.
+     *
+     * @return the entries of the manifest, or {@code null} if the application has been built without one.
+     */
+    public static List<Entry> readManifest() {
+        try (InputStream in = SoundExtractor.class.getResourceAsStream(MANIFEST)) {
+            if (in == null) {
+                return null;
+            }
+            List<Entry> entries = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length == 3 && !parts[0].startsWith("#")) {
+                    entries.add(new Entry(parts[0], Long.parseLong(parts[1]), parts[2]));
+                }
+            }
+            return entries;
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Could not read sound manifest: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Makes sure every sound of the manifest is in the target directory with the right content.
+     *
+     * @param entries the bundled sounds, see {@link SoundExtractor#readManifest()}.
+     * @return the number of valid, extracted and failed sounds.
+     */
+    public Result extract(List<Entry> entries) {
+        long start = System.nanoTime();
+        readCache();
+        AtomicInteger valid = new AtomicInteger();
+        AtomicInteger extracted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicBoolean cacheChanged = new AtomicBoolean();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        int threads = Math.max(1, Math.min(MAX_THREADS, entries.size()));
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "pomo-sound-extract-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        })) {
+            for (Entry entry : entries) {
+                pool.execute(() -> {
+                    try {
+                        switch (check(entry)) {
+                            case VALID -> valid.incrementAndGet();
+                            case VALID_UNCACHED -> {
+                                valid.incrementAndGet();
+                                cacheChanged.set(true);
+                            }
+                            case INVALID -> {
+                                extractOne(entry);
+                                extracted.incrementAndGet();
+                                cacheChanged.set(true);
+                            }
+                        }
+                    } catch (IOException e) {
+                        failed.incrementAndGet();
+                        logger.error("Failed to extract default sound {}: {}", entry.name(), e.getMessage());
+                    }
+                });
+            }
+        }
+
+        if (cacheChanged.get()) {
+            writeCache();
+        }
+        Result result = new Result(valid.get(), extracted.get(), failed.get(), (System.nanoTime() - start) / 1_000_000);
+        logger.info("Default sounds checked in {} ms: {} valid, {} extracted, {} failed",
+                result.millis(), result.valid(), result.extracted(), result.failed());
+        return result;
+    }
+
+    private enum Check { VALID, VALID_UNCACHED, INVALID }
+
+    private Check check(Entry entry) throws IOException {
+        Path target = target(entry);
+        if (!Files.exists(target)) {
+            return Check.INVALID;
+        }
+        if (entry.sha256() == null) {
+            return Check.VALID;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+        if (attrs.size() != entry.size()) {
+            logger.warn("Default sound {} has the wrong size, extracting it again", entry.name());
+            return Check.INVALID;
+        }
+        long modified = attrs.lastModifiedTime().toMillis();
+        CachedDigest cached = cache.get(entry.name());
+        if (cached != null && cached.size() == attrs.size() && cached.modified() == modified) {
+            if (cached.sha256().equals(entry.sha256())) {
+                return Check.VALID;
+            }
+        }
+        String digest = digest(target);
+        cache.put(entry.name(), new CachedDigest(attrs.size(), modified, digest));
+        if (digest.equals(entry.sha256())) {
+            return Check.VALID_UNCACHED;
+        }
+        logger.warn("Default sound {} is corrupt, extracting it again", entry.name());
+        return Check.INVALID;
+    }
+
+    private void extractOne(Entry entry) throws IOException {
+        Path target = target(entry);
+        Path tmp = Files.createTempFile(targetDir, target.getFileName().toString(), ".part");
+        try {
+            MessageDigest md = sha256();
+            try (InputStream in = SoundExtractor.class.getResourceAsStream(RESOURCE_DIR + entry.name())) {
+                if (in == null) {
+                    throw new IOException("Missing internal sound resource");
+                }
+                try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, md));
+                     FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    long position = 0;
+                    long copied;
+                    while ((copied = out.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+                        position += copied;
+                    }
+                    out.force(true);
+                }
+            }
+            String digest = HexFormat.of().formatHex(md.digest());
+            if (entry.sha256() != null && !digest.equals(entry.sha256())) {
+                throw new IOException("Bundled sound does not match its manifest digest");
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+            BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+            cache.put(entry.name(), new CachedDigest(attrs.size(), attrs.lastModifiedTime().toMillis(), digest));
+            logger.info("Copied default sound: {}", entry.name());
+        } finally {
+            if (tmp != null) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /**
+     * Sounds in subdirectories of the resources, e.g. {@code mp3/}, are extracted directly into the target directory.
+     */
+    private Path target(Entry entry) {
+        return targetDir.resolve(Path.of(entry.name()).getFileName().toString());
+    }
+
+    private static String digest(Path file) throws IOException {
+        MessageDigest md = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void readCache() {
+        cache.clear();
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(cacheFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length == 4) {
+                    cache.put(parts[0], new CachedDigest(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable sound digest cache {}", cacheFile);
+            cache.clear();
+        }
+    }
+
+    private void writeCache() {
+        try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, CachedDigest> e : cache.entrySet()) {
+                CachedDigest d = e.getValue();
+                writer.write(e.getKey() + " " + d.size() + " " + d.modified() + " " + d.sha256() + "\n");
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write sound digest cache: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.pomotimo.logic.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the steps of the application startup and records how long each of them took.
+ * <p>Steps that do not depend on each other run in parallel on a small pool of daemon threads,
+ * steps that have to run on the calling thread (e.g. building the window on the JavaFX thread) are
+ * timed with {@link StartupOrchestrator#run(String, Supplier)}. Work that is started elsewhere can be
+ * added to the report with {@link StartupOrchestrator#track(String, CompletableFuture)}.</p>
+ * <p>All times in the {@link StartupOrchestrator#report()} are relative to the creation of the orchestrator.</p>
+ */
+public class StartupOrchestrator {
+    private static final Logger logger = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private final long startNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+    private final ExecutorService pool;
+
+    /**
+     * A finished startup step.
+     *
+     * @param name the name of the step.
+     * @param thread the thread the step ran on, {@code (tracked)} for work started elsewhere.
+     * @param startNanos the start of the step, relative to the start of the orchestrator.
+     * @param durationNanos the duration of the step, {@code 0} for milestones.
+     */
+    public record Phase(String name, String thread, long startNanos, long durationNanos) {}
+
+    /**
+     * Creates an orchestrator with two to four threads for the parallel steps.
+     * The steps mostly wait for the disk, so there are at least two threads even on a single core.
+     */
+    public StartupOrchestrator() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "pomo-startup-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Runs a step in the background once all given steps have completed.
+     * A failing step is logged and does not stop the steps that depend on it.
+     *
+     * @param name the name of the step in the report.
+     * @param step the work to do.
+     * @param after the steps that have to be finished first.
+     * @return a future that completes when the step has run.
+     */
+    public CompletableFuture<Void> runAsync(String name, Runnable step, CompletableFuture<?>... after) {
+        CompletableFuture<Void> dependencies = CompletableFuture.allOf(after).exceptionally(e -> null);
+        CompletableFuture<Void> future = dependencies.thenRunAsync(() -> timed(name, () -> {
+            step.run();
+            return null;
+        }), pool).exceptionally(e -> {
+            logger.error("Startup step '{}' failed: {}", name, e.getMessage(), e);
+            return null;
+        });
+        synchronized (this) {
+            pending.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a step on the calling thread.
+     *
+     * @param name the name of the step in the report.
+     * @param step the work to do.
+     * @return the result of the step.
+     * @param <T> the type of the result.
+     */
+    public <T> T run(String name, Supplier<T> step) {
+        return timed(name, step);
+    }
+
+    /**
+     * Adds work that has been started elsewhere to the report, it ends when the future completes.
+     *
+     * @param name the name of the step in the report.
+     * @param future the running work.
+     */
+    public void track(String name, CompletableFuture<?> future) {
+        long start = System.nanoTime();
+        CompletableFuture<?> tracked = future.handle((result, e) -> {
+            record(name, "(tracked)", start, System.nanoTime() - start);
+            return null;
+        });
+        synchronized (this) {
+            pending.add(tracked);
+        }
+    }
+
+    /**
+     * Records a point in time, e.g. when the window has been shown.
+     *
+     * @param name the name of the milestone in the report.
+     */
+    public void mark(String name) {
+        record(name, Thread.currentThread().getName(), System.nanoTime(), 0);
+    }
+
+    /**
+     * Gets a future that completes when all background and tracked steps that have been started so far are done.
+     *
+     * @return the future.
+     */
+    public synchronized CompletableFuture<Void> whenDone() {
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Gets the recorded steps, ordered by their start.
+     *
+     * @return a copy of the recorded phases.
+     */
+    public synchronized List<Phase> getPhases() {
+        List<Phase> copy = new ArrayList<>(phases);
+        copy.sort(Comparator.comparingLong(Phase::startNanos));
+        return copy;
+    }
+
+    /**
+     * Formats the recorded steps as a table with the start, duration and thread of every step.
+     *
+     * @return the startup report.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("Startup report (ms since launch of the startup sequence)\n");
+        sb.append(String.format("%-22s %9s %9s  %s%n", "phase", "start", "duration", "thread"));
+        for (Phase p : getPhases()) {
+            sb.append(String.format("%-22s %9.1f %9.1f  %s%n", p.name(), p.startNanos() / 1e6,
+                    p.durationNanos() / 1e6, p.thread()));
+        }
+        ProcessHandle.current().info().startInstant().ifPresent(jvmStart -> sb.append(String.format(
+                "JVM start to startup sequence: %d ms%n",
+                Duration.between(jvmStart, Instant.now()).toMillis() - (System.nanoTime() - startNanos) / 1_000_000)));
+        return sb.toString();
+    }
+
+    /**
+     * Stops the startup threads once all background steps are done.
+     */
+    public void shutdown() {
+        whenDone().whenComplete((v, e) -> pool.shutdown());
+    }
+
+    private <T> T timed(String name, Supplier<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            long duration = System.nanoTime() - start;
+            record(name, Thread.currentThread().getName(), start, duration);
+            logger.debug("Startup step '{}' took {} ms", name, duration / 1_000_000);
+        }
+    }
+
+    private synchronized void record(String name, String thread, long start, long duration) {
+        phases.add(new Phase(name, thread, start - startNanos, duration));
+    }
+}
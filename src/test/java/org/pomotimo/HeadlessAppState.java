@@ -0,0 +1,33 @@
+package org.pomotimo;
+
+import org.pomotimo.gui.state.AppState;
+import org.pomotimo.gui.state.TaskViewState;
+import org.pomotimo.gui.state.TimerViewState;
+import org.pomotimo.logic.preset.Preset;
+
+/**
+ * An {@link AppState} that sets its properties on the calling thread, so that logic classes can be tested
+ * without starting the JavaFX toolkit.
+ */
+public class HeadlessAppState extends AppState {
+
+    @Override
+    public void setCurrentPreset(Preset preset) {
+        currentPresetProperty().set(preset);
+    }
+
+    @Override
+    public void setTimerViewState(TimerViewState state) {
+        timerViewStateProperty().set(state);
+    }
+
+    @Override
+    public void setTaskViewState(TaskViewState state) {
+        taskViewStateProperty().set(state);
+    }
+
+    @Override
+    public void setWindowVisible(boolean visible) {
+        windowVisibleProperty().set(visible);
+    }
+}
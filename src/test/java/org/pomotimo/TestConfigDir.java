@@ -0,0 +1,35 @@
+package org.pomotimo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.pomotimo.logic.config.AppConstants;
+
+/**
+ * Gives every test an empty {@link AppConstants#CONFIG_DIR}. The Gradle test task points {@code user.home}
+ * to a directory inside the build folder, so the real configuration is never touched.
+ */
+public final class TestConfigDir {
+
+    private TestConfigDir() {}
+
+    /**
+     * Deletes everything in the configuration directory, except the media directory whose default sounds
+     * are extracted only once per test run.
+     */
+    public static void clear() throws IOException {
+        if (Files.exists(AppConstants.CONFIG_DIR)) {
+            try (Stream<Path> files = Files.walk(AppConstants.CONFIG_DIR)) {
+                for (Path f : files.sorted(Comparator.reverseOrder()).toList()) {
+                    if (!f.equals(AppConstants.CONFIG_DIR) && !f.startsWith(AppConstants.MEDIA_DIR)) {
+                        Files.delete(f);
+                    }
+                }
+            }
+        }
+        Files.createDirectories(AppConstants.CONFIG_DIR);
+    }
+}
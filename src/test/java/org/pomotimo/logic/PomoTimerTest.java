@@ -0,0 +1,101 @@
+package org.pomotimo.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PomoTimerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_JITTER = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long PAUSE = TimeUnit.MILLISECONDS.toNanos(1500);
+    private static final int HOUR_SECONDS = 3600;
+
+    /**
+     * A {@link VirtualClock} under load: every task runs late by up to {@link #MAX_JITTER}, and one in a
+     * hundred by a pause of {@link #PAUSE}, like during a long garbage collection.
+     */
+    private static final class LaggingClock implements ClockSource {
+        private final VirtualClock clock = new VirtualClock();
+        private final Random random = new Random(42);
+        private long totalLag;
+
+        @Override
+        public long nanoTime() {
+            return clock.nanoTime();
+        }
+
+        @Override
+        public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+            long lag = random.nextInt(100) == 0 ? PAUSE : (long) (random.nextDouble() * MAX_JITTER);
+            totalLag += lag;
+            return clock.schedule(task, unit.toNanos(delay) + lag, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Test
+    void latenessDoesNotAccumulateOverAnHour() {
+        LaggingClock clock = new LaggingClock();
+        int timerCount = 200;
+        List<PomoTimer> timers = new ArrayList<>();
+        long[] finishedAt = new long[timerCount];
+        long[] startedAt = new long[timerCount];
+        int[] wrongSeconds = new int[1];
+        for (int i = 0; i < timerCount; i++) {
+            PomoTimer timer = new PomoTimer(clock);
+            timer.setRemainingSeconds(HOUR_SECONDS);
+            int index = i;
+            startedAt[i] = clock.nanoTime();
+            timer.start(seconds -> {
+                long left = startedAt[index] + HOUR_SECONDS * SECOND - clock.nanoTime();
+                if (seconds != Math.max(0, (left + SECOND - 1) / SECOND)) {
+                    wrongSeconds[0]++;
+                }
+                if (seconds == 0) {
+                    finishedAt[index] = clock.nanoTime();
+                }
+            });
+            timers.add(timer);
+            /* spread the timers over a second */
+            clock.clock.advance(SECOND / timerCount, TimeUnit.NANOSECONDS);
+        }
+
+        clock.clock.advance(HOUR_SECONDS + 2, TimeUnit.SECONDS);
+
+        assertTrue(clock.totalLag > TimeUnit.MINUTES.toNanos(1), "a counting timer would drift by the total lag");
+        assertEquals(0, wrongSeconds[0]);
+        long maxLateness = 0;
+        for (int i = 0; i < timerCount; i++) {
+            long drift = finishedAt[i] - startedAt[i] - HOUR_SECONDS * SECOND;
+            assertTrue(finishedAt[i] > 0, "timer " + i + " did not finish");
+            assertTrue(drift >= 0 && drift <= PAUSE, "timer " + i + " finished " + drift + " ns late");
+            assertTrue(timers.get(i).getMaxTickLatenessNanos() <= PAUSE);
+            assertTrue(drift <= timers.get(i).getMaxTickLatenessNanos());
+            maxLateness = Math.max(maxLateness, timers.get(i).getMaxTickLatenessNanos());
+        }
+        assertEquals(PAUSE, maxLateness);
+    }
+
+    @Test
+    void unobservedTimerWakesUpOnlyAtTheDeadline() {
+        VirtualClock clock = new VirtualClock();
+        PomoTimer timer = new PomoTimer(clock);
+        List<Integer> ticks = new ArrayList<>();
+        timer.setObserved(false);
+        timer.setRemainingSeconds(HOUR_SECONDS);
+        timer.start(ticks::add);
+
+        clock.advance(HOUR_SECONDS - 1, TimeUnit.SECONDS);
+        assertEquals(List.of(), ticks);
+        timer.setObserved(true);
+        assertEquals(1, timer.getRemainingSeconds());
+        clock.advance(1, TimeUnit.SECONDS);
+        assertEquals(List.of(0), ticks);
+        assertEquals(0, timer.getMaxTickLatenessNanos());
+    }
+}
@@ -0,0 +1,163 @@
+package org.pomotimo.logic;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PomodoroEngineTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final PomodoroEngine engine = new PomodoroEngine(clock);
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine.configure(25 * 60, 5 * 60, 15 * 60, 3);
+        engine.setObserved(false);
+        engine.addListener(new PomodoroEngine.Listener() {
+            @Override
+            public void onPhaseFinished(PomoState finished) {
+                events.add("finished " + finished);
+            }
+
+            @Override
+            public void onPhaseChanged(PomoState state, int cycle, int durationSeconds) {
+                events.add(state + " " + cycle + " " + durationSeconds);
+            }
+
+            @Override
+            public void onStarted(PomoState state) {
+                events.add("started " + state);
+            }
+
+            @Override
+            public void onPhaseReset(PomoState state) {
+                events.add("reset " + state);
+            }
+        });
+    }
+
+    @Test
+    void autoContinueRunsThroughAWholeCycle() {
+        engine.setAutoContinue(true);
+        engine.start();
+        clock.advance(3 * 25 + 2 * 5 + 15, TimeUnit.MINUTES);
+
+        assertEquals(List.of("started FOCUS",
+                "finished FOCUS", "SHORTBR 2 300", "started SHORTBR",
+                "finished SHORTBR", "FOCUS 2 1500", "started FOCUS",
+                "finished FOCUS", "SHORTBR 3 300", "started SHORTBR",
+                "finished SHORTBR", "FOCUS 3 1500", "started FOCUS",
+                "finished FOCUS", "LONGBR 1 900", "started LONGBR",
+                "finished LONGBR", "FOCUS 1 1500", "started FOCUS"), events);
+        assertTrue(engine.isRunning());
+        assertEquals(25 * 60, engine.getRemainingSeconds());
+    }
+
+    @Test
+    void withoutAutoContinueTheEngineWaitsAfterAPhase() {
+        engine.start();
+        clock.advance(2, TimeUnit.HOURS);
+
+        assertEquals(List.of("started FOCUS", "finished FOCUS", "SHORTBR 2 300"), events);
+        assertFalse(engine.isRunning());
+        assertEquals(PomoState.SHORTBR, engine.getState());
+        assertEquals(5 * 60, engine.getRemainingSeconds());
+    }
+
+    @Test
+    void skipKeepsTheCountdownRunning() {
+        engine.start();
+        clock.advance(10, TimeUnit.MINUTES);
+        engine.skip();
+        assertTrue(engine.isRunning());
+        assertEquals(5 * 60, engine.getRemainingSeconds());
+
+        clock.advance(5, TimeUnit.MINUTES);
+        assertEquals(List.of("started FOCUS", "SHORTBR 2 300", "finished SHORTBR", "FOCUS 2 1500"), events);
+        assertFalse(engine.isRunning());
+    }
+
+    @Test
+    void cycleCountWrapsAfterTheLongBreak() {
+        for (int i = 0; i < 2 * 3 - 1; i++) {
+            engine.skip();
+        }
+        assertEquals(PomoState.LONGBR, engine.getState());
+        assertEquals(1, engine.getCycle());
+        engine.skip();
+        assertEquals(PomoState.FOCUS, engine.getState());
+        assertEquals(1, engine.getCycle());
+
+        engine.skip();
+        engine.resetCycle();
+        assertEquals(PomoState.FOCUS, engine.getState());
+        assertEquals(1, engine.getCycle());
+        assertEquals(25 * 60, engine.getRemainingSeconds());
+    }
+
+    @Test
+    void pauseKeepsTheRemainingTime() {
+        engine.start();
+        clock.advance(90_500, TimeUnit.MILLISECONDS);
+        engine.pause();
+        clock.advance(1, TimeUnit.HOURS);
+        assertEquals(25 * 60 - 90, engine.getRemainingSeconds());
+
+        engine.start();
+        clock.advance(25 * 60 - 91, TimeUnit.SECONDS);
+        assertEquals(PomoState.FOCUS, engine.getState());
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        assertEquals(PomoState.SHORTBR, engine.getState());
+    }
+
+    @Test
+    void skipWhileThePhaseEndsAdvancesOnce() throws InterruptedException {
+        whileThePhaseEnds(engine::skip);
+
+        assertEquals(PomoState.SHORTBR, engine.getState());
+        assertEquals(2, engine.getCycle());
+        assertEquals(5 * 60, engine.getRemainingSeconds());
+        assertEquals(List.of("started FOCUS", "SHORTBR 2 300"), events);
+    }
+
+    @Test
+    void resetWhileThePhaseEndsKeepsThePhase() throws InterruptedException {
+        engine.setAutoContinue(true);
+        whileThePhaseEnds(engine::resetPhase);
+
+        assertEquals(PomoState.FOCUS, engine.getState());
+        assertEquals(1, engine.getCycle());
+        assertFalse(engine.isRunning());
+        assertEquals(25 * 60, engine.getRemainingSeconds());
+        assertEquals(List.of("started FOCUS", "reset FOCUS"), events);
+    }
+
+    /**
+     * Runs the last tick of a focus phase on another thread and performs the action after the timer has stopped,
+     * but before the engine has handled the end of the phase.
+     */
+    private void whileThePhaseEnds(Runnable action) throws InterruptedException {
+        engine.start();
+        clock.advance(25 * 60 - 1, TimeUnit.SECONDS);
+        Thread ticker = new Thread(() -> clock.advance(1, TimeUnit.SECONDS));
+        synchronized (engine) {
+            ticker.start();
+            long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (ticker.getState() != Thread.State.BLOCKED) {
+                assertTrue(System.nanoTime() < timeout, "the tick never reached the engine");
+                Thread.onSpinWait();
+            }
+            assertFalse(engine.isRunning());
+            action.run();
+        }
+        ticker.join();
+    }
+}
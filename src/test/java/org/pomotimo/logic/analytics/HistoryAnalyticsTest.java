@@ -0,0 +1,164 @@
+package org.pomotimo.logic.analytics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.analytics.HistoryAnalytics.FocusDays;
+import org.pomotimo.logic.analytics.HistoryAnalytics.PresetInterruptions;
+import org.pomotimo.logic.analytics.HistoryAnalytics.SessionLengths;
+import org.pomotimo.logic.analytics.HistoryAnalytics.Streak;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryAnalyticsTest {
+    private static final String[] PRESETS = {UUID.randomUUID().toString(), UUID.randomUUID().toString(), null};
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+    private static final long START = 1_600_000_000_000L;
+    /* Several fork/join leaves whose bounds do not line up with the segments */
+    private static final int RECORDS = 4 * HistoryAnalytics.LEAF_RECORDS + 1234;
+
+    @TempDir
+    Path dir;
+    private final List<SessionRecord> records = new ArrayList<>();
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private SessionHistory history;
+    private HistoryAnalytics analytics;
+    private long end;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        history = new SessionHistory(dir, 5000);
+        Random random = new Random(23);
+        long t = START;
+        for (int i = 0; i < RECORDS; i++) {
+            /* a gap of a few days now and then ends a streak */
+            t += random.nextInt(200) == 0 ? 3 * 86_400_000L : random.nextInt(90 * 60_000);
+            SessionRecord r = new SessionRecord(t, t + random.nextInt(3 * 3_600_000),
+                    random.nextInt(3) == 0 ? PomoState.SHORTBR : PomoState.FOCUS,
+                    PRESETS[random.nextInt(PRESETS.length)], null, random.nextInt(5) == 0);
+            history.append(r);
+            records.add(r);
+        }
+        end = t + 1;
+        analytics = new HistoryAnalytics(history, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        history.close();
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelScansMatchASequentialScan() {
+        Random random = new Random(5);
+        List<long[]> ranges = new ArrayList<>();
+        ranges.add(new long[] {Long.MIN_VALUE, Long.MAX_VALUE});
+        for (int i = 0; i < 8; i++) {
+            long from = START + (long) (random.nextDouble() * (end - START));
+            ranges.add(new long[] {from, from + (long) (random.nextDouble() * (end - from))});
+        }
+
+        for (long[] range : ranges) {
+            List<SessionRecord> inRange = records.stream()
+                    .filter(r -> r.startMillis() >= range[0] && r.startMillis() < range[1])
+                    .toList();
+
+            FocusDays days = analytics.focusDays(range[0], range[1], ZONE);
+            FocusDays sequentialDays = new FocusDays(ZONE);
+            inRange.forEach(sequentialDays::add);
+            assertEquals(sequentialDays.count(), days.count());
+            assertEquals(sequentialDays.longestStreak(), days.longestStreak());
+            assertEquals(sequentialDays.lastStreak(), days.lastStreak());
+            assertEquals(bruteForceLongestStreak(inRange), days.longestStreak());
+
+            SessionLengths lengths = analytics.sessionLengths(range[0], range[1], ZONE);
+            SessionLengths sequentialLengths = new SessionLengths(ZONE);
+            inRange.forEach(sequentialLengths::add);
+            for (int h = 0; h < 24; h++) {
+                Stats a = lengths.hour(h);
+                Stats b = sequentialLengths.hour(h);
+                assertEquals(b.count(), a.count());
+                assertEquals(b.sum(), a.sum());
+                assertEquals(b.min(), a.min());
+                assertEquals(b.max(), a.max());
+            }
+            assertArrayEquals(sequentialLengths.minutes().counts(), lengths.minutes().counts());
+            long[] sorted = inRange.stream().filter(r -> r.phase() == PomoState.FOCUS)
+                    .mapToLong(SessionRecord::durationMillis).sorted().toArray();
+            for (double q : new double[] {0.1, 0.5, 0.9, 0.99}) {
+                assertEquals(sequentialLengths.quantile(q), lengths.quantile(q));
+                double exact = sorted[(int) Math.min(sorted.length - 1, Math.floor(q * sorted.length))];
+                assertTrue(Math.abs(lengths.quantile(q) - exact) <= 2 * QuantileSketch.ACCURACY * exact + 1,
+                        "quantile " + q + ": " + lengths.quantile(q) + " vs " + exact);
+            }
+
+            PresetInterruptions interruptions = analytics.presetInterruptions(range[0], range[1]);
+            for (String preset : PRESETS) {
+                long total = inRange.stream()
+                        .filter(r -> r.phase() == PomoState.FOCUS && Objects.equals(preset, r.presetId()))
+                        .count();
+                long interrupted = inRange.stream()
+                        .filter(r -> r.phase() == PomoState.FOCUS && r.interrupted()
+                                && Objects.equals(preset, r.presetId()))
+                        .count();
+                assertEquals(total, interruptions.total(preset));
+                assertEquals(total == 0 ? 0 : (double) interrupted / total, interruptions.rate(preset), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void emptyRangesHaveNoResults() {
+        FocusDays days = analytics.focusDays(end, end + 86_400_000L, ZONE);
+        assertEquals(0, days.count());
+        assertNull(days.longestStreak());
+        assertNull(days.lastStreak());
+        assertEquals(0, analytics.presetInterruptions(0, START).presets().size());
+        assertEquals(0, Arrays.stream(analytics.sessionLengths(0, START, ZONE).minutes().counts()).sum());
+    }
+
+    private static Streak bruteForceLongestStreak(List<SessionRecord> inRange) {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (SessionRecord r : inRange) {
+            if (r.phase() == PomoState.FOCUS && !r.interrupted()) {
+                days.add(Instant.ofEpochMilli(r.startMillis()).atZone(ZONE).toLocalDate());
+            }
+        }
+        Streak longest = null;
+        LocalDate start = null;
+        LocalDate previous = null;
+        for (LocalDate day : days) {
+            if (previous == null || !day.equals(previous.plusDays(1))) {
+                start = day;
+            }
+            int length = (int) (day.toEpochDay() - start.toEpochDay()) + 1;
+            if (longest == null || length > longest.days()) {
+                longest = new Streak(start, length);
+            }
+            previous = day;
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,31 @@
+package org.pomotimo.logic.audio;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AudioDataTest {
+    private static final Path MEDIA = Path.of("media").toAbsolutePath();
+
+    @Test
+    void wavSoundsKeepTheNameTheyWereSavedWith() {
+        AudioData wav = AudioData.createAudioDataFromFile(MEDIA.resolve("zarathustra_strauss.wav").toString());
+        assertEquals("zarathustra_strauss", wav.name());
+        assertEquals("chime", AudioData.createAudioDataFromFile(MEDIA.resolve("chime.WAV").toString()).name());
+    }
+
+    @Test
+    void otherFormatsAreNamedWithTheirFormat() {
+        AudioData wav = AudioData.createAudioDataFromFile(MEDIA.resolve("zarathustra_strauss.wav").toString());
+        AudioData mp3 = AudioData.createAudioDataFromFile(MEDIA.resolve("zarathustra_strauss.mp3").toString());
+        AudioData m4a = AudioData.createAudioDataFromFile(MEDIA.resolve("zarathustra_strauss.m4a").toString());
+
+        assertEquals("zarathustra_strauss (MP3)", mp3.name());
+        assertEquals("zarathustra_strauss (M4A)", m4a.name());
+        assertNotEquals(wav.toString(), mp3.toString());
+        assertEquals("no_extension", AudioData.createAudioDataFromFile(MEDIA.resolve("no_extension").toString()).name());
+    }
+}
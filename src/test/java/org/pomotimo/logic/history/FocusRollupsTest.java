@@ -0,0 +1,172 @@
+package org.pomotimo.logic.history;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.history.FocusRollups.Bucket;
+import org.pomotimo.logic.history.FocusRollups.Period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class FocusRollupsTest {
+    private static final String[] PRESETS = {UUID.randomUUID().toString(), UUID.randomUUID().toString(), null};
+    /* Has daylight saving time, so some days are 23 or 25 hours long */
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+    private static final long START = LocalDate.of(2022, 12, 20).atStartOfDay(BERLIN).toInstant().toEpochMilli();
+
+    @TempDir
+    Path dir;
+    private final Random random = new Random(22);
+    private final List<SessionRecord> records = new ArrayList<>();
+    private long time = START;
+
+    @Test
+    void liveAppendsMatchABruteForceCount() throws IOException {
+        FocusRollups rollups = new FocusRollups(dir.resolve("rollups.json"), BERLIN);
+        try (SessionHistory history = new SessionHistory(dir.resolve("history"), 512)) {
+            rollups.attach(history);
+            append(history, 6_000);
+            assertMatchesBruteForce(rollups, BERLIN);
+        }
+    }
+
+    @Test
+    void reattachingAddsOnlyTheMissingRecords() throws IOException {
+        Path file = dir.resolve("rollups.json");
+        try (SessionHistory history = new SessionHistory(dir.resolve("history"), 512)) {
+            FocusRollups rollups = new FocusRollups(file, BERLIN);
+            rollups.attach(history);
+            append(history, 3_000);
+            rollups.save();
+            history.removeListener(rollups);
+            /* recorded while the rollups were not attached, e.g. the rollups were not saved on exit */
+            append(history, 1_500);
+        }
+        try (SessionHistory history = new SessionHistory(dir.resolve("history"), 512)) {
+            FocusRollups reloaded = new FocusRollups(file, BERLIN);
+            reloaded.attach(history);
+            assertMatchesBruteForce(reloaded, BERLIN);
+            append(history, 500);
+            assertMatchesBruteForce(reloaded, BERLIN);
+
+            /* another time zone moves phases near midnight to other days, the buckets are rebuilt */
+            ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+            reloaded.save();
+            FocusRollups otherZone = new FocusRollups(file, tokyo);
+            otherZone.attach(history);
+            assertMatchesBruteForce(otherZone, tokyo);
+        }
+    }
+
+    @Test
+    void rollupsOfALongerHistoryAreRebuilt() throws IOException {
+        Path file = dir.resolve("rollups.json");
+        try (SessionHistory history = new SessionHistory(dir.resolve("history"), 512)) {
+            FocusRollups rollups = new FocusRollups(file, BERLIN);
+            rollups.attach(history);
+            append(history, 1_000);
+            rollups.save();
+        }
+        records.clear();
+        try (SessionHistory history = new SessionHistory(dir.resolve("new-history"), 512)) {
+            append(history, 200);
+            FocusRollups rebuilt = new FocusRollups(file, BERLIN);
+            rebuilt.attach(history);
+            assertMatchesBruteForce(rebuilt, BERLIN);
+            assertFalse(rebuilt.query(Period.MONTH, null, LocalDate.MIN.plusYears(1), LocalDate.MAX.minusYears(1))
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    void savedRollupsAreLoadedInsteadOfRebuilt() throws IOException {
+        Path file = dir.resolve("rollups.json");
+        try (SessionHistory history = new SessionHistory(dir.resolve("history"), 512)) {
+            FocusRollups rollups = new FocusRollups(file, BERLIN);
+            rollups.attach(history);
+            append(history, 800);
+            rollups.save();
+        }
+        List<SessionRecord> saved = List.copyOf(records);
+        long savedUntil = time;
+        /* a history of the same length with other phases: only loaded buckets still count the saved phases */
+        try (SessionHistory history = new SessionHistory(dir.resolve("other-history"), 512)) {
+            append(history, 800);
+            FocusRollups loaded = new FocusRollups(file, BERLIN);
+            loaded.attach(history);
+            records.clear();
+            records.addAll(saved);
+            time = savedUntil;
+            assertMatchesBruteForce(loaded, BERLIN);
+        }
+    }
+
+    private void append(SessionHistory history, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            time += random.nextInt(4 * 3_600_000);
+            SessionRecord r = new SessionRecord(time, time + random.nextInt(40 * 60_000),
+                    PomoState.values()[random.nextInt(3)], PRESETS[random.nextInt(PRESETS.length)],
+                    null, random.nextInt(4) == 0);
+            history.append(r);
+            records.add(r);
+        }
+    }
+
+    private void assertMatchesBruteForce(FocusRollups rollups, ZoneId zone) {
+        LocalDate first = Instant.ofEpochMilli(START).atZone(zone).toLocalDate();
+        LocalDate last = Instant.ofEpochMilli(time).atZone(zone).toLocalDate().plusDays(1);
+        List<LocalDate[]> ranges = new ArrayList<>();
+        ranges.add(new LocalDate[] {first.minusDays(40), last.plusDays(40)});
+        for (int i = 0; i < 20; i++) {
+            LocalDate from = first.plusDays(random.nextInt((int) (last.toEpochDay() - first.toEpochDay())));
+            ranges.add(new LocalDate[] {from, from.plusDays(1 + random.nextInt(120))});
+        }
+        for (Period period : Period.values()) {
+            for (String preset : new String[] {null, PRESETS[0], PRESETS[1], ""}) {
+                for (LocalDate[] range : ranges) {
+                    assertEquals(bruteForce(zone, period, preset, range[0], range[1]),
+                            rollups.query(period, preset, range[0], range[1]),
+                            period + " " + preset + " " + range[0] + " - " + range[1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the focus phases of the buckets that start in the range by looking at every record.
+     */
+    private List<Bucket> bruteForce(ZoneId zone, Period period, String presetId, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, long[]> counts = new TreeMap<>();
+        for (SessionRecord r : records) {
+            if (r.phase() != PomoState.FOCUS) {
+                continue;
+            }
+            if (presetId != null && !presetId.equals(Objects.requireNonNullElse(r.presetId(), ""))) {
+                continue;
+            }
+            LocalDate bucket = period.bucketOf(Instant.ofEpochMilli(r.startMillis()).atZone(zone).toLocalDate());
+            if (bucket.isBefore(period.bucketOf(from)) || !bucket.isBefore(to)) {
+                continue;
+            }
+            long[] c = counts.computeIfAbsent(bucket, k -> new long[3]);
+            c[0] += r.durationMillis();
+            c[r.interrupted() ? 2 : 1]++;
+        }
+        return counts.entrySet().stream()
+                .map(e -> new Bucket(e.getKey(), e.getValue()[0], (int) e.getValue()[1], (int) e.getValue()[2]))
+                .toList();
+    }
+}
@@ -0,0 +1,145 @@
+package org.pomotimo.logic.preset;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pomotimo.HeadlessAppState;
+import org.pomotimo.TestConfigDir;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.PomodoroEngine;
+import org.pomotimo.logic.VirtualClock;
+import org.pomotimo.logic.utils.PersistenceManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FocusTimeTrackerTest {
+    private static final long MINUTE = 60_000;
+
+    private final VirtualClock clock = new VirtualClock();
+    private final PomodoroEngine engine = new PomodoroEngine(clock);
+    private final List<PresetEvent> events = new CopyOnWriteArrayList<>();
+    private PresetManager presetManager;
+    private Preset preset;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestConfigDir.clear();
+        presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+        engine.configure(25 * 60, 5 * 60, 15 * 60, 4);
+        FocusTimeTracker tracker = new FocusTimeTracker(engine, presetManager, clock);
+        engine.addListener(tracker);
+        presetManager.addListener(tracker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presetManager.shutDownScheduler();
+    }
+
+    @Test
+    void runningFocusTimeGoesToTheTopTask() {
+        List<Task> tasks = usePreset(2);
+        engine.start();
+        clock.advance(10, TimeUnit.MINUTES);
+        engine.pause();
+        clock.advance(5, TimeUnit.MINUTES);
+
+        assertEquals(10 * MINUTE, tasks.get(0).getFocusMillis());
+        assertEquals(0, tasks.get(1).getFocusMillis());
+    }
+
+    @Test
+    void choosingAnotherTaskSplitsThePhase() {
+        List<Task> tasks = usePreset(2);
+        engine.start();
+        clock.advance(4, TimeUnit.MINUTES);
+        assertTrue(presetManager.setFocusTask(tasks.get(1)));
+        clock.advance(6, TimeUnit.MINUTES);
+        engine.pause();
+
+        assertEquals(4 * MINUTE, tasks.get(0).getFocusMillis());
+        assertEquals(6 * MINUTE, tasks.get(1).getFocusMillis());
+        assertSame(tasks.get(1), presetManager.getFocusTask().orElseThrow());
+    }
+
+    @Test
+    void breaksAreNotCounted() {
+        List<Task> tasks = usePreset(1);
+        engine.start();
+        clock.advance(30, TimeUnit.MINUTES);
+        assertEquals(PomoState.SHORTBR, engine.getState());
+        engine.start();
+        clock.advance(3, TimeUnit.MINUTES);
+        engine.pause();
+
+        assertEquals(25 * MINUTE, tasks.getFirst().getFocusMillis());
+    }
+
+    @Test
+    void taskAddedDuringAPhaseGetsTheRestOfIt() {
+        usePreset(0);
+        engine.start();
+        clock.advance(2, TimeUnit.MINUTES);
+        Task added = new Task("late", 0);
+        presetManager.addTask(preset, added);
+        clock.advance(3, TimeUnit.MINUTES);
+        engine.pause();
+
+        assertEquals(3 * MINUTE, added.getFocusMillis());
+        assertTrue(events.stream().anyMatch(e -> e instanceof PresetEvent.FocusTaskChanged c && c.task() == added));
+    }
+
+    @Test
+    void editsOfTheTopTaskMoveTheFocusTarget() {
+        List<Task> tasks = usePreset(3);
+        engine.start();
+        clock.advance(1, TimeUnit.MINUTES);
+        presetManager.removeTask(preset, tasks.get(0));
+        clock.advance(2, TimeUnit.MINUTES);
+        presetManager.moveTask(preset, tasks.get(1), 1);
+        clock.advance(4, TimeUnit.MINUTES);
+        engine.pause();
+
+        assertEquals(2 * MINUTE, tasks.get(1).getFocusMillis());
+        assertEquals(4 * MINUTE, tasks.get(2).getFocusMillis());
+        List<Task> targets = events.stream()
+                .filter(e -> e instanceof PresetEvent.FocusTaskChanged)
+                .map(e -> ((PresetEvent.FocusTaskChanged) e).task())
+                .toList();
+        assertEquals(List.of(tasks.get(1), tasks.get(2)), targets);
+    }
+
+    @Test
+    void chosenTaskKeepsTheFocusWhenOthersMove() {
+        List<Task> tasks = usePreset(3);
+        presetManager.setFocusTask(tasks.get(2));
+        events.clear();
+        presetManager.moveTask(preset, tasks.get(1), 0);
+        presetManager.addTask(preset, new Task("new", 0));
+
+        assertTrue(events.stream().noneMatch(e -> e instanceof PresetEvent.FocusTaskChanged));
+        assertSame(tasks.get(2), presetManager.getFocusTask().orElseThrow());
+    }
+
+    private List<Task> usePreset(int taskCount) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task("task " + i, i));
+        }
+        preset = new Preset("focus", 25 * 60, 5 * 60, 15 * 60, null, 4,
+                PersistenceManager.getAudioDataList().getFirst(), tasks);
+        presetManager.addPreset(preset);
+        presetManager.setCurrentPreset(preset);
+        presetManager.addListener(events::add);
+        return new ArrayList<>(preset.getTasks());
+    }
+}
@@ -0,0 +1,92 @@
+package org.pomotimo.logic.preset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pomotimo.HeadlessAppState;
+import org.pomotimo.TestConfigDir;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.utils.PersistenceManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresetManagerTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestConfigDir.clear();
+    }
+
+    @Test
+    void shutdownFoldsTheJournalIntoTheSnapshot() throws IOException {
+        Preset stored = new Preset("work", 1500, 300, 900, null, 4,
+                PersistenceManager.getAudioDataList().getFirst(), new ArrayList<>(List.of(new Task("a", 0))));
+        new PersistenceManager(false).savePresets(List.of(stored));
+
+        PresetManager presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+        Preset p = presetManager.getCurrentPreset().orElseThrow();
+        for (int i = 0; i < 50; i++) {
+            presetManager.addTask(p, new Task("task " + i, i + 1));
+        }
+        presetManager.shutDownScheduler();
+
+        assertEquals(0, Files.size(AppConstants.PRESETS_JOURNAL_FILE));
+        PersistenceManager persistence = new PersistenceManager(false);
+        Preset reloaded = persistence.loadPresets().getFirst();
+        persistence.loadTasks(reloaded);
+        assertEquals(51, reloaded.getTaskAmount());
+        assertEquals(p.getTasks(), reloaded.getTasks());
+    }
+
+    @Test
+    void shutdownWithoutEditsKeepsThePresetsFile() throws IOException {
+        Preset stored = new Preset("work", 1500, 300, 900, null, 4,
+                PersistenceManager.getAudioDataList().getFirst(), new ArrayList<>());
+        new PersistenceManager(false).savePresets(List.of(stored));
+        FileTime modified = Files.getLastModifiedTime(AppConstants.PRESETS_FILE);
+
+        PresetManager presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+        presetManager.shutDownScheduler();
+
+        assertEquals(modified, Files.getLastModifiedTime(AppConstants.PRESETS_FILE));
+        assertFalse(new PersistenceManager(false).hasJournalRecords());
+    }
+
+    @Test
+    void editingTheCurrentPresetKeepsTheFocusTask() throws IOException {
+        Preset stored = new Preset("work", 1500, 300, 900, null, 4, PersistenceManager.getAudioDataList().getFirst(),
+                new ArrayList<>(List.of(new Task("a", 1), new Task("b", 2), new Task("c", 3))));
+        new PersistenceManager(false).savePresets(List.of(stored));
+
+        PresetManager presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+        Preset p = presetManager.getCurrentPreset().orElseThrow();
+        Task chosen = p.getTasks().get(1);
+        assertTrue(presetManager.setFocusTask(chosen));
+
+        /* what the preset editor does when only the sound is changed */
+        Preset updated = p.copyWith(p.getName(), p.getDurationFocus(), p.getDurationShortBreak(),
+                p.getDurationLongBreak(), p.getCycleAmount(), PersistenceManager.getAudioDataList().getLast());
+        presetManager.updatePreset(p, updated);
+        presetManager.setCurrentPreset(updated);
+        assertEquals(chosen, presetManager.getFocusTask().orElseThrow());
+
+        Preset other = new Preset("other", 1500, 300, 900, null, 4, PersistenceManager.getAudioDataList().getFirst(),
+                new ArrayList<>(List.of(new Task("x", 1))));
+        presetManager.addPreset(other);
+        presetManager.setCurrentPreset(other);
+        assertEquals("x", presetManager.getFocusTask().orElseThrow().getName());
+        presetManager.setCurrentPreset(updated);
+        assertEquals("a", presetManager.getFocusTask().orElseThrow().getName());
+        presetManager.shutDownScheduler();
+    }
+}
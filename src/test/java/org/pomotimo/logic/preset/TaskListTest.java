@@ -0,0 +1,120 @@
+package org.pomotimo.logic.preset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskListTest {
+
+    /**
+     * The name and priority of every task, a snapshot must keep them even if the tasks change later.
+     */
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(t -> t.getUUId() + " " + t.getName() + " " + t.getPriority()).toList();
+    }
+
+    @Test
+    void randomEditsMatchAnArrayList() {
+        Random random = new Random(1019);
+        TaskList list = new TaskList();
+        List<Task> model = new ArrayList<>();
+        List<TaskList> snapshots = new ArrayList<>();
+        List<List<String>> expectedSnapshots = new ArrayList<>();
+
+        for (int step = 0; step < 10_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 || model.isEmpty()) {
+                Task t = new Task("task " + step, random.nextInt(3) == 0 ? 0 : random.nextInt(Integer.MAX_VALUE));
+                assertTrue(list.add(t));
+                model.add(t);
+            } else if (op < 6) {
+                Task t = model.remove(random.nextInt(model.size()));
+                assertTrue(list.remove(t));
+                assertFalse(list.remove(t));
+            } else if (op < 9) {
+                Task t = model.get(random.nextInt(model.size()));
+                /* moving to the top again and again uses up the gaps and forces a rebalance */
+                int to = random.nextBoolean() ? random.nextInt(model.size() + 2) - 1 : Math.min(1, model.size() - 1);
+                model.remove(t);
+                model.add(Math.max(0, Math.min(to, model.size())), t);
+                assertTrue(list.move(t, to));
+            } else {
+                Task known = model.get(random.nextInt(model.size()));
+                assertFalse(list.add(new Task("copy", 0, known.getUUId())));
+                assertFalse(list.move(new Task("unknown", 0), 0));
+            }
+
+            if (step % 37 == 0) {
+                assertMatches(model, list);
+            }
+            if (step % 500 == 0) {
+                snapshots.add(list.snapshot());
+                expectedSnapshots.add(describe(model));
+            }
+        }
+        assertMatches(model, list);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expectedSnapshots.get(i), describe(snapshots.get(i).view()));
+        }
+    }
+
+    @Test
+    void setAllOrdersByPriorityAndKeepsTheOrderOfEqualPriorities() {
+        Task a = new Task("a", 5);
+        Task b = new Task("b", 1);
+        Task c = new Task("c", 5);
+        Task d = new Task("d", 1);
+        TaskList list = new TaskList();
+        list.setAll(List.of(a, b, c, d, new Task("duplicate of a", 0, a.getUUId())));
+
+        assertEquals(List.of(b, d, a, c), list.view());
+        assertEquals(List.of(b, d, a, c), list.snapshot().view());
+        for (Task t : List.of(a, b, c, d)) {
+            assertEquals(list.view().indexOf(t), list.indexOfTask(t));
+        }
+        list.move(a, 0);
+        assertEquals(List.of(a, b, d, c), list.view());
+    }
+
+    @Test
+    void snapshotsCannotBeChanged() {
+        TaskList list = new TaskList();
+        Task t = new Task("a", 0);
+        list.add(t);
+        TaskList snapshot = list.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Task("b", 0)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(t));
+        assertThrows(UnsupportedOperationException.class, snapshot::clear);
+        assertThrows(UnsupportedOperationException.class, () -> list.view().add(t));
+        assertEquals(0, snapshot.indexOfTask(t));
+        assertTrue(snapshot.contains(t));
+    }
+
+    private static void assertMatches(List<Task> model, TaskList list) {
+        assertEquals(model.size(), list.size());
+        List<Task> view = list.view();
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i) != view.get(i)) {
+                throw new AssertionError("task " + i + " differs: " + model.get(i) + " != " + view.get(i));
+            }
+            if (i > 0) {
+                assertTrue(view.get(i - 1).getPriority() < view.get(i).getPriority(), "ranks are not ascending");
+            }
+        }
+        for (int i = 0; i < model.size(); i += 7) {
+            Task t = model.get(i);
+            assertEquals(i, list.indexOfTask(t));
+            assertTrue(list.contains(t));
+            assertEquals(t, list.get(t.getUUId()).orElseThrow());
+        }
+        assertEquals(describe(model), describe(list.snapshot().view()));
+    }
+}
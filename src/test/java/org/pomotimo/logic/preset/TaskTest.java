@@ -0,0 +1,42 @@
+package org.pomotimo.logic.preset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.pomotimo.logic.utils.GsonFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskTest {
+    private final Gson gson = GsonFactory.create(false);
+
+    @Test
+    void focusTimeIsWrittenAndRead() {
+        Task task = new Task("write", 0);
+        task.addFocusMillis(90_000);
+
+        Task read = gson.fromJson(gson.toJson(task, Task.class), Task.class);
+        assertEquals(task, read);
+        assertEquals(90_000, read.getFocusMillis());
+    }
+
+    @Test
+    void tasksOfOlderFilesHaveNoFocusTime() {
+        Task read = gson.fromJson("{\"name\":\"old\",\"uuid\":\"4f1c1b54-2c1b-4e0c-9a3e-0c2f5d3f6a11\",\"priority\":2}",
+                Task.class);
+        assertEquals("old", read.getName());
+        assertEquals(0, read.getFocusMillis());
+    }
+
+    @Test
+    void snapshotsSaveTheCurrentFocusTime() {
+        Task task = new Task("shared", 0);
+        Preset preset = new Preset("p", 1500, 300, 900, null, 4, null, new ArrayList<>(List.of(task)));
+        Preset snapshot = preset.snapshot();
+        preset.getTasks().getFirst().addFocusMillis(5_000);
+
+        assertEquals(5_000, snapshot.getTasks().getFirst().getFocusMillis());
+    }
+}
@@ -0,0 +1,80 @@
+package org.pomotimo.logic.preset;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskVectorTest {
+
+    @Test
+    void randomEditsMatchAnArrayList() {
+        Random random = new Random(19);
+        List<Task> model = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            model.add(new Task("initial " + i, i));
+        }
+        TaskVector vector = TaskVector.of(model);
+        List<TaskVector> versions = new ArrayList<>();
+        List<List<Task>> expectedVersions = new ArrayList<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            /* grow and shrink in phases, so chunks are split and emptied */
+            boolean grow = model.isEmpty() || (step / 2_000) % 2 == 0 ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+            if (grow) {
+                int index = random.nextInt(model.size() + 1);
+                Task t = new Task("task " + step, step);
+                model.add(index, t);
+                vector = vector.plus(index, t);
+            } else {
+                int index = random.nextInt(model.size());
+                model.remove(index);
+                vector = vector.without(index);
+            }
+            if (step % 97 == 0) {
+                assertSameTasks(model, vector);
+            }
+            if (step % 1_000 == 0) {
+                versions.add(vector);
+                expectedVersions.add(List.copyOf(model));
+            }
+        }
+        assertSameTasks(model, vector);
+        for (int i = 0; i < versions.size(); i++) {
+            assertSameTasks(expectedVersions.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    void positionsOutsideTheVectorAreRejected() {
+        TaskVector vector = TaskVector.EMPTY.plus(0, new Task("a", 0)).plus(1, new Task("b", 1));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.plus(3, new Task("c", 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.plus(-1, new Task("c", 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.without(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> TaskVector.EMPTY.get(0));
+        Iterator<Task> it = TaskVector.EMPTY.iterator();
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    private static void assertSameTasks(List<Task> expected, TaskVector actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) {
+                throw new AssertionError("task " + i + " differs: " + expected.get(i) + " != " + actual.get(i));
+            }
+        }
+        List<Task> iterated = new ArrayList<>();
+        actual.forEach(iterated::add);
+        assertEquals(expected, iterated);
+    }
+}
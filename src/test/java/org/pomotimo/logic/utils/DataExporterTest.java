@@ -0,0 +1,189 @@
+package org.pomotimo.logic.utils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomotimo.HeadlessAppState;
+import org.pomotimo.TestConfigDir;
+import org.pomotimo.logic.PomoState;
+import org.pomotimo.logic.history.SessionHistory;
+import org.pomotimo.logic.history.SessionRecord;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.preset.Task;
+import org.pomotimo.logic.utils.DataExporter.Format;
+import org.pomotimo.logic.utils.DataExporter.Options;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataExporterTest {
+    private static final String[] PRESETS = {UUID.randomUUID().toString(), UUID.randomUUID().toString(), null};
+    private static final long START = 1_500_000_000_000L;
+
+    @TempDir
+    Path dir;
+    private SessionHistory history;
+    private final List<SessionRecord> records = new ArrayList<>();
+    private PresetManager presetManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestConfigDir.clear();
+        history = new SessionHistory(dir.resolve("history"), 256);
+        Random random = new Random(7);
+        long t = START;
+        for (int i = 0; i < 2000; i++) {
+            t += 1000 + random.nextInt(3_600_000);
+            SessionRecord r = new SessionRecord(t, t + random.nextInt(3_000_000), PomoState.values()[i % 3],
+                    PRESETS[random.nextInt(3)], random.nextBoolean() ? UUID.randomUUID().toString() : null,
+                    random.nextInt(5) == 0);
+            history.append(r);
+            records.add(r);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        history.close();
+        if (presetManager != null) {
+            presetManager.shutDownScheduler();
+        }
+    }
+
+    @Test
+    void csvExportMatchesFilters() throws IOException {
+        long from = START + 200 * 3_600_000L;
+        long to = from + 1000 * 3_600_000L;
+        List<SessionRecord> expected = records.stream()
+                .filter(r -> r.startMillis() >= from && r.startMillis() < to && PRESETS[0].equals(r.presetId()))
+                .toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new DataExporter(null).exportSessions(history,
+                Options.all(Format.CSV).between(from, to).forPreset(PRESETS[0]), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(expected.size(), count);
+        assertEquals(expected.size() + 1, lines.length);
+        assertEquals("start,end,durationMillis,phase,presetId,taskId,interrupted", lines[0]);
+        for (int i = 0; i < expected.size(); i++) {
+            SessionRecord r = expected.get(i);
+            String[] fields = lines[i + 1].split(",", -1);
+            assertEquals(java.time.Instant.ofEpochMilli(r.startMillis()).toString(), fields[0]);
+            assertEquals(Long.toString(r.durationMillis()), fields[2]);
+            assertEquals(r.phase().name(), fields[3]);
+            assertEquals(r.taskId() == null ? "" : r.taskId(), fields[5]);
+            assertEquals(Boolean.toString(r.interrupted()), fields[6]);
+        }
+    }
+
+    @Test
+    void gzippedNdjsonExportContainsEveryRecord() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new DataExporter(null).exportSessions(history,
+                Options.forFile(Path.of("sessions.ndjson.gz")), out);
+
+        List<JsonObject> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            reader.lines().forEach(line -> rows.add(JsonParser.parseString(line).getAsJsonObject()));
+        }
+        assertEquals(records.size(), count);
+        assertEquals(records.size(), rows.size());
+        for (int i = 0; i < records.size(); i++) {
+            SessionRecord r = records.get(i);
+            JsonObject row = rows.get(i);
+            assertEquals(r.durationMillis(), row.get("durationMillis").getAsLong());
+            assertEquals(r.presetId() == null, row.get("presetId").isJsonNull());
+            assertEquals(r.interrupted(), row.get("interrupted").getAsBoolean());
+        }
+    }
+
+    @Test
+    void optionsFollowTheFileName() {
+        assertEquals(new Options(Format.CSV, Long.MIN_VALUE, Long.MAX_VALUE, null, false),
+                Options.forFile(Path.of("a.csv")));
+        assertEquals(Format.NDJSON, Options.forFile(Path.of("a.JSONL")).format());
+        Options gz = Options.forFile(Path.of("a.ndjson.gz"));
+        assertEquals(Format.NDJSON, gz.format());
+        assertTrue(gz.gzip());
+    }
+
+    @Test
+    void tasksOfUnloadedPresetsAreStreamedWithoutLoadingThem() throws IOException {
+        Preset current = preset("current", 3);
+        Preset other = preset("other", 4);
+        current.addTask(new Task("say \"hi\", then\nleave", 3));
+        startPresetManager(current, other);
+        Preset stored = presetManager.findPresetById(other.getId()).orElseThrow();
+        assertFalse(stored.isTasksLoaded());
+
+        Path csv = dir.resolve("tasks.csv");
+        long count = new DataExporter(presetManager).exportTasks(Options.all(Format.CSV), csv);
+        assertEquals(8, count);
+        assertFalse(stored.isTasksLoaded());
+        String text = Files.readString(csv);
+        assertTrue(text.contains(",\"say \"\"hi\"\", then\nleave\",3,0\n"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DataExporter(presetManager).exportTasks(Options.all(Format.NDJSON).forPreset(current.getId()), out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("say \"hi\", then\nleave",
+                JsonParser.parseString(lines.get(3)).getAsJsonObject().get("taskName").getAsString());
+    }
+
+    @Test
+    void failedExportLeavesNoFileBehind() throws IOException {
+        Preset current = preset("current", 1);
+        Preset other = preset("other", 2);
+        startPresetManager(current, other);
+        Files.writeString(PersistenceManager.taskFile(other), "[{\"name\":\"half");
+
+        Path target = dir.resolve("tasks.csv");
+        assertThrows(IOException.class,
+                () -> new DataExporter(presetManager).exportTasks(Options.all(Format.CSV), target));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(dir.resolve("history")), files.toList());
+        }
+    }
+
+    /**
+     * Stores the presets and loads them like on startup: the first becomes the current preset and gets its tasks
+     * loaded, the others stay header only.
+     */
+    private void startPresetManager(Preset... presets) {
+        new PersistenceManager(false).savePresets(List.of(presets));
+        presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+    }
+
+    private static Preset preset(String name, int taskCount) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task(name + " task " + i, i));
+        }
+        return new Preset(name, 1500, 300, 900, null, 4, PersistenceManager.getAudioDataList().getFirst(), tasks);
+    }
+}
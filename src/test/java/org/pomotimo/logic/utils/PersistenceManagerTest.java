@@ -0,0 +1,98 @@
+package org.pomotimo.logic.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pomotimo.TestConfigDir;
+import org.pomotimo.logic.config.AppConstants;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistenceManagerTest {
+
+    private final PersistenceManager persistence = new PersistenceManager(false);
+
+    @BeforeEach
+    void clearConfigDir() throws IOException {
+        TestConfigDir.clear();
+    }
+
+    @Test
+    void tasksAreLoadedOnDemand() {
+        Preset saved = preset("work", 3);
+        assertTrue(persistence.savePresets(List.of(saved)));
+
+        Preset loaded = persistence.loadPresets().getFirst();
+        assertFalse(loaded.isTasksLoaded());
+        assertEquals(3, loaded.getTaskAmount());
+        persistence.loadTasks(loaded);
+        assertEquals(saved.getTasks(), loaded.getTasks());
+    }
+
+    @Test
+    void corruptTaskFileFallsBackToBackup() throws IOException {
+        Preset saved = preset("work", 3);
+        persistence.savePresets(List.of(saved));
+        persistence.savePresets(List.of(saved));
+        Files.writeString(taskFile(saved), "[{\"name\":");
+
+        Preset loaded = persistence.loadPresets().getFirst();
+        persistence.loadTasks(loaded);
+        assertFalse(loaded.isTasksUnreadable());
+        assertEquals(saved.getTasks(), loaded.getTasks());
+    }
+
+    @Test
+    void unreadableTaskFileIsNeverOverwritten() throws IOException {
+        Preset saved = preset("work", 3);
+        persistence.savePresets(List.of(saved));
+        String corrupt = "[{\"name\":";
+        Files.writeString(taskFile(saved), corrupt);
+
+        Preset loaded = persistence.loadPresets().getFirst();
+        persistence.loadTasks(loaded);
+        assertTrue(loaded.isTasksLoaded());
+        assertTrue(loaded.isTasksUnreadable());
+        assertTrue(loaded.getTasks().isEmpty());
+
+        assertTrue(persistence.savePresets(List.of(loaded.snapshot())));
+        assertEquals(corrupt, Files.readString(taskFile(saved)));
+        Preset reloaded = persistence.loadPresets().getFirst();
+        assertEquals(3, reloaded.getTaskAmount());
+    }
+
+    @Test
+    void missingTaskFileIsNotReplacedByAnEmptyList() throws IOException {
+        Preset saved = preset("work", 2);
+        persistence.savePresets(List.of(saved));
+        Files.delete(taskFile(saved));
+
+        Preset loaded = persistence.loadPresets().getFirst();
+        persistence.loadTasks(loaded);
+        assertTrue(loaded.isTasksUnreadable());
+        persistence.savePresets(List.of(loaded.snapshot()));
+        assertFalse(Files.exists(taskFile(saved)));
+        assertEquals(2, persistence.loadPresets().getFirst().getTaskAmount());
+    }
+
+    private static Path taskFile(Preset p) {
+        return AppConstants.TASKS_DIR.resolve(p.getId() + ".json");
+    }
+
+    private static Preset preset(String name, int taskCount) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task("task " + i, i));
+        }
+        return new Preset(name, 1500, 300, 900, null, 4, null, tasks);
+    }
+}
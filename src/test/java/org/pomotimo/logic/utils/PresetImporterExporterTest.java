@@ -0,0 +1,59 @@
+package org.pomotimo.logic.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pomotimo.HeadlessAppState;
+import org.pomotimo.TestConfigDir;
+import org.pomotimo.logic.preset.Preset;
+import org.pomotimo.logic.preset.PresetManager;
+import org.pomotimo.logic.preset.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresetImporterExporterTest {
+
+    @TempDir
+    Path dir;
+    private PresetManager presetManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestConfigDir.clear();
+        presetManager = new PresetManager(new HeadlessAppState());
+        presetManager.presetsLoaded().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        presetManager.shutDownScheduler();
+    }
+
+    @Test
+    void exportDoesNotChangeTheTasksOfThePreset() {
+        /* equal ranks, as in presets saved before tasks were ranked */
+        Preset preset = new Preset("legacy", 1500, 300, 900, null, 4, PersistenceManager.getAudioDataList().getFirst(),
+                new ArrayList<>(List.of(new Task("a", 1), new Task("b", 1), new Task("c", 1))));
+        preset.getTasks().getFirst().addFocusMillis(90_000);
+        presetManager.addPreset(preset);
+        List<Task> tasks = List.copyOf(preset.getTasks());
+
+        File file = dir.resolve("legacy.pomo").toFile();
+        assertTrue(new PresetImporterExporter(presetManager).exportPreset(preset, file));
+
+        assertEquals(tasks, preset.getTasks());
+        for (Task t : preset.getTasks()) {
+            assertEquals(1, t.getPriority());
+        }
+        assertEquals(tasks, preset.snapshot().getTasks());
+        assertEquals(90_000, preset.getTasks().getFirst().getFocusMillis());
+    }
+}